@@ -0,0 +1,67 @@
+package org.pipservices3.components.cache;
+
+import org.openjdk.jmh.annotations.*;
+import org.pipservices3.commons.config.ConfigParams;
+import org.pipservices3.commons.errors.ConfigException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures CPU cost of {@link CodecCache} codecs and compression.
+ * The size of the encoded value is printed on setup to compare the memory savings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecCacheBenchmark {
+    @Param({"serializable", "json", "smile"})
+    public String codec;
+
+    @Param({"0", "1024"})
+    public int compressionThreshold;
+
+    private CodecCache _cache;
+    private Object _value;
+
+    @Setup
+    public void setup() throws ConfigException, IOException {
+        _cache = new CodecCache();
+        _cache.configure(ConfigParams.fromTuples(
+                "options.codec", codec,
+                "options.compression_threshold", compressionThreshold
+        ));
+
+        // A large object graph of typical data records
+        List<Object> items = new ArrayList<>();
+        for (int index = 0; index < 200; index++) {
+            HashMap<String, Object> item = new HashMap<>();
+            item.put("id", "item" + index);
+            item.put("name", "Item number " + index);
+            item.put("price", index * 1.5);
+            item.put("tags", new ArrayList<>(List.of("tag1", "tag2", "tag3")));
+            items.add(item);
+        }
+        _value = new HashMap<>(Map.of("items", items));
+
+        _cache.store(null, "key", _value, 0);
+        System.out.println("Encoded value size: " + _cache.getCodec().encode(_value).length + " bytes");
+    }
+
+    @Benchmark
+    public Object store() {
+        return _cache.store(null, "key", _value, 0);
+    }
+
+    @Benchmark
+    public Object retrieve() {
+        return _cache.retrieve(null, "key");
+    }
+}
@@ -0,0 +1,84 @@
+package org.pipservices3.components.cache;
+
+import org.openjdk.jmh.annotations.*;
+import org.pipservices3.commons.config.ConfigParams;
+import org.pipservices3.commons.errors.ConfigException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures throughput of {@link MemoryCache} operations with different eviction policies.
+ * The key space is twice larger than the cache, so stores constantly evict values.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemoryCacheBenchmark {
+    private final static int _keyCount = 20000;
+
+    @Param({"fifo", "lru", "lfu", "tinylfu"})
+    public String evictionPolicy;
+
+    private MemoryCache _cache;
+    private String[] _keys;
+
+    @State(Scope.Thread)
+    public static class KeyState {
+        private long _seed = System.nanoTime();
+
+        /**
+         * Generates a pseudo-random key index without allocations.
+         */
+        int next() {
+            _seed ^= _seed << 13;
+            _seed ^= _seed >>> 7;
+            _seed ^= _seed << 17;
+            return (int) ((_seed & Long.MAX_VALUE) % _keyCount);
+        }
+    }
+
+    @Setup
+    public void setup() throws ConfigException {
+        _cache = new MemoryCache();
+        _cache.configure(ConfigParams.fromTuples(
+                "options.max_size", _keyCount / 2,
+                "options.eviction_policy", evictionPolicy
+        ));
+
+        _keys = new String[_keyCount];
+        for (int index = 0; index < _keyCount; index++) {
+            _keys[index] = "key" + index;
+            if (index % 2 == 0)
+                _cache.store(null, _keys[index], index, 0);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object retrieve(KeyState state) {
+        return _cache.retrieve(null, _keys[state.next()]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object retrieveConcurrent(KeyState state) {
+        return _cache.retrieve(null, _keys[state.next()]);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object store(KeyState state) {
+        int index = state.next();
+        return _cache.store(null, _keys[index], index, 0);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object storeConcurrent(KeyState state) {
+        int index = state.next();
+        return _cache.store(null, _keys[index], index, 0);
+    }
+}
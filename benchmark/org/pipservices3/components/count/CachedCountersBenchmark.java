@@ -0,0 +1,59 @@
+package org.pipservices3.components.count;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures overhead of recording measurements in {@link CachedCounters}.
+ * Saving is a no-op, so only the in-memory bookkeeping is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CachedCountersBenchmark {
+    private CachedCounters _counters;
+
+    @Setup
+    public void setup() {
+        _counters = new CachedCounters() {
+            @Override
+            protected void save(List<Counter> counters) {
+            }
+        };
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void increment() {
+        _counters.incrementOne("benchmark.calls");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void incrementConcurrent() {
+        _counters.incrementOne("benchmark.calls");
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void stats() {
+        _counters.stats("benchmark.stats", 1.5f);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void timing() {
+        _counters.beginTiming("benchmark.exec_time").endTiming();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void timingConcurrent() {
+        _counters.beginTiming("benchmark.exec_time").endTiming();
+    }
+}
@@ -0,0 +1,47 @@
+package org.pipservices3.components.lock;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures throughput of acquiring and releasing {@link MemoryLock} locks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemoryLockBenchmark {
+    private final static AtomicInteger _threadCount = new AtomicInteger();
+
+    private MemoryLock _lock;
+
+    @State(Scope.Thread)
+    public static class KeyState {
+        final String key = "lock" + _threadCount.incrementAndGet();
+    }
+
+    @Setup
+    public void setup() {
+        _lock = new MemoryLock();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean acquireAndRelease(KeyState state) {
+        boolean acquired = _lock.tryAcquireLock(null, state.key, 10000);
+        _lock.releaseLock(null, state.key);
+        return acquired;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean acquireAndReleaseConcurrent(KeyState state) {
+        boolean acquired = _lock.tryAcquireLock(null, state.key, 10000);
+        _lock.releaseLock(null, state.key);
+        return acquired;
+    }
+}
@@ -0,0 +1,47 @@
+package org.pipservices3.components.log;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures overhead of writing messages into {@link CachedLogger}.
+ * Saving is a no-op, so only formatting and caching of messages is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CachedLoggerBenchmark {
+    private CachedLogger _logger;
+
+    @Setup
+    public void setup() {
+        _logger = new CachedLogger() {
+            @Override
+            protected void save(List<LogMessage> messages) {
+            }
+        };
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void info() {
+        _logger.info("123", "Processed %d items", 10);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void infoConcurrent() {
+        _logger.info("123", "Processed %d items", 10);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void filteredDebug() {
+        _logger.debug("123", "Processed %d items", 10);
+    }
+}
@@ -0,0 +1,218 @@
+package org.pipservices3.components.cache;
+
+import org.pipservices3.commons.errors.ApplicationException;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * Adapter that exposes a blocking {@link ICache} through the asynchronous {@link IAsyncCache} interface.
+ * <p>
+ * Without an executor the operations run in the calling thread and return completed futures.
+ * It is the cheapest option for in-memory caches like {@link MemoryCache} or {@link NullCache}
+ * that never block for long. For caches that perform I/O an executor shall be provided,
+ * so callers are not blocked while the operations run.
+ * <p>
+ * ### Example ###
+ * <pre>
+ * {@code
+ * IAsyncCache cache = new AsyncCacheAdapter(new MemoryCache());
+ *
+ * cache.store("123", "key1", "ABC", 0)
+ *     .thenCompose(value -> cache.retrieve("123", "key1"))
+ *     .thenAccept(value -> System.out.println(value));
+ * }
+ * </pre>
+ *
+ * @see IAsyncCache
+ * @see ICache
+ */
+public class AsyncCacheAdapter implements IAsyncCache {
+    private final ICache _cache;
+    private final Executor _executor;
+
+    /**
+     * Creates a new adapter that runs operations in the calling thread.
+     *
+     * @param cache a cache to be adapted.
+     */
+    public AsyncCacheAdapter(ICache cache) {
+        this(cache, null);
+    }
+
+    /**
+     * Creates a new adapter that runs operations with the given executor.
+     *
+     * @param cache    a cache to be adapted.
+     * @param executor (optional) an executor to run cache operations. If null, operations run in the calling thread.
+     */
+    public AsyncCacheAdapter(ICache cache, Executor executor) {
+        if (cache == null)
+            throw new NullPointerException("Cache cannot be null");
+
+        _cache = cache;
+        _executor = executor;
+    }
+
+    /**
+     * Gets the adapted blocking cache.
+     *
+     * @return the adapted cache.
+     */
+    public ICache getCache() {
+        return _cache;
+    }
+
+    private <T> CompletableFuture<T> execute(Supplier<T> operation) {
+        if (_executor != null)
+            return CompletableFuture.supplyAsync(operation, _executor);
+
+        try {
+            return CompletableFuture.completedFuture(operation.get());
+        } catch (RuntimeException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    /**
+     * Retrieves cached value from the cache using its key. If value is missing in
+     * the cache or expired it completes with null.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     * @return a future with a cached value or null if value wasn't found or timeout expired.
+     */
+    @Override
+    public CompletableFuture<Object> retrieve(String correlationId, String key) {
+        return execute(() -> _cache.retrieve(correlationId, key));
+    }
+
+    /**
+     * Retrieves multiple cached values from the cache using their keys.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param keys          unique value keys.
+     * @return a future with a map of found values. Missing and expired keys are not included.
+     */
+    @Override
+    public CompletableFuture<Map<String, Object>> retrieveMany(String correlationId, Collection<String> keys) {
+        return execute(() -> _cache.retrieveMany(correlationId, keys));
+    }
+
+    /**
+     * Retrieves cached value from the cache or loads it when the value is missing or expired.
+     * It delegates to {@link ICache#retrieveOrLoad}, so concurrent loads of the same key
+     * are coalesced when the adapted cache supports it.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     * @param loader        a loader to compute the missing value.
+     * @param timeout       expiration timeout in milliseconds for the loaded value.
+     * @return a future with a cached or loaded value or null if the loader returned null.
+     * The future fails when the loader failed.
+     */
+    @Override
+    public CompletableFuture<Object> retrieveOrLoad(String correlationId, String key, ICacheLoader loader,
+                                                    long timeout) {
+        return execute(() -> {
+            try {
+                return _cache.retrieveOrLoad(correlationId, key, loader, timeout);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(ex);
+            } catch (ApplicationException ex) {
+                throw new CompletionException(ex);
+            }
+        });
+    }
+
+    /**
+     * Computes a new value from the current cached value and stores it.
+     * It delegates to {@link ICache#compute}, so it is atomic when the adapted cache supports it.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     * @param function      a function that receives the key and the current value
+     *                      (null when it is missing or expired) and returns the new value.
+     * @param timeout       expiration timeout in milliseconds for the new value.
+     * @return a future with the new value or null if the value was removed.
+     */
+    @Override
+    public CompletableFuture<Object> compute(String correlationId, String key,
+                                             BiFunction<String, Object, Object> function, long timeout) {
+        return execute(() -> _cache.compute(correlationId, key, function, timeout));
+    }
+
+    /**
+     * Stores value in the cache with expiration time.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     * @param value         a value to store.
+     * @param timeout       expiration timeout in milliseconds.
+     * @return a future with a cached value stored in the cache.
+     */
+    @Override
+    public CompletableFuture<Object> store(String correlationId, String key, Object value, long timeout) {
+        return execute(() -> _cache.store(correlationId, key, value, timeout));
+    }
+
+    /**
+     * Stores multiple values in the cache with the same expiration time.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param values        a map of unique value keys and values to store.
+     * @param timeout       expiration timeout in milliseconds.
+     * @return a future completed when the values are stored.
+     */
+    @Override
+    public CompletableFuture<Void> storeMany(String correlationId, Map<String, Object> values, long timeout) {
+        return execute(() -> {
+            _cache.storeMany(correlationId, values, timeout);
+            return null;
+        });
+    }
+
+    /**
+     * Removes a value from the cache by its key.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     * @return a future completed when the value is removed.
+     */
+    @Override
+    public CompletableFuture<Void> remove(String correlationId, String key) {
+        return execute(() -> {
+            _cache.remove(correlationId, key);
+            return null;
+        });
+    }
+
+    /**
+     * Removes multiple values from the cache by their keys.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param keys          unique value keys.
+     * @return a future completed when the values are removed.
+     */
+    @Override
+    public CompletableFuture<Void> removeMany(String correlationId, Collection<String> keys) {
+        return execute(() -> {
+            _cache.removeMany(correlationId, keys);
+            return null;
+        });
+    }
+}
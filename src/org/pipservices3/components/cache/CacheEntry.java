@@ -1,12 +1,17 @@
 package org.pipservices3.components.cache;
 
+import org.pipservices3.components.clock.Clock;
+
 /**
  * Data object to store cached values with their keys used by {@link MemoryCache}
  */
 public class CacheEntry {
 	private long _expiration;
+	private long _timeout;
 	private final String _key;
 	private Object _value;
+	private long _weight;
+	private String[] _tags;
 
 	/**
 	 * Creates a new instance of the cache entry and assigns its values.
@@ -18,7 +23,8 @@ public class CacheEntry {
 	public CacheEntry(String key, Object value, long timeout) {
 		_key = key;
 		_value = value;
-		_expiration = System.currentTimeMillis() + timeout;
+		_timeout = timeout;
+		_expiration = Clock.currentTimeMillis() + timeout;
 	}
 
 	/**
@@ -47,7 +53,15 @@ public class CacheEntry {
 	 */
 	public void setValue(Object value, long timeout) {
 		_value = value;
-		_expiration = System.currentTimeMillis() + timeout;
+		_timeout = timeout;
+		_expiration = Clock.currentTimeMillis() + timeout;
+	}
+
+	/**
+	 * Extends expiration of the value by its timeout starting from the current time.
+	 */
+	public void touch() {
+		_expiration = Clock.currentTimeMillis() + _timeout;
 	}
 
 	/**
@@ -59,12 +73,57 @@ public class CacheEntry {
 		return _expiration;
 	}
 
+	/**
+	 * Gets the timeout the value was stored with.
+	 * 
+	 * @return the expiration timeout in milliseconds.
+	 */
+	public long getTimeout() {
+		return _timeout;
+	}
+
+	/**
+	 * Gets the weight of this entry estimated by the cache weigher.
+	 * 
+	 * @return the entry weight.
+	 */
+	public long getWeight() {
+		return _weight;
+	}
+
+	/**
+	 * Sets the weight of this entry.
+	 * 
+	 * @param weight the entry weight.
+	 */
+	public void setWeight(long weight) {
+		_weight = weight;
+	}
+
+	/**
+	 * Gets the tags used to invalidate this entry together with other entries.
+	 * 
+	 * @return the entry tags or null if the entry has no tags.
+	 */
+	public String[] getTags() {
+		return _tags;
+	}
+
+	/**
+	 * Sets the tags of this entry.
+	 * 
+	 * @param tags the entry tags or null to remove them.
+	 */
+	public void setTags(String[] tags) {
+		_tags = tags;
+	}
+
 	/**
 	 * Checks if this value already expired.
 	 * 
 	 * @return true if the value already expires and false otherwise.
 	 */
 	public boolean isExpired() {
-		return _expiration < System.currentTimeMillis();
+		return _expiration < Clock.currentTimeMillis();
 	}
 }
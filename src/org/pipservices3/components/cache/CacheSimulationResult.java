@@ -0,0 +1,102 @@
+package org.pipservices3.components.cache;
+
+/**
+ * Result of replaying a key trace against one cache configuration by {@link CacheSimulator}.
+ */
+public class CacheSimulationResult {
+    private final String _evictionPolicy;
+    private final long _maxSize;
+    private final long _hits;
+    private final long _misses;
+    private final long _operations;
+    private final long _elapsedNanos;
+
+    /**
+     * Creates a new simulation result.
+     *
+     * @param evictionPolicy the simulated eviction policy.
+     * @param maxSize        the simulated cache size.
+     * @param hits           the number of reads that found their keys.
+     * @param misses         the number of reads that didn't find their keys.
+     * @param operations     the total number of replayed operations.
+     * @param elapsedNanos   the replay time in nanoseconds.
+     */
+    public CacheSimulationResult(String evictionPolicy, long maxSize, long hits, long misses,
+                                 long operations, long elapsedNanos) {
+        _evictionPolicy = evictionPolicy;
+        _maxSize = maxSize;
+        _hits = hits;
+        _misses = misses;
+        _operations = operations;
+        _elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Gets the simulated eviction policy.
+     *
+     * @return the eviction policy name.
+     */
+    public String getEvictionPolicy() {
+        return _evictionPolicy;
+    }
+
+    /**
+     * Gets the simulated cache size.
+     *
+     * @return the maximum number of cached values.
+     */
+    public long getMaxSize() {
+        return _maxSize;
+    }
+
+    /**
+     * Gets the number of reads that found their keys.
+     *
+     * @return the number of hits.
+     */
+    public long getHits() {
+        return _hits;
+    }
+
+    /**
+     * Gets the number of reads that didn't find their keys.
+     *
+     * @return the number of misses.
+     */
+    public long getMisses() {
+        return _misses;
+    }
+
+    /**
+     * Gets the ratio of reads that found their keys.
+     *
+     * @return the hit ratio from 0 to 1.
+     */
+    public double getHitRatio() {
+        long reads = _hits + _misses;
+        return reads > 0 ? (double) _hits / reads : 0;
+    }
+
+    /**
+     * Gets the total number of replayed operations.
+     *
+     * @return the number of operations.
+     */
+    public long getOperations() {
+        return _operations;
+    }
+
+    /**
+     * Gets the replay throughput.
+     *
+     * @return the number of operations per second.
+     */
+    public double getThroughput() {
+        return _elapsedNanos > 0 ? _operations * 1e9 / _elapsedNanos : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-10s %12d %10.4f %14.0f", _evictionPolicy, _maxSize, getHitRatio(), getThroughput());
+    }
+}
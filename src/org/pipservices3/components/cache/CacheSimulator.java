@@ -0,0 +1,239 @@
+package org.pipservices3.components.cache;
+
+import org.pipservices3.commons.config.ConfigParams;
+import org.pipservices3.commons.errors.ConfigException;
+import org.pipservices3.commons.errors.FileException;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Offline tool that replays key traces recorded by {@link TraceRecordingCache}
+ * against {@link MemoryCache} with different sizes and eviction policies.
+ * It reports hit ratio and throughput for each configuration, so cache settings
+ * can be chosen from real workloads instead of guesses.
+ * <p>
+ * Reads that miss are followed by stores, as if the values were loaded from the backing storage.
+ * When the trace already has a store of the key right after the read, as recorded from cache-aside code,
+ * no extra store is made, so loads are not counted twice. Value timeouts are not simulated.
+ * <p>
+ * It can be started from the command line:
+ * <pre>
+ * java org.pipservices3.components.cache.CacheSimulator trace_path [policies] [sizes]
+ * </pre>
+ * where policies and sizes are comma-separated lists, e.g. "lru,tinylfu" and "1000,10000".
+ * <p>
+ * ### Example ###
+ * <pre>
+ * {@code
+ * CacheSimulator simulator = new CacheSimulator();
+ * simulator.readTrace("123", "./data/cache.trace");
+ *
+ * List<CacheSimulationResult> results = simulator.simulate(
+ *     Arrays.asList("fifo", "lru", "tinylfu"), new long[] { 1000, 10000, 100000 });
+ * for (CacheSimulationResult result : results)
+ *     System.out.println(result.getEvictionPolicy() + " " + result.getMaxSize() + " " + result.getHitRatio());
+ * }
+ * </pre>
+ *
+ * @see TraceRecordingCache
+ * @see CacheSimulationResult
+ */
+public class CacheSimulator {
+    private final static List<String> _defaultPolicies = Arrays.asList("fifo", "lru", "lfu", "tinylfu");
+    private final static long[] _defaultSizes = new long[]{100, 1000, 10000, 100000};
+    private final static long _timeout = Integer.MAX_VALUE;
+
+    private byte[] _operations = new byte[1024];
+    private String[] _keys = new String[1024];
+    private int _length = 0;
+    // Reads that are not followed by stores of the same keys, calculated on demand
+    private boolean[] _unloadedReads;
+
+    /**
+     * Creates a new instance of the simulator with an empty trace.
+     */
+    public CacheSimulator() {
+    }
+
+    /**
+     * Gets the number of operations in the trace.
+     *
+     * @return the trace length.
+     */
+    public int getLength() {
+        return _length;
+    }
+
+    /**
+     * Reads a trace file recorded by {@link TraceRecordingCache} and appends it to the trace.
+     *
+     * @param correlationId (optional) transaction id to trace execution through call chain.
+     * @param path          a path to the trace file.
+     * @throws FileException when the file cannot be read.
+     */
+    public void readTrace(String correlationId, String path) throws FileException {
+        // Equal hashes share one key string to save memory
+        Map<Long, String> keys = new HashMap<>();
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(Paths.get(path))))) {
+            while (true) {
+                byte operation;
+                long hash;
+                try {
+                    operation = input.readByte();
+                    hash = input.readLong();
+                } catch (EOFException ex) {
+                    break;
+                }
+
+                String key = keys.computeIfAbsent(hash, Long::toHexString);
+                addOperation(operation, key);
+            }
+        } catch (IOException ex) {
+            throw (FileException) new FileException(correlationId, "READ_FAILED",
+                    "Failed to read trace file " + path + ": " + ex)
+                    .withDetails("path", path).withCause(ex);
+        }
+    }
+
+    /**
+     * Appends an operation to the trace.
+     *
+     * @param operation an operation code: {@link TraceRecordingCache#Retrieve},
+     *                  {@link TraceRecordingCache#Store} or {@link TraceRecordingCache#Remove}.
+     * @param key       a unique value key.
+     */
+    public void addOperation(byte operation, String key) {
+        if (key == null)
+            throw new NullPointerException("Key cannot be null");
+
+        if (_length == _operations.length) {
+            _operations = Arrays.copyOf(_operations, _length * 2);
+            _keys = Arrays.copyOf(_keys, _length * 2);
+        }
+        _operations[_length] = operation;
+        _keys[_length] = key;
+        _length++;
+        _unloadedReads = null;
+    }
+
+    /**
+     * Finds reads whose keys are not stored by the next operation on the same key.
+     * Misses of those reads are followed by synthesized stores.
+     */
+    private boolean[] getUnloadedReads() {
+        if (_unloadedReads == null) {
+            boolean[] unloadedReads = new boolean[_length];
+            Map<String, Byte> nextOperations = new HashMap<>();
+            for (int index = _length - 1; index >= 0; index--) {
+                Byte next = nextOperations.put(_keys[index], _operations[index]);
+                unloadedReads[index] = _operations[index] == TraceRecordingCache.Retrieve
+                        && (next == null || next != TraceRecordingCache.Store);
+            }
+            _unloadedReads = unloadedReads;
+        }
+        return _unloadedReads;
+    }
+
+    /**
+     * Replays the trace against a cache with the given configuration.
+     *
+     * @param evictionPolicy an eviction policy: fifo, lru, lfu or tinylfu.
+     * @param maxSize        maximum number of values stored in the cache.
+     * @return the simulation result.
+     * @throws ConfigException when the eviction policy is not supported.
+     */
+    public CacheSimulationResult simulate(String evictionPolicy, long maxSize) throws ConfigException {
+        MemoryCache cache = new MemoryCache();
+        cache.configure(ConfigParams.fromTuples(
+                "options.eviction_policy", evictionPolicy,
+                "options.max_size", maxSize,
+                "options.timeout", _timeout,
+                "options.negative_max_size", 0
+        ));
+
+        boolean[] unloadedReads = getUnloadedReads();
+        long hits = 0;
+        long misses = 0;
+        long start = System.nanoTime();
+
+        for (int index = 0; index < _length; index++) {
+            String key = _keys[index];
+            switch (_operations[index]) {
+                case TraceRecordingCache.Retrieve:
+                    if (cache.retrieve(null, key) != null) {
+                        hits++;
+                    } else {
+                        misses++;
+                        if (unloadedReads[index])
+                            cache.store(null, key, key, _timeout);
+                    }
+                    break;
+                case TraceRecordingCache.Store:
+                    cache.store(null, key, key, _timeout);
+                    break;
+                case TraceRecordingCache.Remove:
+                    cache.remove(null, key);
+                    break;
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+        return new CacheSimulationResult(evictionPolicy, maxSize, hits, misses, _length, elapsed);
+    }
+
+    /**
+     * Replays the trace against all combinations of eviction policies and cache sizes.
+     * Results for each policy form a hit ratio curve over the sizes.
+     *
+     * @param evictionPolicies eviction policies to simulate.
+     * @param sizes            cache sizes to simulate.
+     * @return the simulation results ordered by policies and sizes.
+     * @throws ConfigException when an eviction policy is not supported.
+     */
+    public List<CacheSimulationResult> simulate(Collection<String> evictionPolicies, long[] sizes)
+            throws ConfigException {
+        List<CacheSimulationResult> results = new ArrayList<>();
+        for (String evictionPolicy : evictionPolicies) {
+            for (long size : sizes)
+                results.add(simulate(evictionPolicy, size));
+        }
+        return results;
+    }
+
+    /**
+     * Runs the simulator from the command line and prints results in a table.
+     *
+     * @param args the trace path, optional comma-separated policies and sizes.
+     * @throws Exception when the trace cannot be read or the arguments are invalid.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.out.println("Usage: CacheSimulator trace_path [policies] [sizes]");
+            return;
+        }
+
+        List<String> policies = args.length > 1 ? Arrays.asList(args[1].split(",")) : _defaultPolicies;
+        long[] sizes = args.length > 2
+                ? Arrays.stream(args[2].split(",")).mapToLong(Long::parseLong).toArray()
+                : _defaultSizes;
+
+        CacheSimulator simulator = new CacheSimulator();
+        simulator.readTrace(null, args[0]);
+        System.out.println("Replaying " + simulator.getLength() + " operations");
+        System.out.println(String.format("%-10s %12s %10s %14s", "policy", "max_size", "hit_ratio", "ops/sec"));
+        for (CacheSimulationResult result : simulator.simulate(policies, sizes))
+            System.out.println(result);
+    }
+}
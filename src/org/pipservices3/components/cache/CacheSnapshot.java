@@ -0,0 +1,215 @@
+package org.pipservices3.components.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Binary snapshot of cache entries used to warm up {@link MemoryCache} after restarts.
+ * <p>
+ * The file starts with a header (magic number, version and number of records)
+ * followed by records: key, absolute expiration time, tags and the value encoded by a codec.
+ * Absolute expiration times keep values from outliving their timeouts while the process is down.
+ * Values are encoded and decoded in parallel, while the file is read and written sequentially.
+ * Counts and lengths are validated against the file size, so corrupted files fail with {@link IOException}.
+ *
+ * @see MemoryCache
+ */
+class CacheSnapshot {
+    private final static int _magic = 0x50435331; // "PCS1"
+    private final static int _version = 1;
+    // Strings are written in modified UTF-8 limited to 64K bytes, so longer keys and tags are skipped
+    private final static int _maxStringLength = 0xFFFF / 3;
+    // Key length, expiration, tag count and value length
+    private final static int _minRecordSize = 2 + 8 + 2 + 4;
+
+    /**
+     * Writes cache entries into a snapshot file. The file is replaced atomically,
+     * so readers never see a partially written snapshot.
+     * Values that cannot be encoded are skipped.
+     *
+     * @param path    a path to the snapshot file.
+     * @param entries cache entries to write.
+     * @param codec   a codec to encode values.
+     * @return the number of written entries.
+     * @throws IOException when the file cannot be written.
+     */
+    static int write(Path path, List<CacheEntry> entries, ICacheCodec codec) throws IOException {
+        List<byte[]> values = entries.parallelStream()
+                .map(entry -> {
+                    if (!isWritable(entry))
+                        return null;
+                    try {
+                        return codec.encode(entry.getValue());
+                    } catch (IOException ex) {
+                        return null;
+                    }
+                })
+                .collect(Collectors.toList());
+
+        int count = (int) values.stream().filter(Objects::nonNull).count();
+
+        if (path.toAbsolutePath().getParent() != null)
+            Files.createDirectories(path.toAbsolutePath().getParent());
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            output.writeInt(_magic);
+            output.writeInt(_version);
+            output.writeInt(count);
+
+            for (int index = 0; index < entries.size(); index++) {
+                byte[] value = values.get(index);
+                if (value == null)
+                    continue;
+
+                CacheEntry entry = entries.get(index);
+                String[] tags = entry.getTags() != null ? entry.getTags() : new String[0];
+                output.writeUTF(entry.getKey());
+                output.writeLong(entry.getExpiration());
+                output.writeShort(tags.length);
+                for (String tag : tags)
+                    output.writeUTF(tag);
+                output.writeInt(value.length);
+                output.write(value);
+            }
+        }
+
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return count;
+    }
+
+    private static boolean isWritable(CacheEntry entry) {
+        if (entry.getKey().length() > _maxStringLength)
+            return false;
+        if (entry.getTags() != null) {
+            for (String tag : entry.getTags()) {
+                if (tag.length() > _maxStringLength)
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads cache entries from a snapshot file. Entries that already expired
+     * and values that cannot be decoded are skipped.
+     *
+     * @param path  a path to the snapshot file.
+     * @param codec a codec to decode values.
+     * @param now   the current time in milliseconds.
+     * @return the restored entries or an empty list if the file doesn't exist.
+     * @throws IOException when the file cannot be read, has unknown format or is corrupted.
+     */
+    static List<CacheEntry> read(Path path, ICacheCodec codec, long now) throws IOException {
+        List<String> keys = new ArrayList<>();
+        List<Long> expirations = new ArrayList<>();
+        List<String[]> tags = new ArrayList<>();
+        List<byte[]> values = new ArrayList<>();
+
+        try (CountingInputStream counter = new CountingInputStream(new BufferedInputStream(Files.newInputStream(path)));
+             DataInputStream input = new DataInputStream(counter)) {
+            long size = Files.size(path);
+            if (input.readInt() != _magic || input.readInt() != _version)
+                throw new IOException("Unknown cache snapshot format");
+
+            int count = input.readInt();
+            if (count < 0 || count > (size - counter.getPosition()) / _minRecordSize)
+                throw new IOException("Corrupted cache snapshot: invalid number of records " + count);
+
+            for (int index = 0; index < count; index++) {
+                String key = input.readUTF();
+                long expiration = input.readLong();
+                String[] entryTags = new String[input.readUnsignedShort()];
+                for (int tagIndex = 0; tagIndex < entryTags.length; tagIndex++)
+                    entryTags[tagIndex] = input.readUTF();
+                int length = input.readInt();
+                if (length < 0 || length > size - counter.getPosition())
+                    throw new IOException("Corrupted cache snapshot: invalid value length " + length);
+                byte[] value = new byte[length];
+                input.readFully(value);
+
+                if (expiration <= now)
+                    continue;
+
+                keys.add(key);
+                expirations.add(expiration);
+                tags.add(entryTags.length > 0 ? entryTags : null);
+                values.add(value);
+            }
+        } catch (NoSuchFileException ex) {
+            return new ArrayList<>();
+        }
+
+        // Values that cannot be decoded, e.g. after class changes, are skipped
+        List<Object> decoded = values.parallelStream()
+                .map(value -> {
+                    try {
+                        return codec.decode(value);
+                    } catch (IOException | RuntimeException ex) {
+                        return null;
+                    }
+                })
+                .collect(Collectors.toList());
+
+        List<CacheEntry> entries = new ArrayList<>(keys.size());
+        for (int index = 0; index < keys.size(); index++) {
+            if (decoded.get(index) == null)
+                continue;
+            CacheEntry entry = new CacheEntry(keys.get(index), decoded.get(index), expirations.get(index) - now);
+            entry.setTags(tags.get(index));
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    /**
+     * Input stream that counts consumed bytes to validate lengths against the file size.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        private long _position = 0;
+
+        CountingInputStream(InputStream input) {
+            super(input);
+        }
+
+        long getPosition() {
+            return _position;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value >= 0)
+                _position++;
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int count = super.read(buffer, offset, length);
+            if (count > 0)
+                _position += count;
+            return count;
+        }
+
+        @Override
+        public long skip(long count) throws IOException {
+            long skipped = super.skip(count);
+            _position += skipped;
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package org.pipservices3.components.cache;
+
+import org.pipservices3.components.count.ICounters;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics of cache usage: hits, misses, loads and evictions.
+ * <p>
+ * The statistics are recorded with striped counters, so concurrent
+ * cache calls don't contend with each other while updating them.
+ *
+ * @see MemoryCache
+ * @see ICounters
+ */
+public class CacheStats {
+    private final LongAdder _hits = new LongAdder();
+    private final LongAdder _misses = new LongAdder();
+    private final LongAdder _loads = new LongAdder();
+    private final LongAdder _loadFailures = new LongAdder();
+    private final LongAdder _loadTime = new LongAdder();
+    private final LongAdder _evictions = new LongAdder();
+
+    // Values sent by the last publishing to calculate increments
+    private long _publishedHits;
+    private long _publishedMisses;
+    private long _publishedLoads;
+    private long _publishedLoadFailures;
+    private long _publishedLoadTime;
+    private long _publishedEvictions;
+
+    /**
+     * Creates a new instance of cache statistics.
+     */
+    public CacheStats() {
+    }
+
+    /**
+     * Records a value found in the cache.
+     */
+    public void recordHit() {
+        _hits.increment();
+    }
+
+    /**
+     * Records a value missing in the cache.
+     */
+    public void recordMiss() {
+        _misses.increment();
+    }
+
+    /**
+     * Records a completed load of a missing value.
+     *
+     * @param elapsed the load time in nanoseconds.
+     */
+    public void recordLoad(long elapsed) {
+        _loads.increment();
+        _loadTime.add(elapsed);
+    }
+
+    /**
+     * Records a failed load of a missing value.
+     *
+     * @param elapsed the load time in nanoseconds.
+     */
+    public void recordLoadFailure(long elapsed) {
+        _loadFailures.increment();
+        _loadTime.add(elapsed);
+    }
+
+    /**
+     * Records a value evicted to fit into the cache capacity.
+     */
+    public void recordEviction() {
+        _evictions.increment();
+    }
+
+    /**
+     * Gets the number of values found in the cache.
+     *
+     * @return the hit count.
+     */
+    public long getHitCount() {
+        return _hits.sum();
+    }
+
+    /**
+     * Gets the number of values missing in the cache.
+     *
+     * @return the miss count.
+     */
+    public long getMissCount() {
+        return _misses.sum();
+    }
+
+    /**
+     * Gets the ratio of hits to all requests.
+     *
+     * @return the hit rate from 0 to 1 or 1 when there were no requests.
+     */
+    public double getHitRate() {
+        long hits = _hits.sum();
+        long requests = hits + _misses.sum();
+        return requests > 0 ? (double) hits / requests : 1;
+    }
+
+    /**
+     * Gets the number of completed loads.
+     *
+     * @return the load count.
+     */
+    public long getLoadCount() {
+        return _loads.sum();
+    }
+
+    /**
+     * Gets the number of failed loads.
+     *
+     * @return the load failure count.
+     */
+    public long getLoadFailureCount() {
+        return _loadFailures.sum();
+    }
+
+    /**
+     * Gets the total time spent loading values.
+     *
+     * @return the load time in milliseconds.
+     */
+    public long getTotalLoadTime() {
+        return _loadTime.sum() / 1000000;
+    }
+
+    /**
+     * Gets the number of values evicted to fit into the cache capacity.
+     *
+     * @return the eviction count.
+     */
+    public long getEvictionCount() {
+        return _evictions.sum();
+    }
+
+    /**
+     * Publishes changes since the previous publishing into performance counters.
+     * <p>
+     * It updates counters &lt;name&gt;.hits, &lt;name&gt;.misses, &lt;name&gt;.loads,
+     * &lt;name&gt;.load_failures and &lt;name&gt;.evictions with increments,
+     * &lt;name&gt;.load_time with the average load time in milliseconds
+     * and &lt;name&gt;.size with the current cache size.
+     *
+     * @param counters performance counters to update.
+     * @param name     a prefix of the counter names.
+     * @param size     the current number of values in the cache.
+     */
+    public synchronized void publish(ICounters counters, String name, long size) {
+        long hits = _hits.sum();
+        long misses = _misses.sum();
+        long loads = _loads.sum();
+        long loadFailures = _loadFailures.sum();
+        long loadTime = _loadTime.sum();
+        long evictions = _evictions.sum();
+
+        counters.increment(name + ".hits", (int) (hits - _publishedHits));
+        counters.increment(name + ".misses", (int) (misses - _publishedMisses));
+        counters.increment(name + ".loads", (int) (loads - _publishedLoads));
+        counters.increment(name + ".load_failures", (int) (loadFailures - _publishedLoadFailures));
+        counters.increment(name + ".evictions", (int) (evictions - _publishedEvictions));
+        counters.last(name + ".size", size);
+
+        long loadCount = loads - _publishedLoads + loadFailures - _publishedLoadFailures;
+        if (loadCount > 0)
+            counters.stats(name + ".load_time", (loadTime - _publishedLoadTime) / 1000000f / loadCount);
+
+        _publishedHits = hits;
+        _publishedMisses = misses;
+        _publishedLoads = loads;
+        _publishedLoadFailures = loadFailures;
+        _publishedLoadTime = loadTime;
+        _publishedEvictions = evictions;
+    }
+}
@@ -0,0 +1,268 @@
+package org.pipservices3.components.cache;
+
+import org.pipservices3.commons.config.ConfigParams;
+import org.pipservices3.commons.config.IReconfigurable;
+import org.pipservices3.commons.errors.ConfigException;
+import org.pipservices3.commons.refer.DependencyResolver;
+import org.pipservices3.commons.refer.IReferenceable;
+import org.pipservices3.commons.refer.IReferences;
+import org.pipservices3.commons.refer.ReferenceException;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Cache that stores values in encoded and optionally compressed binary form.
+ * <p>
+ * Large object graphs take much less memory when they are kept as compact byte arrays.
+ * Values are encoded on store and decoded on every retrieve, so it trades CPU time for memory.
+ * The values are kept in a {@link MemoryCache} by default or in any other referenced cache.
+ * <p>
+ * Values that cannot be encoded are not cached.
+ * <p>
+ * ### Configuration parameters ###
+ * <ul>
+ * <li>options:
+ *   <ul>
+ *   <li>codec:                 codec to encode values: serializable, json or smile (default: serializable).
+ *                              json and smile codecs decode values into maps, lists and primitive values
+ *   <li>compression_threshold: minimum size in bytes of encoded values to be compressed.
+ *                              0 disables compression (default: 1024)
+ *   <li>...                    other options of the default {@link MemoryCache}
+ *   </ul>
+ * <li>dependencies:
+ *   <ul>
+ *   <li>cache:                 (optional) locator of a cache to store encoded values
+ *   </ul>
+ * </ul>
+ * <p>
+ * ### References ###
+ * <ul>
+ * <li>*:cache:*:*:1.0          (optional) {@link ICache} referenced by the cache dependency
+ * </ul>
+ * <p>
+ * ### Example ###
+ * <pre>
+ * {@code
+ * CodecCache cache = new CodecCache();
+ * cache.configure(ConfigParams.fromTuples(
+ *     "options.codec", "smile",
+ *     "options.compression_threshold", 4096,
+ *     "options.max_memory", 100 * 1024 * 1024
+ * ));
+ *
+ * cache.store("123", "key1", myLargeObject, 0);
+ * }
+ * </pre>
+ *
+ * @see ICache
+ * @see ICacheCodec
+ * @see CompressedCacheCodec
+ */
+public class CodecCache implements ICache, IReconfigurable, IReferenceable {
+    private final static String _defaultCodec = "serializable";
+    private final static int _defaultCompressionThreshold = 1024;
+
+    private final MemoryCache _defaultCache = new MemoryCache();
+    private ICache _cache = _defaultCache;
+    private final DependencyResolver _dependencyResolver = new DependencyResolver();
+    private String _codecName = _defaultCodec;
+    private int _compressionThreshold = _defaultCompressionThreshold;
+    private ICacheCodec _codec = createCodec(_codecName, _compressionThreshold);
+
+    /**
+     * Creates instance of codec cache component
+     */
+    public CodecCache() {
+    }
+
+    /**
+     * Configures component by passing configuration parameters.
+     * Missing parameters keep their current values, and the codec is recreated only when they change.
+     *
+     * @param config configuration parameters to be set.
+     * @throws ConfigException when component is in illegal state or configuration
+     *                         validation fails.
+     */
+    @Override
+    public void configure(ConfigParams config) throws ConfigException {
+        String codec = config.getAsStringWithDefault("options.codec", _codecName);
+        int threshold = config.getAsIntegerWithDefault("options.compression_threshold", _compressionThreshold);
+        if (!"serializable".equals(codec) && !"json".equals(codec) && !"smile".equals(codec))
+            throw new ConfigException(null, "BAD_CODEC", "Cache codec " + codec + " is not supported");
+
+        if (!codec.equals(_codecName) || threshold != _compressionThreshold) {
+            _codec = createCodec(codec, threshold);
+            _codecName = codec;
+            _compressionThreshold = threshold;
+        }
+        _defaultCache.configure(config);
+        _dependencyResolver.configure(config);
+    }
+
+    /**
+     * Sets references to dependent components.
+     *
+     * @param references references to locate the component dependencies.
+     * @throws ReferenceException when no references found.
+     */
+    @Override
+    public void setReferences(IReferences references) throws ReferenceException {
+        _dependencyResolver.setReferences(references);
+
+        Object cache = _dependencyResolver.getOneOptional("cache");
+        if (cache instanceof ICache && cache != this)
+            _cache = (ICache) cache;
+    }
+
+    private static ICacheCodec createCodec(String name, int threshold) {
+        ICacheCodec codec;
+        if ("json".equals(name))
+            codec = new JacksonCacheCodec();
+        else if ("smile".equals(name))
+            codec = new SmileCacheCodec();
+        else
+            codec = new SerializableCacheCodec();
+
+        return threshold > 0 ? new CompressedCacheCodec(codec, threshold) : codec;
+    }
+
+    /**
+     * Gets the codec used to convert cached values.
+     *
+     * @return the cache codec.
+     */
+    public ICacheCodec getCodec() {
+        return _codec;
+    }
+
+    /**
+     * Sets the codec used to convert cached values. It replaces the codec created from
+     * the configuration, including compression.
+     *
+     * @param codec the cache codec.
+     */
+    public void setCodec(ICacheCodec codec) {
+        if (codec == null)
+            throw new NullPointerException("Codec cannot be null");
+        _codec = codec;
+    }
+
+    private Object decode(Object data) {
+        if (!(data instanceof byte[]))
+            return null;
+
+        try {
+            return _codec.decode((byte[]) data);
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Retrieves cached value from the cache using its key. If value is missing in
+     * the cache or expired it returns null.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     * @return a cached value or null if value wasn't found or timeout expired.
+     */
+    @Override
+    public Object retrieve(String correlationId, String key) {
+        return decode(_cache.retrieve(correlationId, key));
+    }
+
+    /**
+     * Retrieves multiple cached values from the cache using their keys.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param keys          unique value keys.
+     * @return a map with found values. Missing and expired keys are not included.
+     */
+    @Override
+    public Map<String, Object> retrieveMany(String correlationId, Collection<String> keys) {
+        Map<String, Object> result = new HashMap<>();
+        for (Map.Entry<String, Object> data : _cache.retrieveMany(correlationId, keys).entrySet()) {
+            Object value = decode(data.getValue());
+            if (value != null)
+                result.put(data.getKey(), value);
+        }
+        return result;
+    }
+
+    /**
+     * Stores value in the cache with expiration time.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     * @param value         a value to store.
+     * @param timeout       expiration timeout in milliseconds.
+     * @return a cached value stored in the cache.
+     */
+    @Override
+    public Object store(String correlationId, String key, Object value, long timeout) {
+        if (value == null) {
+            _cache.remove(correlationId, key);
+            return null;
+        }
+
+        try {
+            _cache.store(correlationId, key, _codec.encode(value), timeout);
+        } catch (IOException ex) {
+            // Values that cannot be encoded are not cached
+            _cache.remove(correlationId, key);
+        }
+        return value;
+    }
+
+    /**
+     * Stores multiple values in the cache with the same expiration time.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param values        a map of unique value keys and values to store.
+     * @param timeout       expiration timeout in milliseconds.
+     */
+    @Override
+    public void storeMany(String correlationId, Map<String, Object> values, long timeout) {
+        Map<String, Object> encoded = new HashMap<>();
+        for (Map.Entry<String, Object> value : values.entrySet()) {
+            try {
+                encoded.put(value.getKey(), value.getValue() != null ? _codec.encode(value.getValue()) : null);
+            } catch (IOException ex) {
+                // Values that cannot be encoded are not cached
+                encoded.put(value.getKey(), null);
+            }
+        }
+        _cache.storeMany(correlationId, encoded, timeout);
+    }
+
+    /**
+     * Removes a value from the cache by its key.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     */
+    @Override
+    public void remove(String correlationId, String key) {
+        _cache.remove(correlationId, key);
+    }
+
+    /**
+     * Removes multiple values from the cache by their keys.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param keys          unique value keys.
+     */
+    @Override
+    public void removeMany(String correlationId, Collection<String> keys) {
+        _cache.removeMany(correlationId, keys);
+    }
+}
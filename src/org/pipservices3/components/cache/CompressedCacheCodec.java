@@ -0,0 +1,121 @@
+package org.pipservices3.components.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Codec that compresses values encoded by another codec when they exceed a size threshold.
+ * <p>
+ * It uses the fastest deflate level, which trades some compression ratio for low CPU cost.
+ * Every encoded value starts with a flag byte, so small values are stored
+ * uncompressed and the decoder knows which form to restore.
+ *
+ * @see ICacheCodec
+ */
+public class CompressedCacheCodec implements ICacheCodec {
+    private final static int _defaultThreshold = 1024;
+    private final static byte _plain = 0;
+    private final static byte _deflated = 1;
+
+    private final ICacheCodec _codec;
+    private final int _threshold;
+
+    /**
+     * Creates a new instance of the codec that compresses values larger than 1 KB.
+     *
+     * @param codec a codec to encode values before compression.
+     */
+    public CompressedCacheCodec(ICacheCodec codec) {
+        this(codec, _defaultThreshold);
+    }
+
+    /**
+     * Creates a new instance of the codec.
+     *
+     * @param codec     a codec to encode values before compression.
+     * @param threshold minimum size in bytes of encoded values to be compressed.
+     */
+    public CompressedCacheCodec(ICacheCodec codec, int threshold) {
+        if (codec == null)
+            throw new NullPointerException("Codec cannot be null");
+
+        _codec = codec;
+        _threshold = threshold;
+    }
+
+    /**
+     * Converts a value into binary form.
+     *
+     * @param value a value to encode.
+     * @return the encoded value.
+     * @throws IOException when the value cannot be encoded.
+     */
+    @Override
+    public byte[] encode(Object value) throws IOException {
+        byte[] data = _codec.encode(value);
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(data.length + 1);
+        if (data.length < _threshold) {
+            buffer.write(_plain);
+            buffer.write(data);
+            return buffer.toByteArray();
+        }
+
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+
+            buffer.write(_deflated);
+            byte[] chunk = new byte[Math.min(data.length, 8192)];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(chunk);
+                buffer.write(chunk, 0, length);
+            }
+            return buffer.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Restores a value from binary form.
+     *
+     * @param data an encoded value.
+     * @return the decoded value.
+     * @throws IOException when the data cannot be decoded.
+     */
+    @Override
+    public Object decode(byte[] data) throws IOException {
+        if (data.length == 0)
+            throw new IOException("Cannot decode empty cached value");
+
+        if (data[0] == _plain) {
+            byte[] plain = new byte[data.length - 1];
+            System.arraycopy(data, 1, plain, 0, plain.length);
+            return _codec.decode(plain);
+        }
+
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, 1, data.length - 1);
+
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(data.length * 4);
+            byte[] chunk = new byte[8192];
+            while (!inflater.finished()) {
+                int length = inflater.inflate(chunk);
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                    throw new IOException("Cached value is truncated");
+                buffer.write(chunk, 0, length);
+            }
+            return _codec.decode(buffer.toByteArray());
+        } catch (DataFormatException ex) {
+            throw new IOException("Cannot decompress cached value", ex);
+        } finally {
+            inflater.end();
+        }
+    }
+}
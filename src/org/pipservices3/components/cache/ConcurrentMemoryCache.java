@@ -0,0 +1,325 @@
+package org.pipservices3.components.cache;
+
+import org.pipservices3.commons.config.ConfigParams;
+import org.pipservices3.commons.config.IReconfigurable;
+import org.pipservices3.commons.errors.ConfigException;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+/**
+ * Cache that stores values in the process memory and allows concurrent access without a global lock.
+ * <p>
+ * Values are kept in a concurrent hash map, so reads never block and writes contend
+ * only for the map segment that holds their key. When the cache exceeds its maximum size,
+ * expired values among the oldest stored ones are evicted first, and then the oldest values.
+ * Order records of replaced and removed values are dropped in small steps on writes,
+ * so no single write pays for a full scan.
+ * <p>
+ * Remember: This implementation is not suitable for synchronization of distributed processes.
+ * <p>
+ * ### Configuration parameters ###
+ * <ul>
+ * <li>options:
+ *   <ul>
+ *   <li>timeout:               default caching timeout in milliseconds (default: 1 minute)
+ *   <li>max_size:              maximum number of values stored in this cache (default: 1000)
+ *   </ul>
+ * </ul>
+ * <p>
+ * ### Example ###
+ * <pre>
+ * {@code
+ * ConcurrentMemoryCache cache = new ConcurrentMemoryCache();
+ *
+ * cache.store("123", "key1", "ABC", 0);
+ * }
+ * </pre>
+ *
+ * @see ICache
+ * @see MemoryCache
+ */
+public class ConcurrentMemoryCache implements ICache, IReconfigurable {
+    private final static long _defaultTimeout = 60000;
+    private final static long _defaultMaxSize = 1000;
+
+    // Number of order records checked in one eviction or compaction step
+    private final static int _scanSize = 16;
+
+    private static class OrderRecord {
+        private final CacheEntry _entry;
+        // Set by the thread that drops the record, so it is counted only once
+        private final AtomicBoolean _dropped = new AtomicBoolean();
+
+        private OrderRecord(CacheEntry entry) {
+            _entry = entry;
+        }
+    }
+
+    private final ConcurrentHashMap<String, CacheEntry> _cache = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<OrderRecord> _order = new ConcurrentLinkedQueue<>();
+    private final AtomicLong _count = new AtomicLong();
+    private final AtomicLong _orderSize = new AtomicLong();
+    private final AtomicBoolean _compacting = new AtomicBoolean();
+    // Position of the incremental compaction, guarded by the compacting flag
+    private Iterator<OrderRecord> _compactCursor;
+    private volatile long _timeout = _defaultTimeout;
+    private volatile long _maxSize = _defaultMaxSize;
+
+    /**
+     * Creates instance of concurrent in-memory cache component
+     */
+    public ConcurrentMemoryCache() {
+    }
+
+    /**
+     * Configures component by passing configuration parameters.
+     *
+     * @param config configuration parameters to be set.
+     * @throws ConfigException when component is in illegal state or configuration
+     *                         validation fails.
+     */
+    public void configure(ConfigParams config) throws ConfigException {
+        _timeout = config.getAsLongWithDefault("options.timeout", _timeout);
+        _maxSize = config.getAsLongWithDefault("options.max_size", _maxSize);
+    }
+
+    /**
+     * Evicts entries until the cache fits into its maximum size.
+     */
+    private void cleanup() {
+        while (_maxSize > 0 && _count.get() > _maxSize) {
+            if (!evict())
+                break;
+        }
+    }
+
+    /**
+     * Marks an order record as dropped.
+     *
+     * @param record an order record.
+     * @return true if the record was dropped by this call and false if it was already dropped.
+     */
+    private boolean drop(OrderRecord record) {
+        if (!record._dropped.compareAndSet(false, true))
+            return false;
+        _orderSize.decrementAndGet();
+        return true;
+    }
+
+    /**
+     * Checks if an order record refers to the current entry of its key.
+     */
+    private boolean isLive(OrderRecord record) {
+        return _cache.get(record._entry.getKey()) == record._entry;
+    }
+
+    /**
+     * Evicts one entry. An expired entry among the oldest ones is evicted first,
+     * otherwise the oldest entry is evicted. Records of replaced or removed entries are dropped on the way.
+     *
+     * @return true if the eviction made progress and false when there is nothing to evict.
+     */
+    private boolean evict() {
+        OrderRecord oldest = null;
+        Iterator<OrderRecord> records = _order.iterator();
+        int scanned = 0;
+        for (; scanned < _scanSize && records.hasNext(); scanned++) {
+            OrderRecord record = records.next();
+            if (record._dropped.get()) {
+                records.remove();
+            } else if (!isLive(record)) {
+                drop(record);
+                records.remove();
+            } else if (record._entry.isExpired()) {
+                if (drop(record)) {
+                    records.remove();
+                    if (_cache.remove(record._entry.getKey(), record._entry))
+                        _count.decrementAndGet();
+                    return true;
+                }
+            } else if (oldest == null) {
+                oldest = record;
+            }
+        }
+
+        if (oldest != null && drop(oldest)) {
+            _order.remove(oldest);
+            if (_cache.remove(oldest._entry.getKey(), oldest._entry))
+                _count.decrementAndGet();
+        }
+        return scanned > 0;
+    }
+
+    /**
+     * Drops a few order records of replaced or removed entries, continuing from the previous step.
+     */
+    private void compact() {
+        if (!_compacting.compareAndSet(false, true))
+            return;
+
+        try {
+            if (_compactCursor == null)
+                _compactCursor = _order.iterator();
+
+            for (int index = 0; index < _scanSize; index++) {
+                if (!_compactCursor.hasNext()) {
+                    _compactCursor = null;
+                    break;
+                }
+
+                OrderRecord record = _compactCursor.next();
+                if (record._dropped.get() || (!isLive(record) && drop(record)))
+                    _compactCursor.remove();
+            }
+        } finally {
+            _compacting.set(false);
+        }
+    }
+
+    /**
+     * Retrieves cached value from the cache using its key. If value is missing in
+     * the cache or expired it returns null.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     * @return a cached value or null if value wasn't found or timeout expired.
+     */
+    public Object retrieve(String correlationId, String key) {
+        if (key == null)
+            throw new NullPointerException("Key cannot be null");
+
+        // Get entry from the cache
+        CacheEntry entry = _cache.get(key);
+
+        // Cache has nothing
+        if (entry == null)
+            return null;
+
+        // Remove entry if expiration set and entry is expired
+        if (entry.isExpired()) {
+            if (_cache.remove(key, entry))
+                _count.decrementAndGet();
+            return null;
+        }
+
+        return entry.getValue();
+    }
+
+    /**
+     * Stores value in the cache with expiration time.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     * @param value         a value to store.
+     * @param timeout       expiration timeout in milliseconds.
+     * @return a cached value stored in the cache.
+     */
+    public Object store(String correlationId, String key, Object value, long timeout) {
+        if (key == null)
+            throw new NullPointerException("Key cannot be null");
+
+        // Shortcut to remove entry from the cache
+        if (value == null) {
+            remove(correlationId, key);
+            return null;
+        }
+
+        // Entries are never modified in place, so readers always see a consistent state
+        timeout = timeout > 0 ? timeout : _timeout;
+        CacheEntry entry = new CacheEntry(key, value, timeout);
+        if (_cache.put(key, entry) == null)
+            _count.incrementAndGet();
+
+        track(entry);
+        return value;
+    }
+
+    /**
+     * Adds a stored entry into the eviction order and cleans up the cache.
+     *
+     * @param entry a stored cache entry.
+     */
+    private void track(CacheEntry entry) {
+        _order.offer(new OrderRecord(entry));
+        long orderSize = _orderSize.incrementAndGet();
+
+        // Clean up the cache
+        long count = _count.get();
+        if (_maxSize > 0 && count > _maxSize)
+            cleanup();
+        if (orderSize > 2 * count + 64)
+            compact();
+    }
+
+    /**
+     * Atomically computes a new value from the current cached value and stores it.
+     * If the function returns null, the value is removed. If it returns the current value,
+     * the value is kept with its current expiration time.
+     * <p>
+     * Only updates of the same key are serialized, so the function shall be short
+     * and must not call the cache.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     * @param function      a function that receives the key and the current value
+     *                      (null when it is missing or expired) and returns the new value.
+     * @param timeout       expiration timeout in milliseconds for the new value.
+     * @return the new value or null if the value was removed.
+     */
+    @Override
+    public Object compute(String correlationId, String key, BiFunction<String, Object, Object> function,
+                          long timeout) {
+        if (key == null)
+            throw new NullPointerException("Key cannot be null");
+
+        long entryTimeout = timeout > 0 ? timeout : _timeout;
+        // Whether the key had an entry and whether a new entry was created
+        boolean[] changes = new boolean[2];
+        CacheEntry entry = _cache.compute(key, (k, current) -> {
+            changes[0] = current != null;
+            Object value = current != null && !current.isExpired() ? current.getValue() : null;
+            Object newValue = function.apply(k, value);
+            if (newValue == null)
+                return null;
+            if (newValue == value)
+                return current;
+
+            changes[1] = true;
+            return new CacheEntry(k, newValue, entryTimeout);
+        });
+
+        if (changes[0] && entry == null)
+            _count.decrementAndGet();
+        else if (!changes[0] && entry != null)
+            _count.incrementAndGet();
+
+        if (changes[1])
+            track(entry);
+
+        return entry != null ? entry.getValue() : null;
+    }
+
+    /**
+     * Removes a value from the cache by its key.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     */
+    public void remove(String correlationId, String key) {
+        if (key == null)
+            throw new NullPointerException("Key cannot be null");
+
+        // Remove entry from the cache
+        if (_cache.remove(key) != null)
+            _count.decrementAndGet();
+    }
+}
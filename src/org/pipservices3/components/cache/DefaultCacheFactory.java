@@ -9,12 +9,40 @@ import org.pipservices3.components.build.Factory;
  * @see Factory
  * @see ICache
  * @see MemoryCache
+ * @see ConcurrentMemoryCache
+ * @see OffHeapCache
+ * @see TieredCache
+ * @see MappedFileCache
+ * @see NearCache
+ * @see CodecCache
+ * @see TraceRecordingCache
+ * @see ShardedCache
+ * @see LongKeyMemoryCache
+ * @see LoopbackInvalidationBus
  * @see NullCache
  */
 public class DefaultCacheFactory extends Factory {
     public final static Descriptor Descriptor = new Descriptor("pip-services", "factory", "cache", "*", "1.0");
     public final static Descriptor MemoryCacheDescriptor = new Descriptor("pip-services", "cache", "memory", "*",
             "1.0");
+    public final static Descriptor ConcurrentMemoryCacheDescriptor = new Descriptor("pip-services", "cache",
+            "concurrent-memory", "*", "1.0");
+    public final static Descriptor OffHeapCacheDescriptor = new Descriptor("pip-services", "cache", "off-heap", "*",
+            "1.0");
+    public final static Descriptor TieredCacheDescriptor = new Descriptor("pip-services", "cache", "tiered", "*",
+            "1.0");
+    public final static Descriptor MappedFileCacheDescriptor = new Descriptor("pip-services", "cache", "mapped-file",
+            "*", "1.0");
+    public final static Descriptor NearCacheDescriptor = new Descriptor("pip-services", "cache", "near", "*", "1.0");
+    public final static Descriptor CodecCacheDescriptor = new Descriptor("pip-services", "cache", "codec", "*", "1.0");
+    public final static Descriptor TraceRecordingCacheDescriptor = new Descriptor("pip-services", "cache",
+            "trace-recording", "*", "1.0");
+    public final static Descriptor ShardedCacheDescriptor = new Descriptor("pip-services", "cache", "sharded", "*",
+            "1.0");
+    public final static Descriptor LongKeyMemoryCacheDescriptor = new Descriptor("pip-services", "long-key-cache",
+            "memory", "*", "1.0");
+    public final static Descriptor LoopbackInvalidationBusDescriptor = new Descriptor("pip-services",
+            "cache-invalidation-bus", "loopback", "*", "1.0");
     public final static Descriptor NullCacheDescriptor = new Descriptor("pip-services", "cache", "null", "*", "1.0");
 
     /**
@@ -22,6 +50,16 @@ public class DefaultCacheFactory extends Factory {
      */
     public DefaultCacheFactory() {
         registerAsType(MemoryCacheDescriptor, MemoryCache.class);
+        registerAsType(ConcurrentMemoryCacheDescriptor, ConcurrentMemoryCache.class);
+        registerAsType(OffHeapCacheDescriptor, OffHeapCache.class);
+        registerAsType(TieredCacheDescriptor, TieredCache.class);
+        registerAsType(MappedFileCacheDescriptor, MappedFileCache.class);
+        registerAsType(NearCacheDescriptor, NearCache.class);
+        registerAsType(CodecCacheDescriptor, CodecCache.class);
+        registerAsType(TraceRecordingCacheDescriptor, TraceRecordingCache.class);
+        registerAsType(ShardedCacheDescriptor, ShardedCache.class);
+        registerAsType(LongKeyMemoryCacheDescriptor, LongKeyMemoryCache.class);
+        registerAsType(LoopbackInvalidationBusDescriptor, LoopbackInvalidationBus.class);
         registerAsType(NullCacheDescriptor, NullCache.class);
     }
 }
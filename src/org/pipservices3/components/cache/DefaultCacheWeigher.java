@@ -0,0 +1,137 @@
+package org.pipservices3.components.cache;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Weigher that estimates the heap size of cached values in bytes.
+ * <p>
+ * It calculates sizes of strings, boxed primitives, arrays, collections and maps
+ * assuming a 64-bit JVM with compressed references. Collections are measured
+ * recursively up to a limited depth and a limited number of elements, so weighing
+ * of large values stays cheap. Sizes of elements beyond the limit are extrapolated
+ * from the measured ones. Other objects are counted with a fixed size.
+ *
+ * @see ICacheWeigher
+ * @see MemoryCache
+ */
+public class DefaultCacheWeigher implements ICacheWeigher {
+    private final static long _headerSize = 16;
+    private final static long _referenceSize = 4;
+    private final static long _entryOverhead = 64;
+    private final static long _defaultObjectSize = 64;
+    private final static int _maxDepth = 4;
+    private final static int _maxElements = 1000;
+
+    /**
+     * Creates a new instance of the weigher.
+     */
+    public DefaultCacheWeigher() {
+    }
+
+    /**
+     * Estimates the weight of a cache entry.
+     *
+     * @param key   a unique value key.
+     * @param value a cached value.
+     * @return the estimated size of the key, the value and the entry in bytes.
+     */
+    @Override
+    public long weigh(String key, Object value) {
+        int[] budget = new int[]{_maxElements};
+        return _entryOverhead + sizeOf(key, 0, budget) + sizeOf(value, 0, budget);
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    /**
+     * Estimates total size of elements when only some of them were measured.
+     *
+     * @param size     total size of the measured elements.
+     * @param measured number of the measured elements.
+     * @param count    number of all elements.
+     * @return the estimated size of all elements.
+     */
+    private static long extrapolate(long size, int measured, int count) {
+        if (measured >= count)
+            return size;
+        if (measured == 0)
+            return count * _defaultObjectSize;
+        return size / measured * count;
+    }
+
+    private long sizeOf(Object value, int depth, int[] budget) {
+        if (value == null)
+            return 0;
+
+        if (value instanceof String)
+            return align(_headerSize + 8) + align(_headerSize + ((String) value).length());
+        if (value instanceof byte[])
+            return align(_headerSize + ((byte[]) value).length);
+        if (value instanceof Long || value instanceof Double)
+            return align(_headerSize + 8);
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character)
+            return align(_headerSize + 4);
+
+        if (depth >= _maxDepth)
+            return _defaultObjectSize;
+
+        if (value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            Class<?> componentType = value.getClass().getComponentType();
+            if (componentType.isPrimitive())
+                return align(_headerSize + (long) length * primitiveSize(componentType));
+
+            long itemsSize = 0;
+            int measured = 0;
+            for (; measured < length && budget[0] > 0; measured++, budget[0]--)
+                itemsSize += sizeOf(Array.get(value, measured), depth + 1, budget);
+            return align(_headerSize + length * _referenceSize) + extrapolate(itemsSize, measured, length);
+        }
+
+        if (value instanceof Collection) {
+            Collection<?> collection = (Collection<?>) value;
+            long itemsSize = 0;
+            int measured = 0;
+            for (Object item : collection) {
+                if (budget[0] <= 0)
+                    break;
+                budget[0]--;
+                itemsSize += sizeOf(item, depth + 1, budget);
+                measured++;
+            }
+            return align(_headerSize + 24) + align(_headerSize + collection.size() * _referenceSize)
+                    + extrapolate(itemsSize, measured, collection.size());
+        }
+
+        if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            long itemsSize = 0;
+            int measured = 0;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (budget[0] <= 0)
+                    break;
+                budget[0]--;
+                itemsSize += 32 + sizeOf(entry.getKey(), depth + 1, budget) + sizeOf(entry.getValue(), depth + 1, budget);
+                measured++;
+            }
+            return align(_headerSize + 32) + align(_headerSize + map.size() * _referenceSize * 2)
+                    + extrapolate(itemsSize, measured, map.size());
+        }
+
+        return _defaultObjectSize;
+    }
+
+    private static long primitiveSize(Class<?> type) {
+        if (type == long.class || type == double.class)
+            return 8;
+        if (type == int.class || type == float.class)
+            return 4;
+        if (type == short.class || type == char.class)
+            return 2;
+        return 1;
+    }
+}
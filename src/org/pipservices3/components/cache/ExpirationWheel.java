@@ -0,0 +1,146 @@
+package org.pipservices3.components.cache;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Hashed timing wheel that groups cache keys into buckets by their expiration time.
+ * <p>
+ * Each bucket covers one sweep interval. Sweeping visits only the buckets which time
+ * has already passed and processes them in limited batches, so expired entries are
+ * removed incrementally without scanning the whole cache.
+ * <p>
+ * The wheel is not thread-safe and shall be called under the cache synchronization.
+ *
+ * @see MemoryCache
+ */
+class ExpirationWheel {
+    /**
+     * Callback interface that gives the wheel access to the cache entries.
+     */
+    interface IExpirationHandler {
+        /**
+         * Gets the current expiration time of the entry.
+         *
+         * @param key a unique value key.
+         * @return the expiration time in milliseconds or -1 if the entry doesn't exist.
+         */
+        long getExpiration(String key);
+
+        /**
+         * Removes the expired entry from the cache.
+         *
+         * @param key a unique value key.
+         */
+        void expire(String key);
+    }
+
+    private final static int _slotCount = 512;
+
+    private final long _resolution;
+    private final List<Set<String>> _slots = new ArrayList<>(_slotCount);
+    private long _cursor;
+    private List<String> _pending = new ArrayList<>();
+    private int _pendingIndex = 0;
+
+    /**
+     * Creates a new timing wheel.
+     *
+     * @param resolution time covered by one bucket in milliseconds.
+     * @param now        the current time in milliseconds.
+     */
+    ExpirationWheel(long resolution, long now) {
+        _resolution = Math.max(1, resolution);
+        _cursor = now / _resolution;
+        for (int index = 0; index < _slotCount; index++)
+            _slots.add(new HashSet<>());
+    }
+
+    private int slotOf(long tick) {
+        return (int) (tick & (_slotCount - 1));
+    }
+
+    /**
+     * Schedules expiration of a key. Deadlines in buckets the sweeper has already passed
+     * go to the next swept bucket, so they don't wait for a full rotation of the wheel.
+     *
+     * @param key        a unique value key.
+     * @param expiration the expiration time in milliseconds.
+     */
+    void schedule(String key, long expiration) {
+        _slots.get(slotOf(Math.max(expiration / _resolution, _cursor))).add(key);
+    }
+
+    /**
+     * Cancels previously scheduled expiration of a key.
+     * Keys moved to a later bucket by {@link #schedule} may stay there
+     * and are skipped by the sweeper.
+     *
+     * @param key        a unique value key.
+     * @param expiration the expiration time used to schedule the key.
+     */
+    void cancel(String key, long expiration) {
+        _slots.get(slotOf(expiration / _resolution)).remove(key);
+    }
+
+    /**
+     * Removes all scheduled keys.
+     */
+    void clear() {
+        for (Set<String> slot : _slots)
+            slot.clear();
+        _pending = new ArrayList<>();
+        _pendingIndex = 0;
+    }
+
+    /**
+     * Expires keys from the buckets which time has already passed.
+     *
+     * @param now     the current time in milliseconds.
+     * @param limit   maximum number of keys to check in this call.
+     * @param handler a callback to check and remove cache entries.
+     * @return true if all passed buckets were processed and false if more calls are required.
+     */
+    boolean sweep(long now, int limit, IExpirationHandler handler) {
+        long nowTick = now / _resolution;
+
+        // After a long pause a single rotation covers all buckets
+        if (nowTick - _cursor > _slotCount && _pendingIndex >= _pending.size())
+            _cursor = nowTick - _slotCount;
+
+        int checked = 0;
+        while (_cursor < nowTick || _pendingIndex < _pending.size()) {
+            // Detach the next bucket, so it can be processed in several batches
+            if (_pendingIndex >= _pending.size()) {
+                int slot = slotOf(_cursor);
+                _pending = new ArrayList<>(_slots.get(slot));
+                _pendingIndex = 0;
+                _slots.set(slot, new HashSet<>());
+                _cursor++;
+            }
+
+            while (_pendingIndex < _pending.size()) {
+                if (checked >= limit)
+                    return false;
+
+                String key = _pending.get(_pendingIndex++);
+                checked++;
+
+                long expiration = handler.getExpiration(key);
+                // Skip keys that were removed
+                if (expiration < 0)
+                    continue;
+
+                // Keys that are not due yet were rescheduled or belong to a later rotation
+                if (expiration < now)
+                    handler.expire(key);
+                else
+                    schedule(key, expiration);
+            }
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,97 @@
+package org.pipservices3.components.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+
+/**
+ * Eviction policy that removes entries in the order they were stored.
+ * <p>
+ * Overwritten entries are moved to the end of the queue, so the first evicted entry
+ * is the one stored the longest time ago. With equal timeouts it is also the first to expire.
+ *
+ * @see IEvictionPolicy
+ */
+public class FifoEvictionPolicy implements IEvictionPolicy {
+    private final LinkedHashSet<String> _keys = new LinkedHashSet<>();
+
+    /**
+     * Creates a new instance of the policy.
+     */
+    public FifoEvictionPolicy() {
+    }
+
+    /**
+     * Records that a new entry was added to the cache.
+     *
+     * @param key a key of the added entry.
+     */
+    @Override
+    public void onInsert(String key) {
+        _keys.add(key);
+    }
+
+    /**
+     * Records that an existing entry was overwritten with a new value.
+     *
+     * @param key a key of the updated entry.
+     */
+    @Override
+    public void onUpdate(String key) {
+        _keys.remove(key);
+        _keys.add(key);
+    }
+
+    /**
+     * Records that an existing entry was read from the cache.
+     *
+     * @param key a key of the accessed entry.
+     */
+    @Override
+    public void onAccess(String key) {
+        // Reads don't change the order
+    }
+
+    /**
+     * Records that a requested key was not found in the cache.
+     *
+     * @param key a key that was missing.
+     */
+    @Override
+    public void onMiss(String key) {
+        // Misses are not tracked
+    }
+
+    /**
+     * Records that an entry was removed from the cache by other reason than eviction.
+     *
+     * @param key a key of the removed entry.
+     */
+    @Override
+    public void onRemove(String key) {
+        _keys.remove(key);
+    }
+
+    /**
+     * Selects an entry to evict and stops tracking it.
+     *
+     * @return a key of the entry that shall be removed from the cache or null if the policy is empty.
+     */
+    @Override
+    public String evict() {
+        Iterator<String> keys = _keys.iterator();
+        if (!keys.hasNext())
+            return null;
+
+        String key = keys.next();
+        keys.remove();
+        return key;
+    }
+
+    /**
+     * Removes all tracked keys.
+     */
+    @Override
+    public void clear() {
+        _keys.clear();
+    }
+}
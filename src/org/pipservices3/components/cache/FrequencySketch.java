@@ -0,0 +1,94 @@
+package org.pipservices3.components.cache;
+
+/**
+ * Count-min sketch that estimates popularity of keys with 4-bit counters.
+ * <p>
+ * Counters are halved after a fixed number of increments, so the sketch
+ * reflects recent frequencies and forgets keys that are no longer popular.
+ *
+ * @see TinyLfuEvictionPolicy
+ */
+class FrequencySketch {
+    private static final long[] Seeds = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+    private static final long ResetMask = 0x7777777777777777L;
+    private static final int MaxCounter = 15;
+
+    private final long[] _table;
+    private final int _mask;
+    private final int _sampleSize;
+    private int _size = 0;
+
+    /**
+     * Creates a new sketch sized for the expected number of entries.
+     *
+     * @param capacity the expected number of entries.
+     */
+    FrequencySketch(long capacity) {
+        int length = Integer.highestOneBit((int) Math.max(16, Math.min(capacity, 1 << 26)) - 1) << 1;
+        _table = new long[length];
+        _mask = length - 1;
+        _sampleSize = 10 * length;
+    }
+
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+
+    private long mix(int hash, int depth) {
+        long h = (hash + Seeds[depth]) * Seeds[depth];
+        return h + (h >>> 32);
+    }
+
+    /**
+     * Gets the estimated number of occurrences of the key.
+     *
+     * @param key a key to check.
+     * @return the estimated frequency in range from 0 to 15.
+     */
+    int frequency(String key) {
+        int hash = spread(key.hashCode());
+        int frequency = MaxCounter;
+        for (int depth = 0; depth < Seeds.length; depth++) {
+            long h = mix(hash, depth);
+            int shift = (int) ((h >>> 40) & 15) << 2;
+            int count = (int) ((_table[(int) h & _mask] >>> shift) & MaxCounter);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * Increments the estimated number of occurrences of the key.
+     *
+     * @param key a key to record.
+     */
+    void increment(String key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int depth = 0; depth < Seeds.length; depth++) {
+            long h = mix(hash, depth);
+            int index = (int) h & _mask;
+            int shift = (int) ((h >>> 40) & 15) << 2;
+            if (((_table[index] >>> shift) & MaxCounter) < MaxCounter) {
+                _table[index] += 1L << shift;
+                added = true;
+            }
+        }
+
+        if (added && ++_size >= _sampleSize)
+            reset();
+    }
+
+    /**
+     * Halves all counters to age the collected frequencies.
+     */
+    private void reset() {
+        for (int index = 0; index < _table.length; index++)
+            _table[index] = (_table[index] >>> 1) & ResetMask;
+        _size /= 2;
+    }
+}
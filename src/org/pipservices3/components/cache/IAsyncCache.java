@@ -0,0 +1,109 @@
+package org.pipservices3.components.cache;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+
+/**
+ * Interface for caches with non-blocking operations that complete asynchronously.
+ * <p>
+ * Blocking {@link ICache} implementations can be used through {@link AsyncCacheAdapter}.
+ *
+ * @see ICache
+ * @see AsyncCacheAdapter
+ */
+public interface IAsyncCache {
+    /**
+     * Retrieves cached value from the cache using its key. If value is missing in
+     * the cache or expired it completes with null.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     * @return a future with a cached value or null if value wasn't found or timeout expired.
+     */
+    CompletableFuture<Object> retrieve(String correlationId, String key);
+
+    /**
+     * Retrieves multiple cached values from the cache using their keys.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param keys          unique value keys.
+     * @return a future with a map of found values. Missing and expired keys are not included.
+     */
+    CompletableFuture<Map<String, Object>> retrieveMany(String correlationId, Collection<String> keys);
+
+    /**
+     * Retrieves cached value from the cache or loads it when the value is missing or expired.
+     * Loaded values are stored in the cache.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     * @param loader        a loader to compute the missing value.
+     * @param timeout       expiration timeout in milliseconds for the loaded value.
+     * @return a future with a cached or loaded value or null if the loader returned null.
+     * The future fails when the loader failed.
+     */
+    CompletableFuture<Object> retrieveOrLoad(String correlationId, String key, ICacheLoader loader, long timeout);
+
+    /**
+     * Computes a new value from the current cached value and stores it.
+     * If the function returns null, the value is removed.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     * @param function      a function that receives the key and the current value
+     *                      (null when it is missing or expired) and returns the new value.
+     * @param timeout       expiration timeout in milliseconds for the new value.
+     * @return a future with the new value or null if the value was removed.
+     */
+    CompletableFuture<Object> compute(String correlationId, String key, BiFunction<String, Object, Object> function,
+                                      long timeout);
+
+    /**
+     * Stores value in the cache with expiration time.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     * @param value         a value to store.
+     * @param timeout       expiration timeout in milliseconds.
+     * @return a future with a cached value stored in the cache.
+     */
+    CompletableFuture<Object> store(String correlationId, String key, Object value, long timeout);
+
+    /**
+     * Stores multiple values in the cache with the same expiration time.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param values        a map of unique value keys and values to store.
+     * @param timeout       expiration timeout in milliseconds.
+     * @return a future completed when the values are stored.
+     */
+    CompletableFuture<Void> storeMany(String correlationId, Map<String, Object> values, long timeout);
+
+    /**
+     * Removes a value from the cache by its key.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     * @return a future completed when the value is removed.
+     */
+    CompletableFuture<Void> remove(String correlationId, String key);
+
+    /**
+     * Removes multiple values from the cache by their keys.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param keys          unique value keys.
+     * @return a future completed when the values are removed.
+     */
+    CompletableFuture<Void> removeMany(String correlationId, Collection<String> keys);
+}
@@ -1,5 +1,13 @@
 package org.pipservices3.components.cache;
 
+import org.pipservices3.commons.errors.ApplicationException;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiFunction;
+
 /**
  * Interface for caches that are used to cache values to improve performance. 
  */
@@ -35,4 +43,146 @@ public interface ICache {
 	 * @param key           a unique value key.
 	 */
 	void remove(String correlationId, String key);
+
+	/**
+	 * Retrieves multiple cached values from the cache using their keys.
+	 * The default implementation retrieves the values one by one.
+	 * 
+	 * @param correlationId (optional) transaction id to trace execution through
+	 *                      call chain.
+	 * @param keys          unique value keys.
+	 * @return a map with found values. Missing and expired keys are not included.
+	 */
+	default Map<String, Object> retrieveMany(String correlationId, Collection<String> keys) {
+		Map<String, Object> result = new HashMap<>(keys.size() * 2);
+		for (String key : keys) {
+			Object value = retrieve(correlationId, key);
+			if (value != null)
+				result.put(key, value);
+		}
+		return result;
+	}
+
+	/**
+	 * Stores multiple values in the cache with the same expiration time.
+	 * The default implementation stores the values one by one.
+	 * 
+	 * @param correlationId (optional) transaction id to trace execution through
+	 *                      call chain.
+	 * @param values        a map of unique value keys and values to store.
+	 * @param timeout       expiration timeout in milliseconds.
+	 */
+	default void storeMany(String correlationId, Map<String, Object> values, long timeout) {
+		for (Map.Entry<String, Object> value : values.entrySet())
+			store(correlationId, value.getKey(), value.getValue(), timeout);
+	}
+
+	/**
+	 * Removes multiple values from the cache by their keys.
+	 * The default implementation removes the values one by one.
+	 * 
+	 * @param correlationId (optional) transaction id to trace execution through
+	 *                      call chain.
+	 * @param keys          unique value keys.
+	 */
+	default void removeMany(String correlationId, Collection<String> keys) {
+		for (String key : keys)
+			remove(correlationId, key);
+	}
+
+	/**
+	 * Retrieves cached value from the cache or loads it when the value is missing or expired.
+	 * Loaded values are stored in the cache. The default implementation doesn't prevent
+	 * concurrent callers from loading the same key.
+	 * 
+	 * @param correlationId (optional) transaction id to trace execution through
+	 *                      call chain.
+	 * @param key           a unique value key.
+	 * @param loader        a loader to compute the missing value.
+	 * @param timeout       expiration timeout in milliseconds for the loaded value.
+	 * @return a cached or loaded value or null if the loader returned null.
+	 * @throws InterruptedException when the calling thread was interrupted while waiting for the value.
+	 * @throws ApplicationException when the loader failed.
+	 */
+	default Object retrieveOrLoad(String correlationId, String key, ICacheLoader loader, long timeout)
+			throws InterruptedException, ApplicationException {
+		Object value = retrieve(correlationId, key);
+		if (value == null) {
+			value = loader.load(correlationId, key);
+			if (value != null)
+				store(correlationId, key, value, timeout);
+		}
+		return value;
+	}
+
+	/**
+	 * Computes a new value from the current cached value and stores it.
+	 * If the function returns null, the value is removed. If it returns the current value,
+	 * the value is kept with its current expiration time.
+	 * The default implementation is not atomic, caches that support atomic updates override it.
+	 * 
+	 * @param correlationId (optional) transaction id to trace execution through
+	 *                      call chain.
+	 * @param key           a unique value key.
+	 * @param function      a function that receives the key and the current value
+	 *                      (null when it is missing or expired) and returns the new value.
+	 * @param timeout       expiration timeout in milliseconds for the new value.
+	 * @return the new value or null if the value was removed.
+	 */
+	default Object compute(String correlationId, String key, BiFunction<String, Object, Object> function,
+			long timeout) {
+		Object current = retrieve(correlationId, key);
+		Object value = function.apply(key, current);
+		if (value == null) {
+			if (current != null)
+				remove(correlationId, key);
+		} else if (value != current) {
+			store(correlationId, key, value, timeout);
+		}
+		return value;
+	}
+
+	/**
+	 * Stores value in the cache only if the key has no value yet.
+	 * It is atomic when {@link #compute} is atomic.
+	 * 
+	 * @param correlationId (optional) transaction id to trace execution through
+	 *                      call chain.
+	 * @param key           a unique value key.
+	 * @param value         a value to store.
+	 * @param timeout       expiration timeout in milliseconds.
+	 * @return the existing value or null if the value was stored.
+	 */
+	default Object putIfAbsent(String correlationId, String key, Object value, long timeout) {
+		if (value == null)
+			throw new NullPointerException("Value cannot be null");
+
+		Object[] existing = new Object[1];
+		compute(correlationId, key, (k, current) -> {
+			existing[0] = current;
+			return current != null ? current : value;
+		}, timeout);
+		return existing[0];
+	}
+
+	/**
+	 * Replaces the cached value only if it equals to the expected value.
+	 * It is atomic when {@link #compute} is atomic.
+	 * 
+	 * @param correlationId (optional) transaction id to trace execution through
+	 *                      call chain.
+	 * @param key           a unique value key.
+	 * @param expected      the expected current value or null if the value shall be missing.
+	 * @param value         a new value or null to remove the value.
+	 * @param timeout       expiration timeout in milliseconds for the new value.
+	 * @return true if the value was replaced and false otherwise.
+	 */
+	default boolean compareAndSet(String correlationId, String key, Object expected, Object value, long timeout) {
+		boolean[] replaced = new boolean[1];
+		compute(correlationId, key, (k, current) -> {
+			replaced[0] = Objects.equals(current, expected);
+			return replaced[0] ? value : current;
+		}, timeout);
+		return replaced[0];
+	}
 }
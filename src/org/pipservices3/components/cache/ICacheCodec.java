@@ -0,0 +1,31 @@
+package org.pipservices3.components.cache;
+
+import java.io.IOException;
+
+/**
+ * Interface for codecs that convert cached values into binary form and back.
+ * <p>
+ * Codecs are used by caches that keep values outside of the Java heap,
+ * on disk or in remote storages.
+ *
+ * @see SerializableCacheCodec
+ */
+public interface ICacheCodec {
+    /**
+     * Converts a value into binary form.
+     *
+     * @param value a value to encode.
+     * @return the encoded value.
+     * @throws IOException when the value cannot be encoded.
+     */
+    byte[] encode(Object value) throws IOException;
+
+    /**
+     * Restores a value from binary form.
+     *
+     * @param data an encoded value.
+     * @return the decoded value.
+     * @throws IOException when the data cannot be decoded.
+     */
+    Object decode(byte[] data) throws IOException;
+}
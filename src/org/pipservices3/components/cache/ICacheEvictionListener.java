@@ -0,0 +1,17 @@
+package org.pipservices3.components.cache;
+
+/**
+ * Interface for listeners that are notified when a cache evicts entries to fit into its capacity.
+ * <p>
+ * Listeners are called under the cache synchronization and shall return quickly.
+ *
+ * @see MemoryCache
+ */
+public interface ICacheEvictionListener {
+    /**
+     * Notifies that an entry was evicted from the cache.
+     *
+     * @param entry the evicted cache entry.
+     */
+    void onEvicted(CacheEntry entry);
+}
@@ -0,0 +1,37 @@
+package org.pipservices3.components.cache;
+
+/**
+ * Interface for transports that deliver cache invalidations between
+ * cache instances running in different processes.
+ *
+ * @see NearCache
+ * @see LoopbackInvalidationBus
+ */
+public interface ICacheInvalidationBus {
+    /**
+     * Publishes an invalidation to all subscribers of the channel.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param channel       a name of the invalidation channel.
+     * @param source        a unique id of the cache instance that changed the value.
+     * @param key           a unique value key.
+     */
+    void publish(String correlationId, String channel, String source, String key);
+
+    /**
+     * Subscribes a listener to invalidations of the channel.
+     *
+     * @param channel  a name of the invalidation channel.
+     * @param listener a listener to be notified.
+     */
+    void subscribe(String channel, ICacheInvalidationListener listener);
+
+    /**
+     * Unsubscribes a listener from invalidations of the channel.
+     *
+     * @param channel  a name of the invalidation channel.
+     * @param listener a listener to be removed.
+     */
+    void unsubscribe(String channel, ICacheInvalidationListener listener);
+}
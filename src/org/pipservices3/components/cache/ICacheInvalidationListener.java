@@ -0,0 +1,16 @@
+package org.pipservices3.components.cache;
+
+/**
+ * Interface for listeners that receive cache invalidations from {@link ICacheInvalidationBus}.
+ */
+public interface ICacheInvalidationListener {
+    /**
+     * Notifies that a cached value was changed or removed.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param source        a unique id of the cache instance that changed the value.
+     * @param key           a unique value key.
+     */
+    void onInvalidated(String correlationId, String source, String key);
+}
@@ -0,0 +1,21 @@
+package org.pipservices3.components.cache;
+
+import org.pipservices3.commons.errors.ApplicationException;
+
+/**
+ * Interface for loaders that compute values missing in a cache.
+ *
+ * @see ICache#retrieveOrLoad(String, String, ICacheLoader, long)
+ */
+public interface ICacheLoader {
+    /**
+     * Loads a value for the key from the backing store.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     * @return a loaded value or null if it doesn't exist.
+     * @throws ApplicationException when the value cannot be loaded.
+     */
+    Object load(String correlationId, String key) throws ApplicationException;
+}
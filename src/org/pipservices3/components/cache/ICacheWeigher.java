@@ -0,0 +1,21 @@
+package org.pipservices3.components.cache;
+
+/**
+ * Interface for weighers that estimate how much memory a cached value takes.
+ * <p>
+ * Weights are used by in-memory caches to limit their total footprint
+ * instead of the number of stored values.
+ *
+ * @see MemoryCache
+ * @see DefaultCacheWeigher
+ */
+public interface ICacheWeigher {
+    /**
+     * Estimates the weight of a cache entry.
+     *
+     * @param key   a unique value key.
+     * @param value a cached value.
+     * @return the entry weight. For memory limits it is the estimated size in bytes.
+     */
+    long weigh(String key, Object value);
+}
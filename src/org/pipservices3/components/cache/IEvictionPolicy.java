@@ -0,0 +1,59 @@
+package org.pipservices3.components.cache;
+
+/**
+ * Interface for eviction policies that decide which entry shall be removed
+ * when an in-memory cache exceeds its capacity.
+ * <p>
+ * Policies only track keys of the entries held by the cache. They are not thread-safe
+ * and shall be called by the cache under its own synchronization.
+ *
+ * @see MemoryCache
+ */
+public interface IEvictionPolicy {
+    /**
+     * Records that a new entry was added to the cache.
+     *
+     * @param key a key of the added entry.
+     */
+    void onInsert(String key);
+
+    /**
+     * Records that an existing entry was overwritten with a new value.
+     *
+     * @param key a key of the updated entry.
+     */
+    void onUpdate(String key);
+
+    /**
+     * Records that an existing entry was read from the cache.
+     *
+     * @param key a key of the accessed entry.
+     */
+    void onAccess(String key);
+
+    /**
+     * Records that a requested key was not found in the cache.
+     *
+     * @param key a key that was missing.
+     */
+    void onMiss(String key);
+
+    /**
+     * Records that an entry was removed from the cache by other reason than eviction.
+     *
+     * @param key a key of the removed entry.
+     */
+    void onRemove(String key);
+
+    /**
+     * Selects an entry to evict and stops tracking it.
+     *
+     * @return a key of the entry that shall be removed from the cache or null if the policy is empty.
+     */
+    String evict();
+
+    /**
+     * Removes all tracked keys.
+     */
+    void clear();
+}
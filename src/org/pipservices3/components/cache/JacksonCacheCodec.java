@@ -0,0 +1,76 @@
+package org.pipservices3.components.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+
+/**
+ * Codec that converts cached values to JSON using Jackson.
+ * <p>
+ * Unlike {@link SerializableCacheCodec} it doesn't require values to be serializable,
+ * but the type information is not stored. Values are decoded into the configured type,
+ * or into maps, lists and primitive values when the type is {@link Object}.
+ *
+ * @see ICacheCodec
+ * @see SmileCacheCodec
+ */
+public class JacksonCacheCodec implements ICacheCodec {
+    private final ObjectMapper _mapper;
+    private final Class<?> _type;
+
+    /**
+     * Creates a new instance of the codec that decodes values into maps, lists and primitive values.
+     */
+    public JacksonCacheCodec() {
+        this(new ObjectMapper(), Object.class);
+    }
+
+    /**
+     * Creates a new instance of the codec that decodes values into the given type.
+     *
+     * @param type a type of cached values.
+     */
+    public JacksonCacheCodec(Class<?> type) {
+        this(new ObjectMapper(), type);
+    }
+
+    /**
+     * Creates a new instance of the codec with a custom object mapper.
+     *
+     * @param mapper an object mapper to convert values.
+     * @param type   a type of cached values.
+     */
+    public JacksonCacheCodec(ObjectMapper mapper, Class<?> type) {
+        if (mapper == null)
+            throw new NullPointerException("Mapper cannot be null");
+        if (type == null)
+            throw new NullPointerException("Type cannot be null");
+
+        _mapper = mapper;
+        _type = type;
+    }
+
+    /**
+     * Converts a value into binary form.
+     *
+     * @param value a value to encode.
+     * @return the encoded value.
+     * @throws IOException when the value cannot be encoded.
+     */
+    @Override
+    public byte[] encode(Object value) throws IOException {
+        return _mapper.writeValueAsBytes(value);
+    }
+
+    /**
+     * Restores a value from binary form.
+     *
+     * @param data an encoded value.
+     * @return the decoded value.
+     * @throws IOException when the data cannot be decoded.
+     */
+    @Override
+    public Object decode(byte[] data) throws IOException {
+        return _mapper.readValue(data, _type);
+    }
+}
@@ -0,0 +1,159 @@
+package org.pipservices3.components.cache;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+/**
+ * Eviction policy that removes the least frequently used entries first.
+ * <p>
+ * Keys are grouped into a linked list of frequency buckets, so all operations
+ * take constant time. Among entries with the same frequency the oldest one is evicted first.
+ *
+ * @see IEvictionPolicy
+ */
+public class LfuEvictionPolicy implements IEvictionPolicy {
+    private static class FrequencyNode {
+        private final long _frequency;
+        private final LinkedHashSet<String> _keys = new LinkedHashSet<>();
+        private FrequencyNode _prev;
+        private FrequencyNode _next;
+
+        private FrequencyNode(long frequency) {
+            _frequency = frequency;
+        }
+    }
+
+    private final Map<String, FrequencyNode> _nodes = new HashMap<>();
+    private FrequencyNode _head;
+
+    /**
+     * Creates a new instance of the policy.
+     */
+    public LfuEvictionPolicy() {
+    }
+
+    private FrequencyNode insertAfter(FrequencyNode prev, long frequency) {
+        FrequencyNode node = new FrequencyNode(frequency);
+        node._prev = prev;
+        node._next = prev != null ? prev._next : _head;
+        if (node._next != null)
+            node._next._prev = node;
+        if (prev != null)
+            prev._next = node;
+        else
+            _head = node;
+        return node;
+    }
+
+    private void unlinkIfEmpty(FrequencyNode node) {
+        if (!node._keys.isEmpty())
+            return;
+
+        if (node._prev != null)
+            node._prev._next = node._next;
+        else
+            _head = node._next;
+        if (node._next != null)
+            node._next._prev = node._prev;
+    }
+
+    /**
+     * Records that a new entry was added to the cache.
+     *
+     * @param key a key of the added entry.
+     */
+    @Override
+    public void onInsert(String key) {
+        if (_nodes.containsKey(key))
+            return;
+
+        FrequencyNode node = _head != null && _head._frequency == 1 ? _head : insertAfter(null, 1);
+        node._keys.add(key);
+        _nodes.put(key, node);
+    }
+
+    /**
+     * Records that an existing entry was overwritten with a new value.
+     *
+     * @param key a key of the updated entry.
+     */
+    @Override
+    public void onUpdate(String key) {
+        onAccess(key);
+    }
+
+    /**
+     * Records that an existing entry was read from the cache.
+     *
+     * @param key a key of the accessed entry.
+     */
+    @Override
+    public void onAccess(String key) {
+        FrequencyNode node = _nodes.get(key);
+        if (node == null)
+            return;
+
+        // Move the key into the next frequency bucket
+        long frequency = node._frequency + 1;
+        FrequencyNode next = node._next != null && node._next._frequency == frequency
+                ? node._next : insertAfter(node, frequency);
+        node._keys.remove(key);
+        next._keys.add(key);
+        _nodes.put(key, next);
+
+        unlinkIfEmpty(node);
+    }
+
+    /**
+     * Records that a requested key was not found in the cache.
+     *
+     * @param key a key that was missing.
+     */
+    @Override
+    public void onMiss(String key) {
+        // Misses are not tracked
+    }
+
+    /**
+     * Records that an entry was removed from the cache by other reason than eviction.
+     *
+     * @param key a key of the removed entry.
+     */
+    @Override
+    public void onRemove(String key) {
+        FrequencyNode node = _nodes.remove(key);
+        if (node != null) {
+            node._keys.remove(key);
+            unlinkIfEmpty(node);
+        }
+    }
+
+    /**
+     * Selects an entry to evict and stops tracking it.
+     *
+     * @return a key of the entry that shall be removed from the cache or null if the policy is empty.
+     */
+    @Override
+    public String evict() {
+        if (_head == null)
+            return null;
+
+        Iterator<String> keys = _head._keys.iterator();
+        String key = keys.next();
+        keys.remove();
+        _nodes.remove(key);
+        unlinkIfEmpty(_head);
+        return key;
+    }
+
+    /**
+     * Removes all tracked keys.
+     */
+    @Override
+    public void clear() {
+        _nodes.clear();
+        _head = null;
+    }
+}
@@ -0,0 +1,309 @@
+package org.pipservices3.components.cache;
+
+import org.pipservices3.commons.config.ConfigParams;
+import org.pipservices3.commons.config.IReconfigurable;
+import org.pipservices3.commons.errors.ConfigException;
+import org.pipservices3.components.clock.Clock;
+
+/**
+ * Cache that stores values with numeric keys in the process memory.
+ * <p>
+ * Entries are kept in open-addressing tables of primitive arrays,
+ * so lookups don't allocate key objects or compute string hashes.
+ * When the cache exceeds its maximum size values are evicted by the CLOCK algorithm:
+ * recently accessed values get a second chance, so it approximates LRU without
+ * updating any lists on reads.
+ * <p>
+ * It is a standalone utility, not an {@link ICache}, since its keys are not strings.
+ * Factories create it under its own kind <code>pip-services:long-key-cache:memory:*:1.0</code>,
+ * so it is never resolved in place of {@link ICache} components.
+ * <p>
+ * Remember: This implementation is not suitable for synchronization of distributed processes.
+ * <p>
+ * ### Configuration parameters ###
+ * <ul>
+ * <li>options:
+ *   <ul>
+ *   <li>timeout:               default caching timeout in milliseconds (default: 1 minute)
+ *   <li>max_size:              maximum number of values stored in this cache. 0 disables the limit (default: 1000)
+ *   </ul>
+ * </ul>
+ * <p>
+ * ### Example ###
+ * <pre>
+ * {@code
+ * LongKeyMemoryCache cache = new LongKeyMemoryCache();
+ *
+ * cache.store("123", 1L, "ABC", 0);
+ * Object value = cache.retrieve("123", 1L);
+ * }
+ * </pre>
+ *
+ * @see MemoryCache
+ */
+public class LongKeyMemoryCache implements IReconfigurable {
+    private final static long _defaultTimeout = 60000;
+    private final static long _defaultMaxSize = 1000;
+    private final static int _minCapacity = 16;
+
+    private final static byte _empty = 0;
+    private final static byte _used = 1;
+    private final static byte _deleted = 2;
+
+    private final Object _lock = new Object();
+    private long[] _keys;
+    private Object[] _values;
+    private long[] _expirations;
+    private byte[] _states;
+    private boolean[] _referenced;
+    private int _size = 0;
+    private int _deletedCount = 0;
+    private int _hand = 0;
+    private long _timeout = _defaultTimeout;
+    private long _maxSize = _defaultMaxSize;
+
+    /**
+     * Creates instance of local in-memory cache component with numeric keys
+     */
+    public LongKeyMemoryCache() {
+        allocate(_minCapacity);
+    }
+
+    /**
+     * Configures component by passing configuration parameters.
+     *
+     * @param config configuration parameters to be set.
+     * @throws ConfigException when component is in illegal state or configuration
+     *                         validation fails.
+     */
+    public void configure(ConfigParams config) throws ConfigException {
+        synchronized (_lock) {
+            _timeout = config.getAsLongWithDefault("options.timeout", _timeout);
+            _maxSize = config.getAsLongWithDefault("options.max_size", _maxSize);
+
+            while (_maxSize > 0 && _size > _maxSize)
+                evict();
+        }
+    }
+
+    /**
+     * Gets the number of values stored in the cache, including expired values that weren't removed yet.
+     *
+     * @return the number of cached values.
+     */
+    public int getSize() {
+        synchronized (_lock) {
+            return _size;
+        }
+    }
+
+    private void allocate(int capacity) {
+        _keys = new long[capacity];
+        _values = new Object[capacity];
+        _expirations = new long[capacity];
+        _states = new byte[capacity];
+        _referenced = new boolean[capacity];
+        _deletedCount = 0;
+        _hand = 0;
+    }
+
+    /**
+     * Spreads key bits over the table index.
+     */
+    private static int hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    /**
+     * Finds the slot that holds the key.
+     *
+     * @return the slot index or -1 if the key is missing.
+     */
+    private int indexOf(long key) {
+        int mask = _keys.length - 1;
+        int index = hash(key) & mask;
+        while (_states[index] != _empty) {
+            if (_states[index] == _used && _keys[index] == key)
+                return index;
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Finds a free slot for a key that is missing in the table.
+     */
+    private int freeSlotOf(long key) {
+        int mask = _keys.length - 1;
+        int index = hash(key) & mask;
+        while (_states[index] == _used)
+            index = (index + 1) & mask;
+        return index;
+    }
+
+    /**
+     * Grows the table or cleans up deleted slots to keep probe sequences short.
+     */
+    private void ensureCapacity() {
+        if ((_size + _deletedCount + 1) * 2 <= _keys.length)
+            return;
+
+        int capacity = _keys.length;
+        if ((_size + 1) * 4 > capacity)
+            capacity *= 2;
+
+        long[] keys = _keys;
+        Object[] values = _values;
+        long[] expirations = _expirations;
+        byte[] states = _states;
+        boolean[] referenced = _referenced;
+        allocate(capacity);
+
+        for (int index = 0; index < keys.length; index++) {
+            if (states[index] != _used)
+                continue;
+
+            int slot = freeSlotOf(keys[index]);
+            _keys[slot] = keys[index];
+            _values[slot] = values[index];
+            _expirations[slot] = expirations[index];
+            _referenced[slot] = referenced[index];
+            _states[slot] = _used;
+        }
+    }
+
+    private void removeSlot(int index) {
+        _states[index] = _deleted;
+        _values[index] = null;
+        _referenced[index] = false;
+        _size--;
+        _deletedCount++;
+    }
+
+    /**
+     * Evicts a value using the CLOCK algorithm. Expired values and values
+     * that weren't accessed since the previous pass of the clock hand are evicted first.
+     */
+    private void evict() {
+        long now = Clock.currentTimeMillis();
+        int mask = _keys.length - 1;
+        while (_size > 0) {
+            int index = _hand;
+            _hand = (_hand + 1) & mask;
+            if (_states[index] != _used)
+                continue;
+
+            if (!_referenced[index] || _expirations[index] < now) {
+                removeSlot(index);
+                return;
+            }
+            _referenced[index] = false;
+        }
+    }
+
+    /**
+     * Retrieves cached value from the cache using its key. If value is missing in
+     * the cache or expired it returns null.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     * @return a cached value or null if value wasn't found or timeout expired.
+     */
+    public Object retrieve(String correlationId, long key) {
+        synchronized (_lock) {
+            int index = indexOf(key);
+
+            // Cache has nothing
+            if (index < 0)
+                return null;
+
+            // Remove entry if expiration set and entry is expired
+            if (_expirations[index] < Clock.currentTimeMillis()) {
+                removeSlot(index);
+                return null;
+            }
+
+            _referenced[index] = true;
+            return _values[index];
+        }
+    }
+
+    /**
+     * Stores value in the cache with expiration time.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     * @param value         a value to store.
+     * @param timeout       expiration timeout in milliseconds.
+     * @return a cached value stored in the cache.
+     */
+    public Object store(String correlationId, long key, Object value, long timeout) {
+        synchronized (_lock) {
+            int index = indexOf(key);
+
+            // Shortcut to remove entry from the cache
+            if (value == null) {
+                if (index >= 0)
+                    removeSlot(index);
+                return null;
+            }
+
+            timeout = timeout > 0 ? timeout : _timeout;
+
+            // Or create a new entry
+            if (index < 0) {
+                // Make room for the new entry
+                if (_maxSize > 0 && _size >= _maxSize)
+                    evict();
+
+                ensureCapacity();
+                index = freeSlotOf(key);
+                if (_states[index] == _deleted)
+                    _deletedCount--;
+
+                _keys[index] = key;
+                _states[index] = _used;
+                _size++;
+            }
+
+            _values[index] = value;
+            _expirations[index] = Clock.currentTimeMillis() + timeout;
+            _referenced[index] = true;
+
+            return value;
+        }
+    }
+
+    /**
+     * Removes a value from the cache by its key.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     */
+    public void remove(String correlationId, long key) {
+        synchronized (_lock) {
+            int index = indexOf(key);
+            if (index >= 0)
+                removeSlot(index);
+        }
+    }
+
+    /**
+     * Removes all values from the cache.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     */
+    public void clear(String correlationId) {
+        synchronized (_lock) {
+            allocate(_minCapacity);
+            _size = 0;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.pipservices3.components.cache;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Invalidation bus that delivers invalidations to subscribers within the same process.
+ * <p>
+ * Invalidations are delivered synchronously in the publishing thread.
+ * It is used in tests and in deployments where several caches share one process.
+ *
+ * @see ICacheInvalidationBus
+ * @see NearCache
+ */
+public class LoopbackInvalidationBus implements ICacheInvalidationBus {
+    private final Map<String, List<ICacheInvalidationListener>> _listeners = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new instance of the invalidation bus.
+     */
+    public LoopbackInvalidationBus() {
+    }
+
+    /**
+     * Publishes an invalidation to all subscribers of the channel.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param channel       a name of the invalidation channel.
+     * @param source        a unique id of the cache instance that changed the value.
+     * @param key           a unique value key.
+     */
+    @Override
+    public void publish(String correlationId, String channel, String source, String key) {
+        List<ICacheInvalidationListener> listeners = _listeners.get(channel);
+        if (listeners == null)
+            return;
+
+        for (ICacheInvalidationListener listener : listeners)
+            listener.onInvalidated(correlationId, source, key);
+    }
+
+    /**
+     * Subscribes a listener to invalidations of the channel.
+     *
+     * @param channel  a name of the invalidation channel.
+     * @param listener a listener to be notified.
+     */
+    @Override
+    public void subscribe(String channel, ICacheInvalidationListener listener) {
+        _listeners.computeIfAbsent(channel, name -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    /**
+     * Unsubscribes a listener from invalidations of the channel.
+     *
+     * @param channel  a name of the invalidation channel.
+     * @param listener a listener to be removed.
+     */
+    @Override
+    public void unsubscribe(String channel, ICacheInvalidationListener listener) {
+        List<ICacheInvalidationListener> listeners = _listeners.get(channel);
+        if (listeners != null)
+            listeners.remove(listener);
+    }
+}
@@ -0,0 +1,476 @@
+package org.pipservices3.components.cache;
+
+import org.pipservices3.commons.config.ConfigParams;
+import org.pipservices3.commons.config.IReconfigurable;
+import org.pipservices3.commons.errors.ApplicationException;
+import org.pipservices3.commons.errors.ConfigException;
+import org.pipservices3.commons.errors.FileException;
+import org.pipservices3.commons.run.IOpenable;
+import org.pipservices3.components.clock.Clock;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache that stores values in a memory-mapped file, so they survive process restarts.
+ * <p>
+ * The file is an append-only log of records. Each record holds a key, an expiration time
+ * and a value encoded by {@link ICacheCodec}. Overwritten and removed records are marked as deleted in place.
+ * When the file is full, live records are copied into a new file, which atomically replaces the old one,
+ * and if that is not enough, the oldest records are evicted. On open the cache scans the record headers
+ * to rebuild its in-memory index and serves the stored values immediately.
+ * <p>
+ * Values are cached only while the component is opened.
+ * <p>
+ * Remember: This implementation is not suitable for synchronization of distributed processes.
+ * <p>
+ * ### Configuration parameters ###
+ * <ul>
+ * <li>options:
+ *   <ul>
+ *   <li>path:                  path to the cache file
+ *   <li>file_size:             size of the cache file in bytes (default: 64 MB)
+ *   <li>timeout:               default caching timeout in milliseconds (default: 1 minute)
+ *   <li>max_size:              maximum number of values stored in this cache. 0 disables the limit (default: 0)
+ *   </ul>
+ * </ul>
+ * <p>
+ * ### Example ###
+ * <pre>
+ * {@code
+ * MappedFileCache cache = new MappedFileCache();
+ * cache.configure(ConfigParams.fromTuples(
+ *     "options.path", "./data/cache.dat"
+ * ));
+ * cache.open("123");
+ *
+ * cache.store("123", "key1", "ABC", 0);
+ * }
+ * </pre>
+ *
+ * @see ICache
+ * @see ICacheCodec
+ */
+public class MappedFileCache implements ICache, IReconfigurable, IOpenable {
+    private final static long _defaultTimeout = 60000;
+    private final static int _defaultFileSize = 64 * 1024 * 1024;
+
+    // File header: magic, version, write position
+    private final static int _magic = 0x50534D43;
+    private final static int _version = 1;
+    private final static int _headerSize = 16;
+    private final static int _positionOffset = 8;
+
+    // Record header: record length, live flag, expiration, key length, value length
+    private final static int _recordHeaderSize = 19;
+    private final static int _flagOffset = 4;
+    private final static int _expirationOffset = 5;
+    private final static int _keyLengthOffset = 13;
+    private final static int _valueLengthOffset = 15;
+
+    private final Object _lock = new Object();
+    // Offsets of live records in the order they were written
+    private final Map<String, Integer> _index = new LinkedHashMap<>();
+    private ICacheCodec _codec = new SerializableCacheCodec();
+    private MappedByteBuffer _buffer;
+    private int _position = _headerSize;
+    private int _liveBytes = 0;
+    private String _path;
+    private int _fileSize = _defaultFileSize;
+    private long _timeout = _defaultTimeout;
+    private long _maxSize = 0;
+
+    /**
+     * Creates instance of memory-mapped file cache component
+     */
+    public MappedFileCache() {
+    }
+
+    /**
+     * Configures component by passing configuration parameters.
+     *
+     * @param config configuration parameters to be set.
+     * @throws ConfigException when component is in illegal state or configuration
+     *                         validation fails.
+     */
+    public void configure(ConfigParams config) throws ConfigException {
+        synchronized (_lock) {
+            _path = config.getAsStringWithDefault("options.path", _path);
+            _fileSize = config.getAsIntegerWithDefault("options.file_size", _fileSize);
+            _timeout = config.getAsLongWithDefault("options.timeout", _timeout);
+            _maxSize = config.getAsLongWithDefault("options.max_size", _maxSize);
+        }
+    }
+
+    /**
+     * Gets the codec used to convert cached values.
+     *
+     * @return the cache codec.
+     */
+    public ICacheCodec getCodec() {
+        return _codec;
+    }
+
+    /**
+     * Sets the codec used to convert cached values.
+     * It shall match the codec used to write the existing cache file.
+     *
+     * @param codec the cache codec.
+     */
+    public void setCodec(ICacheCodec codec) {
+        if (codec == null)
+            throw new NullPointerException("Codec cannot be null");
+        _codec = codec;
+    }
+
+    /**
+     * Checks if the component is opened.
+     *
+     * @return true if the component has been opened and false otherwise.
+     */
+    @Override
+    public boolean isOpen() {
+        return _buffer != null;
+    }
+
+    /**
+     * Opens the component. It maps the cache file into memory and restores its index.
+     *
+     * @param correlationId (optional) transaction id to trace execution through call chain.
+     * @throws ApplicationException when the file cannot be opened.
+     */
+    @Override
+    public void open(String correlationId) throws ApplicationException {
+        synchronized (_lock) {
+            if (_buffer != null)
+                return;
+
+            if (_path == null)
+                throw new ConfigException(correlationId, "NO_PATH", "Cache file path is not set");
+            if (_fileSize <= _headerSize + _recordHeaderSize)
+                throw new ConfigException(correlationId, "BAD_FILE_SIZE", "Cache file size " + _fileSize + " is too small");
+
+            try {
+                Path path = Paths.get(_path);
+                if (path.getParent() != null)
+                    Files.createDirectories(path.getParent());
+
+                try (FileChannel channel = FileChannel.open(path,
+                        StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                    long size = Math.max(channel.size(), _fileSize);
+                    _buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.min(size, Integer.MAX_VALUE));
+                }
+            } catch (IOException ex) {
+                throw new FileException(correlationId, "OPEN_FAILED", "Failed to open cache file " + _path + ": " + ex)
+                        .withDetails("path", _path).withCause(ex);
+            }
+
+            restoreIndex();
+        }
+    }
+
+    /**
+     * Closes the component and flushes the cache file to disk.
+     *
+     * @param correlationId (optional) transaction id to trace execution through call chain.
+     */
+    @Override
+    public void close(String correlationId) {
+        synchronized (_lock) {
+            if (_buffer == null)
+                return;
+
+            _buffer.force();
+            _buffer = null;
+            _index.clear();
+        }
+    }
+
+    /**
+     * Reads the file header and scans record headers to rebuild the index.
+     * Files with unknown or corrupted format are reset.
+     */
+    private void restoreIndex() {
+        _index.clear();
+        _liveBytes = 0;
+        _position = _headerSize;
+
+        int position = _buffer.getInt(_positionOffset);
+        if (_buffer.getInt(0) != _magic || _buffer.getInt(4) != _version
+                || position < _headerSize || position > _buffer.capacity()) {
+            resetFile();
+            return;
+        }
+
+        long now = Clock.currentTimeMillis();
+        int offset = _headerSize;
+        while (offset < position) {
+            // Records are published by moving the write position, so every record before it shall be complete
+            if (!isValidRecord(offset, position)) {
+                resetFile();
+                return;
+            }
+
+            int length = _buffer.getInt(offset);
+            if (_buffer.get(offset + _flagOffset) != 0) {
+                if (_buffer.getLong(offset + _expirationOffset) < now) {
+                    _buffer.put(offset + _flagOffset, (byte) 0);
+                } else {
+                    String key = readKey(offset);
+                    Integer previous = _index.remove(key);
+                    if (previous != null)
+                        markDeleted(previous);
+                    _index.put(key, offset);
+                    _liveBytes += length;
+                }
+            }
+
+            offset += length;
+        }
+
+        _position = offset;
+        _buffer.putInt(_positionOffset, _position);
+    }
+
+    /**
+     * Checks that a record fits before the write position and its key and value fill the record exactly.
+     *
+     * @param offset   the record offset.
+     * @param position the write position.
+     * @return true if the record is valid and false otherwise.
+     */
+    private boolean isValidRecord(int offset, int position) {
+        if (offset > position - _recordHeaderSize)
+            return false;
+
+        int length = _buffer.getInt(offset);
+        if (length < _recordHeaderSize || length > position - offset)
+            return false;
+
+        long keyLength = _buffer.getShort(offset + _keyLengthOffset) & 0xFFFF;
+        long valueLength = _buffer.getInt(offset + _valueLengthOffset);
+        return valueLength >= 0 && _recordHeaderSize + keyLength + valueLength == length;
+    }
+
+    /**
+     * Drops all records and writes an empty file header.
+     */
+    private void resetFile() {
+        _index.clear();
+        _liveBytes = 0;
+        _position = _headerSize;
+        _buffer.putInt(0, _magic);
+        _buffer.putInt(4, _version);
+        _buffer.putInt(_positionOffset, _position);
+    }
+
+    private String readKey(int offset) {
+        byte[] key = new byte[_buffer.getShort(offset + _keyLengthOffset) & 0xFFFF];
+        _buffer.get(offset + _recordHeaderSize, key);
+        return new String(key, StandardCharsets.UTF_8);
+    }
+
+    private void markDeleted(int offset) {
+        _buffer.put(offset + _flagOffset, (byte) 0);
+        _liveBytes -= _buffer.getInt(offset);
+    }
+
+    private void removeEntry(String key) {
+        Integer offset = _index.remove(key);
+        if (offset != null)
+            markDeleted(offset);
+    }
+
+    /**
+     * Copies live records into a new file and atomically replaces the cache file with it,
+     * so a failure during compaction never leaves a partially moved file behind.
+     * When it is not enough to fit the required space, the oldest records are removed first.
+     *
+     * @param required number of bytes that shall be available after compaction.
+     * @throws IOException when the new file cannot be written.
+     */
+    private void compact(int required) throws IOException {
+        long now = Clock.currentTimeMillis();
+        int available = _buffer.capacity() - _headerSize - _liveBytes;
+        Map<String, Integer> index = new LinkedHashMap<>();
+        int liveBytes = 0;
+        int target = _headerSize;
+
+        Path path = Paths.get(_path);
+        Path tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            MappedByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, _buffer.capacity());
+            }
+
+            // Live records are indexed in the order they were written
+            for (Map.Entry<String, Integer> entry : _index.entrySet()) {
+                int source = entry.getValue();
+                int length = _buffer.getInt(source);
+
+                // Drop expired records and the oldest records while there is not enough space
+                if (_buffer.getLong(source + _expirationOffset) < now || available < required) {
+                    available += length;
+                    continue;
+                }
+
+                byte[] record = new byte[length];
+                _buffer.get(source, record);
+                buffer.put(target, record);
+                index.put(entry.getKey(), target);
+                liveBytes += length;
+                target += length;
+            }
+
+            buffer.putInt(0, _magic);
+            buffer.putInt(4, _version);
+            buffer.putInt(_positionOffset, target);
+            buffer.force();
+            Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            _buffer = buffer;
+        } catch (IOException ex) {
+            Files.deleteIfExists(tempPath);
+            throw ex;
+        }
+
+        _index.clear();
+        _index.putAll(index);
+        _liveBytes = liveBytes;
+        _position = target;
+    }
+
+    /**
+     * Retrieves cached value from the cache using its key. If value is missing in
+     * the cache or expired it returns null.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     * @return a cached value or null if value wasn't found or timeout expired.
+     */
+    public Object retrieve(String correlationId, String key) {
+        if (key == null)
+            throw new NullPointerException("Key cannot be null");
+
+        byte[] data;
+        synchronized (_lock) {
+            Integer offset = _index.get(key);
+            if (_buffer == null || offset == null)
+                return null;
+
+            // Remove entry if expiration set and entry is expired
+            if (_buffer.getLong(offset + _expirationOffset) < Clock.currentTimeMillis()) {
+                removeEntry(key);
+                return null;
+            }
+
+            int keyLength = _buffer.getShort(offset + _keyLengthOffset) & 0xFFFF;
+            data = new byte[_buffer.getInt(offset + _valueLengthOffset)];
+            _buffer.get(offset + _recordHeaderSize + keyLength, data);
+        }
+
+        // Decode the value outside of the lock
+        try {
+            return _codec.decode(data);
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Stores value in the cache with expiration time.
+     * Values that cannot be encoded or don't fit into the file are not cached.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     * @param value         a value to store.
+     * @param timeout       expiration timeout in milliseconds.
+     * @return a cached value stored in the cache.
+     */
+    public Object store(String correlationId, String key, Object value, long timeout) {
+        if (key == null)
+            throw new NullPointerException("Key cannot be null");
+
+        // Encode the value outside of the lock
+        byte[] keyData = key.getBytes(StandardCharsets.UTF_8);
+        byte[] data = null;
+        if (value != null && keyData.length <= 0xFFFF) {
+            try {
+                data = _codec.encode(value);
+            } catch (IOException ex) {
+                // Value cannot be cached
+            }
+        }
+
+        synchronized (_lock) {
+            if (_buffer == null)
+                return value;
+
+            removeEntry(key);
+
+            long length = (long) _recordHeaderSize + keyData.length + (data != null ? data.length : 0);
+            if (data == null || length > _buffer.capacity() - _headerSize)
+                return value;
+
+            // Make room for the new entry
+            if (_maxSize > 0 && _index.size() >= _maxSize)
+                removeEntry(_index.keySet().iterator().next());
+            if (_position + length > _buffer.capacity()) {
+                try {
+                    compact((int) length);
+                } catch (IOException ex) {
+                    // Value cannot be cached
+                    return value;
+                }
+            }
+
+            timeout = timeout > 0 ? timeout : _timeout;
+            int offset = _position;
+            _buffer.putInt(offset, (int) length);
+            _buffer.put(offset + _flagOffset, (byte) 1);
+            _buffer.putLong(offset + _expirationOffset, Clock.currentTimeMillis() + timeout);
+            _buffer.putShort(offset + _keyLengthOffset, (short) keyData.length);
+            _buffer.putInt(offset + _valueLengthOffset, data.length);
+            _buffer.put(offset + _recordHeaderSize, keyData);
+            _buffer.put(offset + _recordHeaderSize + keyData.length, data);
+
+            // Publish the record by moving the write position
+            _position += (int) length;
+            _buffer.putInt(_positionOffset, _position);
+            _index.put(key, offset);
+            _liveBytes += (int) length;
+
+            return value;
+        }
+    }
+
+    /**
+     * Removes a value from the cache by its key.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     */
+    public void remove(String correlationId, String key) {
+        if (key == null)
+            throw new NullPointerException("Key cannot be null");
+
+        synchronized (_lock) {
+            if (_buffer != null)
+                removeEntry(key);
+        }
+    }
+}
@@ -2,10 +2,41 @@ package org.pipservices3.components.cache;
 
 import org.pipservices3.commons.config.ConfigParams;
 import org.pipservices3.commons.config.IReconfigurable;
+import org.pipservices3.commons.errors.ApplicationException;
 import org.pipservices3.commons.errors.ConfigException;
+import org.pipservices3.commons.errors.FileException;
+import org.pipservices3.commons.errors.InvocationException;
+import org.pipservices3.commons.refer.IReferenceable;
+import org.pipservices3.commons.refer.IReferences;
+import org.pipservices3.commons.refer.ReferenceException;
+import org.pipservices3.commons.run.IOpenable;
+import org.pipservices3.components.clock.Clock;
+import org.pipservices3.components.count.CompositeCounters;
+import org.pipservices3.components.count.ICounters;
+import org.pipservices3.components.log.CompositeLogger;
+import org.pipservices3.components.log.ILogger;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiFunction;
 
 /**
  * Cache that stores values in the process memory.
@@ -18,29 +49,121 @@ import java.util.Map;
  *   <ul>
  *   <li>timeout:               default caching timeout in milliseconds (default: 1 minute)
  *   <li>max_size:              maximum number of values stored in this cache (default: 1000)
+ *   <li>max_weight:            maximum total weight of values stored in this cache.
+ *                              With the default weigher it is the estimated size in bytes. 0 disables the limit (default: 0)
+ *   <li>max_memory:            alias for max_weight
+ *   <li>eviction_policy:       policy to select values evicted when the cache is full:
+ *                              fifo, lru, lfu or tinylfu (default: fifo)
+ *   <li>sweep_interval:        interval in milliseconds to remove expired values in background
+ *                              after the cache is opened. 0 disables the sweeping (default: 0)
+ *   <li>negative_timeout:      default timeout in milliseconds to cache missing values (default: 10 seconds)
+ *   <li>negative_max_size:     maximum number of missing values cached in addition to max_size.
+ *                              0 disables negative caching (default: 0)
+ *   <li>timeout_jitter:        fraction of the timeout randomly subtracted from it for every stored value,
+ *                              so values stored together don't expire together, e.g. 0.1. 0 disables it (default: 0)
+ *   <li>sliding_expiration:    true to extend expiration of values on every access (default: false)
+ *   <li>refresh_ahead:         fraction of the value timeout after which retrieveOrLoad reloads the value
+ *                              in background, e.g. 0.8. 0 disables the refreshing (default: 0)
+ *   <li>stale_while_revalidate: time in milliseconds retrieveOrLoad keeps returning an expired value
+ *                              while it is reloaded in background. 0 disables it (default: 0)
+ *   <li>stats_interval:        interval in milliseconds to publish cache statistics into performance counters
+ *                              after the cache is opened. 0 disables the publishing (default: 0)
+ *   <li>stats_name:            prefix of the published counter names (default: cache)
+ *   <li>snapshot_path:         path to a snapshot file. When it is set, live values are saved into the file
+ *                              on close and loaded back on open to warm up the cache after restarts (default: none)
+ *   <li>prefix_index:          true to keep keys sorted, so removeByPrefix doesn't scan the entire cache (default: false)
  *   </ul>
  * </ul>
  * <p>
+ * ### References ###
+ * <ul>
+ * <li>*:counters:*:*:1.0       (optional) {@link ICounters} components to publish cache statistics
+ * <li>*:logger:*:*:1.0         (optional) {@link ILogger} components to log failures of background reloads
+ * </ul>
+ * <p>
  * ### Example ###
  * <pre>
  * {@code
  * MemoryCache cache = new MemoryCache();
  *
  * cache.store("123", "key1", "ABC", 0);
+ * cache.store("123", "tenant1:page1", "XYZ", 0, "tenant1");
+ *
+ * cache.removeByTag("123", "tenant1");
+ * cache.removeByPrefix("123", "tenant1:");
  * }
  * </pre>
  *
  * @see ICache
+ * @see IEvictionPolicy
+ * @see ICacheWeigher
+ * @see CacheStats
  */
-public class MemoryCache implements ICache, IReconfigurable {
+public class MemoryCache implements ICache, IReconfigurable, IReferenceable, IOpenable {
     private final static long _defaultTimeout = 60000;
     private final static long _defaultMaxSize = 1000;
+    private final static String _defaultEvictionPolicy = "fifo";
+    private final static String _defaultStatsName = "cache";
+    private final static long _defaultNegativeTimeout = 10000;
+    private final static long _defaultNegativeMaxSize = 0;
+    private final static int _sweepBatchSize = 1000;
+    // Number of key lock stripes for compute, it shall be a power of two
+    private final static int _computeStripes = 64;
+    private static Timer _sweepTimer;
+    private static ExecutorService _refreshExecutor;
 
     private final Object _lock = new Object();
+    // Locks that serialize computations of keys without blocking other keys
+    private final Object[] _computeLocks = createComputeLocks();
     private final Map<String, CacheEntry> _cache = new HashMap<>();
-    private int _count = 0;
+    // Loads in progress, so concurrent callers wait for the same value
+    private final Map<String, CompletableFuture<Object>> _loading = new HashMap<>();
+    // Expiration times of keys known to be missing in the order they were stored
+    private final Map<String, Long> _negative = new LinkedHashMap<>();
+    // Keys of entries marked by each tag
+    private final Map<String, Set<String>> _tags = new HashMap<>();
+    // Sorted keys to find entries by prefix, null when the prefix index is disabled
+    private NavigableSet<String> _sortedKeys;
+    private long _negativeTimeout = _defaultNegativeTimeout;
+    private long _negativeMaxSize = _defaultNegativeMaxSize;
     private long _timeout = _defaultTimeout;
     private long _maxSize = _defaultMaxSize;
+    // Weight settings are read without the lock to weigh values before they are stored
+    private volatile long _maxWeight = 0;
+    private long _totalWeight = 0;
+    private volatile ICacheWeigher _weigher = new DefaultCacheWeigher();
+    private ICacheEvictionListener _evictionListener;
+    private String _evictionPolicyName = _defaultEvictionPolicy;
+    private IEvictionPolicy _evictionPolicy = new FifoEvictionPolicy();
+    private long _sweepInterval = 0;
+    private ExpirationWheel _wheel;
+    private TimerTask _sweepTask;
+    private boolean _opened = false;
+    private double _timeoutJitter = 0;
+    private boolean _slidingExpiration = false;
+    private double _refreshAhead = 0;
+    private long _staleTimeout = 0;
+    private final CacheStats _stats = new CacheStats();
+    private final CompositeCounters _counters = new CompositeCounters();
+    private final CompositeLogger _logger = new CompositeLogger();
+    private long _statsInterval = 0;
+    private String _statsName = _defaultStatsName;
+    private TimerTask _statsTask;
+    private String _snapshotPath;
+    private ICacheCodec _snapshotCodec = new SerializableCacheCodec();
+
+    private final ExpirationWheel.IExpirationHandler _expirationHandler = new ExpirationWheel.IExpirationHandler() {
+        @Override
+        public long getExpiration(String key) {
+            CacheEntry entry = _cache.get(key);
+            return entry != null ? getRemovalTime(entry) : -1;
+        }
+
+        @Override
+        public void expire(String key) {
+            removeEntry(key);
+        }
+    };
 
     /**
      * Creates instance of local in-memory cache component
@@ -48,6 +171,13 @@ public class MemoryCache implements ICache, IReconfigurable {
     public MemoryCache() {
     }
 
+    private static Object[] createComputeLocks() {
+        Object[] locks = new Object[_computeStripes];
+        for (int index = 0; index < locks.length; index++)
+            locks[index] = new Object();
+        return locks;
+    }
+
     /**
      * Configures component by passing configuration parameters.
      *
@@ -56,73 +186,875 @@ public class MemoryCache implements ICache, IReconfigurable {
      *                         validation fails.
      */
     public void configure(ConfigParams config) throws ConfigException {
-        _timeout = config.getAsLongWithDefault("options.timeout", _timeout);
-        _maxSize = config.getAsLongWithDefault("options.max_size", _maxSize);
+        boolean publish = false;
+        synchronized (_lock) {
+            long maxSize = _maxSize;
+            long maxWeight = _maxWeight;
+            _timeout = config.getAsLongWithDefault("options.timeout", _timeout);
+            _maxSize = config.getAsLongWithDefault("options.max_size", _maxSize);
+            _maxWeight = config.getAsLongWithDefault("options.max_memory", _maxWeight);
+            _maxWeight = config.getAsLongWithDefault("options.max_weight", _maxWeight);
+            String evictionPolicyName = config.getAsStringWithDefault("options.eviction_policy", _evictionPolicyName);
+            _negativeTimeout = config.getAsLongWithDefault("options.negative_timeout", _negativeTimeout);
+            _negativeMaxSize = config.getAsLongWithDefault("options.negative_max_size", _negativeMaxSize);
+            cleanupNegative(_negativeMaxSize);
+            _timeoutJitter = Math.min(1, Math.max(0, config.getAsDoubleWithDefault("options.timeout_jitter", _timeoutJitter)));
+            _slidingExpiration = config.getAsBooleanWithDefault("options.sliding_expiration", _slidingExpiration);
+            _refreshAhead = config.getAsDoubleWithDefault("options.refresh_ahead", _refreshAhead);
+            long staleTimeout = config.getAsLongWithDefault("options.stale_while_revalidate", _staleTimeout);
+            _statsName = config.getAsStringWithDefault("options.stats_name", _statsName);
+            _snapshotPath = config.getAsStringWithDefault("options.snapshot_path", _snapshotPath);
+            boolean prefixIndex = config.getAsBooleanWithDefault("options.prefix_index", _sortedKeys != null);
+            if (!prefixIndex)
+                _sortedKeys = null;
+            else if (_sortedKeys == null)
+                _sortedKeys = new TreeSet<>(_cache.keySet());
+            long statsInterval = config.getAsLongWithDefault("options.stats_interval", _statsInterval);
+            if (statsInterval != _statsInterval) {
+                _statsInterval = statsInterval;
+                if (_opened) {
+                    publish = stopPublishing();
+                    startPublishing();
+                }
+            }
+
+            // Recreate the policy only when it changes, since recreation loses recency and frequency history.
+            // TinyLFU is also sized by the cache capacity
+            if (!evictionPolicyName.equalsIgnoreCase(_evictionPolicyName)
+                    || (_maxSize != maxSize && _evictionPolicy instanceof TinyLfuEvictionPolicy)) {
+                _evictionPolicy = createEvictionPolicy(evictionPolicyName, _maxSize);
+                _evictionPolicyName = evictionPolicyName;
+                for (String key : _cache.keySet())
+                    _evictionPolicy.onInsert(key);
+            }
+
+            // Weigh entries again only when the weight limit is turned on or off
+            if ((_maxWeight > 0) != (maxWeight > 0))
+                weighEntries();
+
+            cleanup(getSizeLimit(), getWeightLimit());
+
+            // Recreate the expiration wheel and schedule already stored entries
+            long sweepInterval = config.getAsLongWithDefault("options.sweep_interval", _sweepInterval);
+            if (sweepInterval != _sweepInterval || staleTimeout != _staleTimeout || (sweepInterval > 0 && _wheel == null)) {
+                _sweepInterval = sweepInterval;
+                _staleTimeout = staleTimeout;
+                _wheel = null;
+                if (_sweepInterval > 0) {
+                    _wheel = new ExpirationWheel(_sweepInterval, Clock.currentTimeMillis());
+                    for (CacheEntry entry : _cache.values())
+                        _wheel.schedule(entry.getKey(), getRemovalTime(entry));
+                }
+
+                if (_opened) {
+                    stopSweeping();
+                    startSweeping();
+                }
+            }
+        }
+
+        if (publish)
+            publishStats();
     }
 
     /**
-     * Clears component state.
+     * Sets references to dependent components.
+     *
+     * @param references references to locate the component dependencies.
+     * @throws ReferenceException when no references found.
+     */
+    @Override
+    public void setReferences(IReferences references) throws ReferenceException {
+        _counters.setReferences(references);
+        _logger.setReferences(references);
+    }
+
+    /**
+     * Gets statistics of this cache usage.
+     *
+     * @return the cache statistics.
+     */
+    public CacheStats getStats() {
+        return _stats;
+    }
+
+    /**
+     * Gets the number of values stored in the cache, including expired values that weren't removed yet.
+     *
+     * @return the number of cached values.
+     */
+    public long getSize() {
+        synchronized (_lock) {
+            return _cache.size();
+        }
+    }
+
+    /**
+     * Gets the weigher used to estimate weights of cached values.
+     *
+     * @return the cache weigher.
+     */
+    public ICacheWeigher getWeigher() {
+        return _weigher;
+    }
+
+    /**
+     * Sets the weigher used to estimate weights of cached values.
+     * Already stored values are weighed again when the weigher changes.
+     *
+     * @param weigher the cache weigher.
      */
-    private void cleanup() {
-        CacheEntry oldest = null;
-        _count = 0;
+    public void setWeigher(ICacheWeigher weigher) {
+        if (weigher == null)
+            throw new NullPointerException("Weigher cannot be null");
 
-        // Cleanup obsolete entries and find the oldest
-        for (Map.Entry<String, CacheEntry> e : _cache.entrySet()) {
-            String key = e.getKey();
-            CacheEntry entry = e.getValue();
-            // Remove obsolete entry
-            if (entry.isExpired()) {
-                _cache.remove(key);
+        synchronized (_lock) {
+            if (_weigher == weigher)
+                return;
+
+            _weigher = weigher;
+            weighEntries();
+            cleanup(getSizeLimit(), getWeightLimit());
+        }
+    }
+
+    /**
+     * Calculates weights of all stored entries with the current weigher.
+     * It shall be called under the cache synchronization.
+     */
+    private void weighEntries() {
+        _totalWeight = 0;
+        for (CacheEntry entry : _cache.values()) {
+            entry.setWeight(_maxWeight > 0 ? _weigher.weigh(entry.getKey(), entry.getValue()) : 0);
+            _totalWeight += entry.getWeight();
+        }
+    }
+
+    /**
+     * Estimates the weight of a value before it is stored, so the weigher is not called under the cache lock.
+     *
+     * @param key   a unique value key.
+     * @param value a value to store.
+     * @return the value weight or -1 when the weight limit is disabled.
+     */
+    private long weigh(String key, Object value) {
+        if (_maxWeight <= 0 || key == null || value == null)
+            return -1;
+        return _weigher.weigh(key, value);
+    }
+
+    /**
+     * Sets the listener notified about entries evicted to fit into the cache capacity.
+     *
+     * @param listener the eviction listener or null to remove it.
+     */
+    public void setEvictionListener(ICacheEvictionListener listener) {
+        synchronized (_lock) {
+            _evictionListener = listener;
+        }
+    }
+
+    /**
+     * Gets the codec used to encode values in snapshot files.
+     *
+     * @return the snapshot codec.
+     */
+    public ICacheCodec getSnapshotCodec() {
+        return _snapshotCodec;
+    }
+
+    /**
+     * Sets the codec used to encode values in snapshot files.
+     * Values that cannot be encoded by the codec are not saved.
+     *
+     * @param codec the snapshot codec.
+     */
+    public void setSnapshotCodec(ICacheCodec codec) {
+        if (codec == null)
+            throw new NullPointerException("Codec cannot be null");
+
+        synchronized (_lock) {
+            _snapshotCodec = codec;
+        }
+    }
+
+    /**
+     * Checks if the component is opened.
+     *
+     * @return true if the component has been opened and false otherwise.
+     */
+    @Override
+    public boolean isOpen() {
+        return _opened;
+    }
+
+    /**
+     * Opens the component and starts background sweeping of expired values when it is configured.
+     * When snapshot_path is configured, values saved on close are loaded back.
+     * Missing or broken snapshots are logged and ignored, and the cache starts empty.
+     *
+     * @param correlationId (optional) transaction id to trace execution through call chain.
+     */
+    @Override
+    public void open(String correlationId) {
+        String snapshotPath;
+        synchronized (_lock) {
+            if (_opened)
+                return;
+
+            startSweeping();
+            startPublishing();
+            _opened = true;
+            snapshotPath = _snapshotPath;
+        }
+
+        if (snapshotPath != null) {
+            try {
+                loadSnapshot(correlationId, snapshotPath);
+            } catch (FileException ex) {
+                // The cache is warmed up by regular calls
+                _logger.error(correlationId, ex, "Failed to load cache snapshot %s", snapshotPath);
             }
-            // Count the remaining entry
-            else {
-                _count++;
-                if (oldest == null || oldest.getExpiration() > entry.getExpiration())
-                    oldest = entry;
+        }
+    }
+
+    /**
+     * Closes the component and stops background sweeping.
+     * When snapshot_path is configured, live values are saved into the snapshot file.
+     *
+     * @param correlationId (optional) transaction id to trace execution through call chain.
+     */
+    @Override
+    public void close(String correlationId) {
+        String snapshotPath;
+        boolean publish;
+        synchronized (_lock) {
+            if (!_opened)
+                return;
+
+            stopSweeping();
+            publish = stopPublishing();
+            _opened = false;
+            snapshotPath = _snapshotPath;
+        }
+
+        if (publish)
+            publishStats();
+
+        if (snapshotPath != null) {
+            try {
+                saveSnapshot(correlationId, snapshotPath);
+            } catch (FileException ex) {
+                // Losing the snapshot only means a cold start
+                _logger.error(correlationId, ex, "Failed to save cache snapshot %s", snapshotPath);
             }
         }
+    }
 
-        // Remove the oldest if cache size exceeded maximum
-        if (_count > _maxSize && oldest != null) {
-            _cache.remove(oldest.getKey());
-            _count--;
+    /**
+     * Saves live values with their expiration times and tags into a snapshot file.
+     * Values are encoded outside of the cache lock.
+     *
+     * @param correlationId (optional) transaction id to trace execution through call chain.
+     * @param path          a path to the snapshot file.
+     * @return the number of saved values.
+     * @throws FileException when the file cannot be written.
+     */
+    public int saveSnapshot(String correlationId, String path) throws FileException {
+        List<CacheEntry> entries = new ArrayList<>();
+        ICacheCodec codec;
+        synchronized (_lock) {
+            long now = Clock.currentTimeMillis();
+            for (CacheEntry entry : _cache.values()) {
+                if (entry.getExpiration() >= now) {
+                    CacheEntry copy = new CacheEntry(entry.getKey(), entry.getValue(), entry.getExpiration() - now);
+                    copy.setTags(entry.getTags());
+                    entries.add(copy);
+                }
+            }
+            codec = _snapshotCodec;
+        }
+
+        try {
+            return CacheSnapshot.write(Paths.get(path), entries, codec);
+        } catch (IOException ex) {
+            throw (FileException) new FileException(correlationId, "WRITE_FAILED",
+                    "Failed to write cache snapshot " + path + ": " + ex)
+                    .withDetails("path", path).withCause(ex);
         }
     }
 
     /**
-     * Retrieves cached value from the cache using its key. If value is missing in
-     * the cache or expired it returns null.
+     * Loads values from a snapshot file into the cache. Values are decoded in parallel
+     * outside of the cache lock and stored with their remaining timeouts.
+     * Values already expired and values that cannot be decoded are skipped.
+     * Keys stored or marked as missing while the snapshot was read are newer, so they are kept.
+     *
+     * @param correlationId (optional) transaction id to trace execution through call chain.
+     * @param path          a path to the snapshot file.
+     * @return the number of loaded values or 0 if the file doesn't exist.
+     * @throws FileException when the file cannot be read, has unknown format or is corrupted.
+     */
+    public int loadSnapshot(String correlationId, String path) throws FileException {
+        ICacheCodec codec;
+        synchronized (_lock) {
+            codec = _snapshotCodec;
+        }
+
+        List<CacheEntry> entries;
+        try {
+            entries = CacheSnapshot.read(Paths.get(path), codec, Clock.currentTimeMillis());
+        } catch (IOException ex) {
+            throw (FileException) new FileException(correlationId, "READ_FAILED",
+                    "Failed to read cache snapshot " + path + ": " + ex)
+                    .withDetails("path", path).withCause(ex);
+        }
+
+        // Restored values keep their stored expiration, so jitter is not applied again
+        long[] weights = new long[entries.size()];
+        for (int index = 0; index < weights.length; index++)
+            weights[index] = weigh(entries.get(index).getKey(), entries.get(index).getValue());
+
+        int count = 0;
+        synchronized (_lock) {
+            for (int index = 0; index < weights.length; index++) {
+                CacheEntry entry = entries.get(index);
+                long timeout = entry.getExpiration() - Clock.currentTimeMillis();
+                CacheEntry current = _cache.get(entry.getKey());
+                if (timeout <= 0 || (current != null && !current.isExpired()) || isNegativeEntry(entry.getKey()))
+                    continue;
+
+                putEntry(entry.getKey(), entry.getValue(), timeout,
+                        entry.getTags() != null ? entry.getTags() : new String[0], weights[index]);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static synchronized ExecutorService getRefreshExecutor() {
+        if (_refreshExecutor == null) {
+            _refreshExecutor = Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "memory-cache-refresher");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return _refreshExecutor;
+    }
+
+    private static synchronized Timer getSweepTimer() {
+        if (_sweepTimer == null)
+            _sweepTimer = new Timer("memory-cache-sweeper", true);
+        return _sweepTimer;
+    }
+
+    /**
+     * Creates a task for the timer shared by all caches. Failures are logged and not rethrown,
+     * since an exception thrown from a task stops the timer for all caches in the process.
+     *
+     * @param operation a name of the operation used in log messages.
+     * @param action    an action to run.
+     * @return a created timer task.
+     */
+    private TimerTask createTask(String operation, Runnable action) {
+        return new TimerTask() {
+            @Override
+            public void run() {
+                try {
+                    action.run();
+                } catch (Throwable ex) {
+                    try {
+                        _logger.error(null, ex instanceof Exception ? (Exception) ex : new RuntimeException(ex),
+                                "Failed to %s", operation);
+                    } catch (Throwable ex2) {
+                        // The timer shall keep running
+                    }
+                }
+            }
+        };
+    }
+
+    private void startSweeping() {
+        if (_sweepInterval <= 0)
+            return;
+
+        _sweepTask = createTask("sweep expired cache values", this::sweep);
+        getSweepTimer().schedule(_sweepTask, _sweepInterval, _sweepInterval);
+    }
+
+    private void startPublishing() {
+        if (_statsInterval <= 0)
+            return;
+
+        _statsTask = createTask("publish cache statistics", this::publishStats);
+        getSweepTimer().schedule(_statsTask, _statsInterval, _statsInterval);
+    }
+
+    /**
+     * Stops publishing of the statistics. It shall be called under the cache synchronization.
+     *
+     * @return true if the statistics were published and the last values shall be published
+     * after the cache lock is released.
+     */
+    private boolean stopPublishing() {
+        if (_statsTask != null) {
+            _statsTask.cancel();
+            _statsTask = null;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Publishes the cache statistics into referenced performance counters.
+     * It is called outside of the cache lock, so slow counters don't block the cache.
+     * Failures of the counters are logged.
+     */
+    private void publishStats() {
+        String statsName;
+        synchronized (_lock) {
+            statsName = _statsName;
+        }
+
+        try {
+            _stats.publish(_counters, statsName, getSize());
+        } catch (Exception ex) {
+            _logger.error(null, ex, "Failed to publish cache statistics");
+        }
+    }
+
+    private void stopSweeping() {
+        if (_sweepTask != null) {
+            _sweepTask.cancel();
+            _sweepTask = null;
+        }
+    }
+
+    /**
+     * Removes expired values in small batches, so other threads are not blocked for long.
+     */
+    private void sweep() {
+        boolean done = false;
+        while (!done) {
+            synchronized (_lock) {
+                if (_wheel == null)
+                    return;
+                done = _wheel.sweep(Clock.currentTimeMillis(), _sweepBatchSize, _expirationHandler);
+            }
+        }
+    }
+
+    /**
+     * Creates an eviction policy by its name.
+     *
+     * @param name    a name of the policy: fifo, lru, lfu or tinylfu.
+     * @param maxSize maximum number of values stored in the cache.
+     * @return a created eviction policy.
+     * @throws ConfigException when the policy name is not supported.
+     */
+    private static IEvictionPolicy createEvictionPolicy(String name, long maxSize) throws ConfigException {
+        switch (name.toLowerCase()) {
+            case "fifo":
+                return new FifoEvictionPolicy();
+            case "lru":
+                return new LruEvictionPolicy();
+            case "lfu":
+                return new LfuEvictionPolicy();
+            case "tinylfu":
+            case "w-tinylfu":
+                return new TinyLfuEvictionPolicy(maxSize);
+            default:
+                throw new ConfigException(
+                        null,
+                        "BAD_EVICTION_POLICY",
+                        "Eviction policy " + name + " is not supported"
+                );
+        }
+    }
+
+    private long getSizeLimit() {
+        return _maxSize > 0 ? _maxSize : Long.MAX_VALUE;
+    }
+
+    private long getWeightLimit() {
+        return _maxWeight > 0 ? _maxWeight : Long.MAX_VALUE;
+    }
+
+    /**
+     * Evicts entries selected by the eviction policy until the cache fits into the given limits.
+     *
+     * @param size   maximum number of values left in the cache.
+     * @param weight maximum total weight of values left in the cache.
+     */
+    private void cleanup(long size, long weight) {
+        while (_cache.size() > size || _totalWeight > weight) {
+            String key = _evictionPolicy.evict();
+            if (key == null)
+                break;
+
+            CacheEntry entry = _cache.remove(key);
+            if (entry != null) {
+                unlinkEntry(entry);
+                _stats.recordEviction();
+                if (_evictionListener != null)
+                    _evictionListener.onEvicted(entry);
+            }
+        }
+    }
+
+    /**
+     * Removes an entry from the cache and from the eviction policy.
+     *
+     * @param key a unique value key.
+     */
+    private void removeEntry(String key) {
+        CacheEntry entry = _cache.remove(key);
+        if (entry != null) {
+            _evictionPolicy.onRemove(key);
+            unlinkEntry(entry);
+        }
+    }
+
+    /**
+     * Gets the time when an entry shall be removed from the cache.
+     * Expired entries are kept for the stale period to be served while they are reloaded.
+     *
+     * @param entry a cache entry.
+     * @return the removal time in milliseconds.
+     */
+    private long getRemovalTime(CacheEntry entry) {
+        return entry.getExpiration() + _staleTimeout;
+    }
+
+    /**
+     * Releases resources tracked for a removed entry.
+     *
+     * @param entry a removed cache entry.
+     */
+    private void unlinkEntry(CacheEntry entry) {
+        if (_wheel != null)
+            _wheel.cancel(entry.getKey(), getRemovalTime(entry));
+        _totalWeight -= entry.getWeight();
+        if (_sortedKeys != null)
+            _sortedKeys.remove(entry.getKey());
+        unlinkTags(entry);
+    }
+
+    /**
+     * Adds an entry into the index of its tags.
+     *
+     * @param entry a cache entry.
+     */
+    private void linkTags(CacheEntry entry) {
+        if (entry.getTags() == null)
+            return;
+
+        for (String tag : entry.getTags())
+            _tags.computeIfAbsent(tag, k -> new HashSet<>()).add(entry.getKey());
+    }
+
+    /**
+     * Removes an entry from the index of its tags.
+     *
+     * @param entry a cache entry.
+     */
+    private void unlinkTags(CacheEntry entry) {
+        if (entry.getTags() == null)
+            return;
+
+        for (String tag : entry.getTags()) {
+            Set<String> keys = _tags.get(tag);
+            if (keys != null) {
+                keys.remove(entry.getKey());
+                if (keys.isEmpty())
+                    _tags.remove(tag);
+            }
+        }
+    }
+
+    /**
+     * Removes the oldest negative entries until their number fits into the limit.
+     *
+     * @param size the maximum number of negative entries.
+     */
+    private void cleanupNegative(long size) {
+        Iterator<String> keys = _negative.keySet().iterator();
+        while (_negative.size() > Math.max(0, size) && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    /**
+     * Marks a key as missing. It shall be called under the cache synchronization.
+     *
+     * @param key     a unique value key.
+     * @param timeout expiration timeout in milliseconds.
+     */
+    private void storeNegativeEntry(String key, long timeout) {
+        if (_negativeMaxSize <= 0)
+            return;
+
+        timeout = timeout > 0 ? timeout : _negativeTimeout;
+        _negative.remove(key);
+        cleanupNegative(_negativeMaxSize - 1);
+        _negative.put(key, Clock.currentTimeMillis() + timeout);
+    }
+
+    /**
+     * Checks if a key is marked as missing. It shall be called under the cache synchronization.
+     *
+     * @param key a unique value key.
+     * @return true if the key is marked as missing and the mark isn't expired.
+     */
+    private boolean isNegativeEntry(String key) {
+        Long expiration = _negative.get(key);
+        if (expiration == null)
+            return false;
+
+        if (expiration < Clock.currentTimeMillis()) {
+            _negative.remove(key);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Caches the fact that a value is missing, e.g. it wasn't found in the backing store.
+     * Negative entries are kept separately from values with their own timeout and size limit.
+     * Storing a value or removing the key clears the mark.
      *
      * @param correlationId (optional) transaction id to trace execution through
      *                      call chain.
      * @param key           a unique value key.
-     * @return a cached value or null if value wasn't found or timeout expired.
+     * @param timeout       expiration timeout in milliseconds. If 0, the negative timeout is used.
      */
-    public Object retrieve(String correlationId, String key) {
+    public void storeNegative(String correlationId, String key, long timeout) {
         synchronized (_lock) {
             if (key == null)
                 throw new NullPointerException("Key cannot be null");
 
+            removeEntry(key);
+            storeNegativeEntry(key, timeout);
+        }
+    }
 
-            // Get entry from the cache
-            CacheEntry entry = _cache.get(key);
+    /**
+     * Checks if a value is cached as missing.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     * @return true if the value is known to be missing and false otherwise.
+     */
+    public boolean isNegative(String correlationId, String key) {
+        synchronized (_lock) {
+            if (key == null)
+                throw new NullPointerException("Key cannot be null");
 
-            // Cache has nothing
-            if (entry == null) {
-                return null;
-            }
+            return isNegativeEntry(key);
+        }
+    }
 
-            // Remove entry if expiration set and entry is expired
-            if (entry.isExpired()) {
-                _cache.remove(key);
-                _count--;
-                return null;
+    /**
+     * Gets a value from the cache. It shall be called under the cache synchronization.
+     *
+     * @param key a unique value key.
+     * @return a cached value or null if value wasn't found or timeout expired.
+     */
+    private Object retrieveEntry(String key) {
+        if (key == null)
+            throw new NullPointerException("Key cannot be null");
+
+        // Get entry from the cache
+        CacheEntry entry = _cache.get(key);
+
+        // Cache has nothing
+        if (entry == null) {
+            _evictionPolicy.onMiss(key);
+            _stats.recordMiss();
+            return null;
+        }
+
+        // Remove entry if expiration set and entry is expired
+        if (entry.isExpired()) {
+            // Stale entries are kept to be revalidated by retrieveOrLoad
+            if (getRemovalTime(entry) < Clock.currentTimeMillis())
+                removeEntry(key);
+            _evictionPolicy.onMiss(key);
+            _stats.recordMiss();
+            return null;
+        }
+
+        // Update access statistics
+        _evictionPolicy.onAccess(key);
+        _stats.recordHit();
+        if (_slidingExpiration)
+            touchEntry(entry);
+        return entry.getValue();
+    }
+
+    /**
+     * Extends expiration of an accessed entry in sliding expiration mode.
+     *
+     * @param entry an accessed cache entry.
+     */
+    private void touchEntry(CacheEntry entry) {
+        if (_wheel != null)
+            _wheel.cancel(entry.getKey(), getRemovalTime(entry));
+        entry.touch();
+        if (_wheel != null)
+            _wheel.schedule(entry.getKey(), getRemovalTime(entry));
+    }
+
+    /**
+     * Puts a value into the cache. It shall be called under the cache synchronization.
+     *
+     * @param key     a unique value key.
+     * @param value   a value to store.
+     * @param timeout expiration timeout in milliseconds.
+     * @param weight  the value weight calculated by {@link #weigh} before taking the lock.
+     * @return a cached value stored in the cache.
+     */
+    private Object storeEntry(String key, Object value, long timeout, long weight) {
+        return storeEntry(key, value, timeout, null, weight);
+    }
+
+    /**
+     * Puts a value with tags into the cache. It shall be called under the cache synchronization.
+     *
+     * @param key     a unique value key.
+     * @param value   a value to store.
+     * @param timeout expiration timeout in milliseconds.
+     * @param tags    tags of the value or null to keep tags of the existing value.
+     * @param weight  the value weight calculated by {@link #weigh} before taking the lock.
+     * @return a cached value stored in the cache.
+     */
+    private Object storeEntry(String key, Object value, long timeout, String[] tags, long weight) {
+        timeout = timeout > 0 ? timeout : _timeout;
+        // Spread expiration of values stored at the same time
+        if (_timeoutJitter > 0)
+            timeout -= (long) (timeout * _timeoutJitter * ThreadLocalRandom.current().nextDouble());
+
+        return putEntry(key, value, timeout, tags, weight);
+    }
+
+    /**
+     * Puts a value with tags into the cache with the exact timeout, without jitter.
+     * It shall be called under the cache synchronization.
+     *
+     * @param key     a unique value key.
+     * @param value   a value to store.
+     * @param timeout expiration timeout in milliseconds.
+     * @param tags    tags of the value or null to keep tags of the existing value.
+     * @param weight  the value weight calculated by {@link #weigh} before taking the lock.
+     * @return a cached value stored in the cache.
+     */
+    private Object putEntry(String key, Object value, long timeout, String[] tags, long weight) {
+        if (key == null)
+            throw new NullPointerException("Key cannot be null");
+
+        // Get the entry
+        CacheEntry entry = _cache.get(key);
+        if (!_negative.isEmpty())
+            _negative.remove(key);
+
+        // Shortcut to remove entry from the cache
+        if (value == null) {
+            if (entry != null)
+                removeEntry(key);
+            return null;
+        }
+
+        // The weight limit could change after the value was weighed
+        if (_maxWeight <= 0)
+            weight = 0;
+        else if (weight < 0)
+            weight = _weigher.weigh(key, value);
+
+        // Values heavier than the entire cache are not stored
+        if (weight > getWeightLimit()) {
+            if (entry != null)
+                removeEntry(key);
+            return value;
+        }
+
+        // Update the entry
+        if (entry != null) {
+            if (_wheel != null)
+                _wheel.cancel(key, getRemovalTime(entry));
+            entry.setValue(value, timeout);
+            _totalWeight += weight - entry.getWeight();
+            entry.setWeight(weight);
+            if (tags != null) {
+                unlinkTags(entry);
+                entry.setTags(tags.length > 0 ? tags : null);
+                linkTags(entry);
             }
+            _evictionPolicy.onUpdate(key);
+        }
+        // Or create a new entry
+        else {
+            // Make room for the new entry
+            cleanup(getSizeLimit() - 1, getWeightLimit() - weight);
 
-            // Update access timeout
-            return entry.getValue();
+            entry = new CacheEntry(key, value, timeout);
+            entry.setWeight(weight);
+            if (tags != null && tags.length > 0)
+                entry.setTags(tags);
+            _cache.put(key, entry);
+            _totalWeight += weight;
+            if (_sortedKeys != null)
+                _sortedKeys.add(key);
+            linkTags(entry);
+            _evictionPolicy.onInsert(key);
+        }
+
+        if (_wheel != null)
+            _wheel.schedule(key, getRemovalTime(entry));
+
+        // Updated value may exceed the weight limit
+        if (_totalWeight > getWeightLimit())
+            cleanup(getSizeLimit(), getWeightLimit());
+
+        return value;
+    }
+
+    /**
+     * Retrieves cached value from the cache using its key. If value is missing in
+     * the cache or expired it returns null.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     * @return a cached value or null if value wasn't found or timeout expired.
+     */
+    public Object retrieve(String correlationId, String key) {
+        synchronized (_lock) {
+            return retrieveEntry(key);
+        }
+    }
+
+    /**
+     * Retrieves multiple cached values from the cache under a single lock acquisition.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param keys          unique value keys.
+     * @return a map with found values. Missing and expired keys are not included.
+     */
+    @Override
+    public Map<String, Object> retrieveMany(String correlationId, Collection<String> keys) {
+        Map<String, Object> result = new HashMap<>(keys.size() * 2);
+        synchronized (_lock) {
+            for (String key : keys) {
+                Object value = retrieveEntry(key);
+                if (value != null)
+                    result.put(key, value);
+            }
         }
+        return result;
     }
 
     /**
@@ -136,39 +1068,246 @@ public class MemoryCache implements ICache, IReconfigurable {
      * @return a cached value stored in the cache.
      */
     public Object store(String correlationId, String key, Object value, long timeout) {
+        long weight = weigh(key, value);
+        synchronized (_lock) {
+            return storeEntry(key, value, timeout, weight);
+        }
+    }
+
+    /**
+     * Stores value in the cache with expiration time and marks it with tags,
+     * so it can be removed together with other values by {@link #removeByTag}.
+     * Tags replace the tags the value was stored with before, while values updated
+     * without tags keep their tags.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     * @param value         a value to store.
+     * @param timeout       expiration timeout in milliseconds.
+     * @param tags          tags of the value.
+     * @return a cached value stored in the cache.
+     */
+    public Object store(String correlationId, String key, Object value, long timeout, String... tags) {
+        for (String tag : tags) {
+            if (tag == null)
+                throw new NullPointerException("Tag cannot be null");
+        }
+
+        long weight = weigh(key, value);
+        synchronized (_lock) {
+            return storeEntry(key, value, timeout, tags.clone(), weight);
+        }
+    }
+
+    /**
+     * Stores multiple values in the cache under a single lock acquisition.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param values        a map of unique value keys and values to store.
+     * @param timeout       expiration timeout in milliseconds.
+     */
+    @Override
+    public void storeMany(String correlationId, Map<String, Object> values, long timeout) {
+        long[] weights = new long[values.size()];
+        int index = 0;
+        for (Map.Entry<String, Object> value : values.entrySet())
+            weights[index++] = weigh(value.getKey(), value.getValue());
+
+        synchronized (_lock) {
+            index = 0;
+            for (Map.Entry<String, Object> value : values.entrySet())
+                storeEntry(value.getKey(), value.getValue(), timeout, weights[index++]);
+        }
+    }
+
+    /**
+     * Retrieves cached value from the cache or loads it when the value is missing or expired.
+     * Only one caller loads a key at a time, other callers wait for its result.
+     * <p>
+     * When refresh_ahead is configured, values close to their expiration are reloaded in background.
+     * When stale_while_revalidate is configured, expired values are returned while they are reloaded in background.
+     * When the loader returns null, the key is cached as missing for the negative timeout.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     * @param loader        a loader to compute the missing value.
+     * @param timeout       expiration timeout in milliseconds for the loaded value.
+     * @return a cached or loaded value or null if the loader returned null.
+     * @throws InterruptedException when the calling thread was interrupted while waiting for the value.
+     * @throws ApplicationException when the loader failed.
+     */
+    @Override
+    public Object retrieveOrLoad(String correlationId, String key, ICacheLoader loader, long timeout)
+            throws InterruptedException, ApplicationException {
+        CompletableFuture<Object> future;
+        boolean loading = false;
         synchronized (_lock) {
             if (key == null)
                 throw new NullPointerException("Key cannot be null");
 
-            // Get the entry
+            // Serve fresh and stale values and reload them in background when required
             CacheEntry entry = _cache.get(key);
-            timeout = timeout > 0 ? timeout : _timeout;
+            long now = Clock.currentTimeMillis();
+            if (entry != null && now <= getRemovalTime(entry)) {
+                boolean expired = entry.getExpiration() < now;
+                long refreshTime = entry.getExpiration() - (long) (entry.getTimeout() * (1 - _refreshAhead));
+                if (expired || (_refreshAhead > 0 && now >= refreshTime))
+                    refresh(correlationId, key, loader, timeout);
 
-            // Shortcut to remove entry from the cache
-            if (value == null) {
-                if (entry != null) {
-                    _cache.remove(key);
-                    _count--;
-                }
+                _evictionPolicy.onAccess(key);
+                _stats.recordHit();
+                if (_slidingExpiration && !expired)
+                    touchEntry(entry);
+                return entry.getValue();
+            }
+
+            Object value = retrieveEntry(key);
+            if (value != null)
+                return value;
+
+            // The value is known to be missing
+            if (isNegativeEntry(key))
                 return null;
+
+            // Join the load started by another caller
+            future = _loading.get(key);
+            if (future == null) {
+                future = new CompletableFuture<>();
+                _loading.put(key, future);
+                loading = true;
             }
+        }
 
-            // Update the entry
-            if (entry != null) {
-                entry.setValue(value, timeout);
+        if (loading)
+            return load(correlationId, key, loader, timeout, future);
+
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof ApplicationException)
+                throw (ApplicationException) cause;
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw (InvocationException) new InvocationException(correlationId, "LOAD_FAILED",
+                    "Failed to load cache value " + key).withCause(cause);
+        }
+    }
+
+    /**
+     * Starts a background reload of the key unless it is already loading.
+     * Failures are recorded in the cache statistics and logged, while the current value
+     * is served until it is removed. It shall be called under the cache synchronization.
+     */
+    private void refresh(String correlationId, String key, ICacheLoader loader, long timeout) {
+        if (_loading.containsKey(key))
+            return;
+
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        _loading.put(key, future);
+        getRefreshExecutor().execute(() -> {
+            try {
+                load(correlationId, key, loader, timeout, future);
+            } catch (Exception ex) {
+                _logger.error(correlationId, ex, "Failed to reload cache value %s", key);
+            }
+        });
+    }
+
+    /**
+     * Calls the loader outside of the cache lock, stores the loaded value
+     * and completes the future awaited by other callers.
+     */
+    private Object load(String correlationId, String key, ICacheLoader loader, long timeout,
+                        CompletableFuture<Object> future) throws ApplicationException {
+        Object value;
+        long start = System.nanoTime();
+        try {
+            value = loader.load(correlationId, key);
+            _stats.recordLoad(System.nanoTime() - start);
+        } catch (Throwable ex) {
+            _stats.recordLoadFailure(System.nanoTime() - start);
+            synchronized (_lock) {
+                _loading.remove(key);
             }
-            // Or create a new entry
-            else {
-                entry = new CacheEntry(key, value, timeout);
-                _cache.put(key, entry);
-                _count++;
+            future.completeExceptionally(ex);
+            throw ex;
+        }
+
+        long weight = weigh(key, value);
+        synchronized (_lock) {
+            if (value != null) {
+                storeEntry(key, value, timeout, weight);
+            } else {
+                // Remember missing values to avoid repeated loads
+                removeEntry(key);
+                storeNegativeEntry(key, 0);
             }
+            _loading.remove(key);
+        }
+        future.complete(value);
+        return value;
+    }
+
+    /**
+     * Atomically computes a new value from the current cached value and stores it.
+     * If the function returns null, the value is removed. If it returns the current value,
+     * the value is kept with its current expiration time.
+     * <p>
+     * Computations of the same key are serialized by a key lock, and the function is called outside
+     * of the cache lock, so it doesn't block other keys. When the value is changed by a store or removal
+     * while the function runs, the function is called again with the new value. So it shall not have side effects
+     * and must not compute the same key.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     * @param function      a function that receives the key and the current value
+     *                      (null when it is missing or expired) and returns the new value.
+     * @param timeout       expiration timeout in milliseconds for the new value.
+     * @return the new value or null if the value was removed.
+     */
+    @Override
+    public Object compute(String correlationId, String key, BiFunction<String, Object, Object> function,
+                          long timeout) {
+        if (key == null)
+            throw new NullPointerException("Key cannot be null");
 
-            // Clean up the cache
-            if (_maxSize > 0 && _count > _maxSize)
-                cleanup();
+        int hash = key.hashCode();
+        synchronized (_computeLocks[(hash ^ (hash >>> 16)) & (_computeStripes - 1)]) {
+            while (true) {
+                CacheEntry entry;
+                Object stored;
+                Object current;
+                synchronized (_lock) {
+                    current = retrieveEntry(key);
+                    entry = _cache.get(key);
+                    stored = entry != null ? entry.getValue() : null;
+                }
 
-            return value;
+                Object value = function.apply(key, current);
+                long weight = value != null && value != current ? weigh(key, value) : -1;
+
+                synchronized (_lock) {
+                    // Stores and removals don't take the key lock, so the value could be changed meanwhile
+                    CacheEntry changed = _cache.get(key);
+                    if (changed != entry || (changed != null && changed.getValue() != stored))
+                        continue;
+
+                    if (value == null) {
+                        removeEntry(key);
+                        _negative.remove(key);
+                    } else if (value != current) {
+                        storeEntry(key, value, timeout, weight);
+                    }
+                    return value;
+                }
+            }
         }
     }
 
@@ -184,17 +1323,90 @@ public class MemoryCache implements ICache, IReconfigurable {
             if (key == null)
                 throw new NullPointerException("Key cannot be null");
 
-            // Get the entry
-            CacheEntry entry = _cache.get(key);
-
             // Remove entry from the cache
-            if (entry != null) {
-                _cache.remove(key);
-                _count--;
+            removeEntry(key);
+            _negative.remove(key);
+        }
+    }
+
+    /**
+     * Removes multiple values from the cache under a single lock acquisition.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param keys          unique value keys.
+     */
+    @Override
+    public void removeMany(String correlationId, Collection<String> keys) {
+        synchronized (_lock) {
+            for (String key : keys) {
+                if (key == null)
+                    throw new NullPointerException("Key cannot be null");
+                removeEntry(key);
+                _negative.remove(key);
             }
         }
     }
 
+    /**
+     * Removes all values marked by a tag. It takes time proportional to the number of removed values.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param tag           a tag of the values to remove.
+     * @return the number of removed values.
+     */
+    public int removeByTag(String correlationId, String tag) {
+        synchronized (_lock) {
+            if (tag == null)
+                throw new NullPointerException("Tag cannot be null");
+
+            Set<String> keys = _tags.remove(tag);
+            if (keys == null)
+                return 0;
+
+            for (String key : keys)
+                removeEntry(key);
+            return keys.size();
+        }
+    }
+
+    /**
+     * Removes all values with keys that start with a prefix, e.g. "tenant1:".
+     * When prefix_index is enabled it takes time proportional to the number of removed values,
+     * otherwise all keys in the cache are scanned.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param prefix        a prefix of keys to remove.
+     * @return the number of removed values.
+     */
+    public int removeByPrefix(String correlationId, String prefix) {
+        synchronized (_lock) {
+            if (prefix == null)
+                throw new NullPointerException("Prefix cannot be null");
+
+            List<String> keys = new ArrayList<>();
+            if (_sortedKeys != null) {
+                for (String key : _sortedKeys.tailSet(prefix, true)) {
+                    if (!key.startsWith(prefix))
+                        break;
+                    keys.add(key);
+                }
+            } else {
+                for (String key : _cache.keySet()) {
+                    if (key.startsWith(prefix))
+                        keys.add(key);
+                }
+            }
+
+            for (String key : keys)
+                removeEntry(key);
+            _negative.keySet().removeIf(key -> key.startsWith(prefix));
+            return keys.size();
+        }
+    }
+
     /**
      * Clears component state.
      *
@@ -204,7 +1416,14 @@ public class MemoryCache implements ICache, IReconfigurable {
     private void clear(String correlationId) {
         synchronized (_lock) {
             _cache.clear();
-            _count = 0;
+            _negative.clear();
+            _tags.clear();
+            if (_sortedKeys != null)
+                _sortedKeys.clear();
+            _totalWeight = 0;
+            _evictionPolicy.clear();
+            if (_wheel != null)
+                _wheel.clear();
         }
     }
 }
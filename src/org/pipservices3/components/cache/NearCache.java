@@ -0,0 +1,271 @@
+package org.pipservices3.components.cache;
+
+import org.pipservices3.commons.config.ConfigParams;
+import org.pipservices3.commons.config.IReconfigurable;
+import org.pipservices3.commons.data.IdGenerator;
+import org.pipservices3.commons.errors.ConfigException;
+import org.pipservices3.commons.refer.DependencyResolver;
+import org.pipservices3.commons.refer.Descriptor;
+import org.pipservices3.commons.refer.IReferenceable;
+import org.pipservices3.commons.refer.IReferences;
+import org.pipservices3.commons.refer.ReferenceException;
+import org.pipservices3.commons.run.IOpenable;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Cache that keeps local copies of values in the process memory and keeps them
+ * consistent across multiple instances through an invalidation bus.
+ * <p>
+ * Every change of a value made through this cache is published into the invalidation channel,
+ * and all other instances subscribed to the channel remove their local copies of the key.
+ * Changes are published whenever a bus is referenced, while invalidations from other instances
+ * are received only after the cache is opened.
+ * That removes stale values right after updates instead of waiting for their timeouts.
+ * <p>
+ * Optionally the cache can front a shared (remote) cache: values missing locally are read from it,
+ * and changes are written through to it. Every change and invalidation of a key bumps its version,
+ * and a value read from the shared cache is not kept locally when the version of its key changed
+ * during the read, so slow reads never bring back values that were already invalidated.
+ * <p>
+ * ### Configuration parameters ###
+ * <ul>
+ * <li>options:
+ *   <ul>
+ *   <li>channel:               name of the invalidation channel (default: cache)
+ *   <li>timeout:               default caching timeout of local copies in milliseconds (default: 1 minute)
+ *   <li>max_size:              maximum number of local copies (default: 1000)
+ *   <li>...                    other options of {@link MemoryCache} that holds local copies
+ *   </ul>
+ * <li>dependencies:
+ *   <ul>
+ *   <li>bus:                   (optional) override of the invalidation bus locator
+ *   <li>cache:                 (optional) locator of a shared cache behind the local copies
+ *   </ul>
+ * </ul>
+ * <p>
+ * ### References ###
+ * <ul>
+ * <li>*:cache-invalidation-bus:*:*:1.0  (optional) {@link ICacheInvalidationBus} to exchange invalidations
+ * <li>*:cache:*:*:1.0                   (optional) {@link ICache} referenced by the cache dependency
+ * <li>*:counters:*:*:1.0                (optional) ICounters components to publish statistics of local copies
+ * <li>*:logger:*:*:1.0                  (optional) ILogger components to log failures of local copies
+ * </ul>
+ * <p>
+ * ### Example ###
+ * <pre>
+ * {@code
+ * NearCache cache = new NearCache();
+ * cache.configure(ConfigParams.fromTuples("options.channel", "mycache"));
+ * cache.setReferences(References.fromTuples(
+ *     new Descriptor("pip-services", "cache-invalidation-bus", "loopback", "default", "1.0"), new LoopbackInvalidationBus()
+ * ));
+ * cache.open("123");
+ *
+ * cache.store("123", "key1", "ABC", 0);
+ * }
+ * </pre>
+ *
+ * @see ICache
+ * @see ICacheInvalidationBus
+ * @see MemoryCache
+ */
+public class NearCache implements ICache, IReconfigurable, IReferenceable, IOpenable, ICacheInvalidationListener {
+    private final static String _defaultChannel = "cache";
+    // Number of key version stripes, it shall be a power of two
+    private final static int _versionStripes = 1024;
+
+    private final String _instanceId = IdGenerator.nextLong();
+    private final MemoryCache _local = new MemoryCache();
+    private final DependencyResolver _dependencyResolver = new DependencyResolver();
+    private final AtomicLongArray _versions = new AtomicLongArray(_versionStripes);
+    private String _channel = _defaultChannel;
+    private ICacheInvalidationBus _bus;
+    private ICache _remote;
+    private volatile boolean _opened = false;
+
+    /**
+     * Creates instance of near cache component
+     */
+    public NearCache() {
+        _dependencyResolver.put("bus", new Descriptor(null, "cache-invalidation-bus", null, null, "1.0"));
+    }
+
+    /**
+     * Configures component by passing configuration parameters.
+     *
+     * @param config configuration parameters to be set.
+     * @throws ConfigException when component is in illegal state or configuration
+     *                         validation fails.
+     */
+    @Override
+    public void configure(ConfigParams config) throws ConfigException {
+        _channel = config.getAsStringWithDefault("options.channel", _channel);
+        _local.configure(config);
+        _dependencyResolver.configure(config);
+    }
+
+    /**
+     * Sets references to dependent components.
+     *
+     * @param references references to locate the component dependencies.
+     * @throws ReferenceException when no references found.
+     */
+    @Override
+    public void setReferences(IReferences references) throws ReferenceException {
+        _local.setReferences(references);
+        _dependencyResolver.setReferences(references);
+
+        Object bus = _dependencyResolver.getOneOptional("bus");
+        if (bus instanceof ICacheInvalidationBus)
+            _bus = (ICacheInvalidationBus) bus;
+
+        Object remote = _dependencyResolver.getOneOptional("cache");
+        if (remote instanceof ICache && remote != this)
+            _remote = (ICache) remote;
+    }
+
+    /**
+     * Checks if the component is opened.
+     *
+     * @return true if the component has been opened and false otherwise.
+     */
+    @Override
+    public boolean isOpen() {
+        return _opened;
+    }
+
+    /**
+     * Opens the component and subscribes to the invalidation channel.
+     *
+     * @param correlationId (optional) transaction id to trace execution through call chain.
+     */
+    @Override
+    public synchronized void open(String correlationId) {
+        if (_opened)
+            return;
+
+        _local.open(correlationId);
+        if (_bus != null)
+            _bus.subscribe(_channel, this);
+        _opened = true;
+    }
+
+    /**
+     * Closes the component and unsubscribes from the invalidation channel.
+     *
+     * @param correlationId (optional) transaction id to trace execution through call chain.
+     */
+    @Override
+    public synchronized void close(String correlationId) {
+        if (!_opened)
+            return;
+
+        if (_bus != null)
+            _bus.unsubscribe(_channel, this);
+        _local.close(correlationId);
+        _opened = false;
+    }
+
+    /**
+     * Removes the local copy of a value changed by another cache instance.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param source        a unique id of the cache instance that changed the value.
+     * @param key           a unique value key.
+     */
+    @Override
+    public void onInvalidated(String correlationId, String source, String key) {
+        if (!_instanceId.equals(source) && key != null) {
+            changeVersion(key);
+            _local.remove(correlationId, key);
+        }
+    }
+
+    private int getVersionStripe(String key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (_versionStripes - 1);
+    }
+
+    /**
+     * Bumps the version of a key, so values of the key read from the shared cache
+     * before the change are not kept locally.
+     * It shall be called after the shared cache is changed and before the local copy is changed.
+     *
+     * @param key a unique value key.
+     */
+    private void changeVersion(String key) {
+        _versions.incrementAndGet(getVersionStripe(key));
+    }
+
+    private void invalidate(String correlationId, String key) {
+        // Changes are published even before open, so other instances never keep stale copies
+        if (_bus != null)
+            _bus.publish(correlationId, _channel, _instanceId, key);
+    }
+
+    /**
+     * Retrieves cached value from the cache using its key. If value is missing in
+     * the cache or expired it returns null.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     * @return a cached value or null if value wasn't found or timeout expired.
+     */
+    @Override
+    public Object retrieve(String correlationId, String key) {
+        Object value = _local.retrieve(correlationId, key);
+        if (value == null && _remote != null) {
+            int stripe = getVersionStripe(key);
+            long version = _versions.get(stripe);
+            value = _remote.retrieve(correlationId, key);
+            if (value != null && _versions.get(stripe) == version) {
+                _local.store(correlationId, key, value, 0);
+                // The key could be changed while the copy was stored
+                if (_versions.get(stripe) != version)
+                    _local.remove(correlationId, key);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Stores value in the cache with expiration time and invalidates
+     * copies of the value in other cache instances.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     * @param value         a value to store.
+     * @param timeout       expiration timeout in milliseconds.
+     * @return a cached value stored in the cache.
+     */
+    @Override
+    public Object store(String correlationId, String key, Object value, long timeout) {
+        if (_remote != null)
+            _remote.store(correlationId, key, value, timeout);
+        changeVersion(key);
+        value = _local.store(correlationId, key, value, timeout);
+        invalidate(correlationId, key);
+        return value;
+    }
+
+    /**
+     * Removes a value from the cache by its key and invalidates
+     * copies of the value in other cache instances.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     */
+    @Override
+    public void remove(String correlationId, String key) {
+        if (_remote != null)
+            _remote.remove(correlationId, key);
+        changeVersion(key);
+        _local.remove(correlationId, key);
+        invalidate(correlationId, key);
+    }
+}
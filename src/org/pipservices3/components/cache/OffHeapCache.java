@@ -0,0 +1,453 @@
+package org.pipservices3.components.cache;
+
+import org.pipservices3.commons.config.ConfigParams;
+import org.pipservices3.commons.config.IReconfigurable;
+import org.pipservices3.commons.errors.ConfigException;
+import org.pipservices3.components.clock.Clock;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cache that stores binary values outside of the Java heap.
+ * <p>
+ * Values are copied into direct memory slabs, so large caches don't increase
+ * garbage collection pauses. Slabs are split into chunks of power-of-two size classes
+ * and every value takes the smallest chunk it fits into. When there is no free chunk
+ * and the memory limit is reached, the least recently used value of the same size class is evicted.
+ * When the size class has no values to evict, an empty slab of another class or the slab
+ * of the least recently used value of other classes is emptied and moved to this class,
+ * so memory is rebalanced when value sizes change over time. Keys are tracked per slab,
+ * so rebalancing doesn't scan all stored values.
+ * If a value still cannot be placed, store returns null and the rejection is counted.
+ * <p>
+ * The cache accepts only <code>byte[]</code> and {@link ByteBuffer} values
+ * and returns copies of them as <code>byte[]</code>.
+ * <p>
+ * Remember: This implementation is not suitable for synchronization of distributed processes.
+ * <p>
+ * ### Configuration parameters ###
+ * <ul>
+ * <li>options:
+ *   <ul>
+ *   <li>timeout:               default caching timeout in milliseconds (default: 1 minute)
+ *   <li>max_size:              maximum number of values stored in this cache. 0 disables the limit (default: 0)
+ *   <li>max_memory:            maximum off-heap memory in bytes allocated for values. It shall not be less
+ *                              than the slab size. Slabs above the limit are released when it shrinks (default: 64 MB)
+ *   <li>slab_size:             size of memory slabs in bytes. It also limits the size of a single value (default: 1 MB)
+ *   <li>min_chunk_size:        size of the smallest chunk in bytes (default: 64)
+ *   </ul>
+ * </ul>
+ * <p>
+ * ### Example ###
+ * <pre>
+ * {@code
+ * OffHeapCache cache = new OffHeapCache();
+ *
+ * cache.store("123", "key1", "ABC".getBytes(), 0);
+ * byte[] value = (byte[]) cache.retrieve("123", "key1");
+ * }
+ * </pre>
+ *
+ * @see ICache
+ * @see MemoryCache
+ */
+public class OffHeapCache implements ICache, IReconfigurable {
+    private final static long _defaultTimeout = 60000;
+    private final static long _defaultMaxMemory = 64 * 1024 * 1024;
+    private final static int _defaultSlabSize = 1024 * 1024;
+    private final static int _defaultMinChunkSize = 64;
+
+    private static class Entry {
+        private final String _key;
+        private final SlabClass _slabClass;
+        private final long _chunk;
+        private int _length;
+        private long _expiration;
+        private long _accessTime;
+
+        private Entry(String key, SlabClass slabClass, long chunk) {
+            _key = key;
+            _slabClass = slabClass;
+            _chunk = chunk;
+        }
+    }
+
+    private static class SlabClass {
+        private final int _chunkSize;
+        private final LinkedHashSet<String> _keys = new LinkedHashSet<>();
+        private long[] _freeChunks = new long[16];
+        private int _freeCount = 0;
+
+        private SlabClass(int chunkSize) {
+            _chunkSize = chunkSize;
+        }
+
+        private void release(long chunk) {
+            if (_freeCount == _freeChunks.length)
+                _freeChunks = Arrays.copyOf(_freeChunks, _freeCount * 2);
+            _freeChunks[_freeCount++] = chunk;
+        }
+
+        private void releaseSlab(int slab) {
+            int count = 0;
+            for (int index = 0; index < _freeCount; index++) {
+                if ((int) (_freeChunks[index] >>> 32) != slab)
+                    _freeChunks[count++] = _freeChunks[index];
+            }
+            _freeCount = count;
+        }
+    }
+
+    private final Object _lock = new Object();
+    // Entries are kept in access order to evict the least recently used one when max_size is reached
+    private final Map<String, Entry> _cache = new LinkedHashMap<>(16, 0.75f, true);
+    private final List<ByteBuffer> _slabs = new ArrayList<>();
+    // Size classes that own the slabs
+    private final List<SlabClass> _slabOwners = new ArrayList<>();
+    // Keys of values stored in the slabs
+    private final List<Set<String>> _slabKeys = new ArrayList<>();
+    // Logical time of the last access to compare recency of values in different size classes
+    private long _accessCounter = 0;
+    private SlabClass[] _slabClasses;
+    private long _timeout = _defaultTimeout;
+    private long _maxSize = 0;
+    private long _maxMemory = _defaultMaxMemory;
+    private int _slabSize = _defaultSlabSize;
+    private int _minChunkSize = _defaultMinChunkSize;
+    private long _rejectedCount = 0;
+
+    /**
+     * Creates instance of off-heap cache component
+     */
+    public OffHeapCache() {
+        _slabClasses = createSlabClasses();
+    }
+
+    /**
+     * Configures component by passing configuration parameters.
+     * Changing the memory layout removes all values stored in the cache.
+     *
+     * @param config configuration parameters to be set.
+     * @throws ConfigException when component is in illegal state or configuration
+     *                         validation fails.
+     */
+    public void configure(ConfigParams config) throws ConfigException {
+        synchronized (_lock) {
+            _timeout = config.getAsLongWithDefault("options.timeout", _timeout);
+            _maxSize = config.getAsLongWithDefault("options.max_size", _maxSize);
+            long maxMemory = config.getAsLongWithDefault("options.max_memory", _maxMemory);
+
+            int slabSize = config.getAsIntegerWithDefault("options.slab_size", _slabSize);
+            int minChunkSize = config.getAsIntegerWithDefault("options.min_chunk_size", _minChunkSize);
+            if (minChunkSize <= 0 || slabSize < minChunkSize) {
+                throw new ConfigException(
+                        null,
+                        "BAD_SLAB_SIZE",
+                        "Slab size " + slabSize + " must be greater than chunk size " + minChunkSize
+                );
+            }
+            if (maxMemory < slabSize) {
+                throw new ConfigException(
+                        null,
+                        "BAD_MAX_MEMORY",
+                        "Max memory " + maxMemory + " must not be less than slab size " + slabSize
+                );
+            }
+            _maxMemory = maxMemory;
+
+            if (slabSize != _slabSize || minChunkSize != _minChunkSize) {
+                _slabSize = slabSize;
+                _minChunkSize = minChunkSize;
+                clear();
+            }
+
+            // Release slabs above the reduced limit
+            while ((long) _slabs.size() * _slabSize > _maxMemory)
+                releaseSlab(_slabs.size() - 1);
+        }
+    }
+
+    /**
+     * Gets the number of values that were not stored because no memory could be allocated for them.
+     *
+     * @return the number of rejected values.
+     */
+    public long getRejectedCount() {
+        synchronized (_lock) {
+            return _rejectedCount;
+        }
+    }
+
+    /**
+     * Creates size classes from the minimum chunk size up to the slab size.
+     */
+    private SlabClass[] createSlabClasses() {
+        List<SlabClass> slabClasses = new ArrayList<>();
+        for (long chunkSize = _minChunkSize; chunkSize < _slabSize; chunkSize *= 2)
+            slabClasses.add(new SlabClass((int) chunkSize));
+        slabClasses.add(new SlabClass(_slabSize));
+        return slabClasses.toArray(new SlabClass[0]);
+    }
+
+    /**
+     * Removes all values and releases the allocated memory.
+     */
+    private void clear() {
+        _cache.clear();
+        _slabs.clear();
+        _slabOwners.clear();
+        _slabKeys.clear();
+        _slabClasses = createSlabClasses();
+    }
+
+    private SlabClass findSlabClass(int length) {
+        for (SlabClass slabClass : _slabClasses) {
+            if (slabClass._chunkSize >= length)
+                return slabClass;
+        }
+        return null;
+    }
+
+    /**
+     * Allocates a chunk from a size class. It takes a free chunk, a new slab,
+     * evicts the least recently used value of the class or moves a slab from another class.
+     *
+     * @return the allocated chunk or -1 when memory is exhausted.
+     */
+    private long allocate(SlabClass slabClass) {
+        if (slabClass._freeCount == 0) {
+            // Allocate a new slab while memory limit allows
+            if ((long) (_slabs.size() + 1) * _slabSize <= _maxMemory) {
+                _slabs.add(ByteBuffer.allocateDirect(_slabSize));
+                _slabOwners.add(null);
+                _slabKeys.add(new HashSet<>());
+                assignSlab(_slabs.size() - 1, slabClass);
+            } else {
+                Iterator<String> keys = slabClass._keys.iterator();
+                if (keys.hasNext())
+                    removeEntry(keys.next());
+                else if (!rebalance(slabClass))
+                    return -1;
+            }
+        }
+
+        return slabClass._freeChunks[--slabClass._freeCount];
+    }
+
+    /**
+     * Splits a slab into chunks of a size class.
+     */
+    private void assignSlab(int slab, SlabClass slabClass) {
+        _slabOwners.set(slab, slabClass);
+        for (int offset = _slabSize - slabClass._chunkSize; offset >= 0; offset -= slabClass._chunkSize)
+            slabClass.release(((long) slab << 32) | offset);
+    }
+
+    /**
+     * Moves a slab of another size class to the given class. Empty slabs are taken first,
+     * otherwise the slab of the least recently used value of other classes is taken.
+     * All values stored in that slab are evicted.
+     *
+     * @return true if a slab was moved and false when no other class has slabs.
+     */
+    private boolean rebalance(SlabClass slabClass) {
+        int slab = -1;
+        for (int index = 0; index < _slabs.size() && slab < 0; index++) {
+            if (_slabOwners.get(index) != slabClass && _slabKeys.get(index).isEmpty())
+                slab = index;
+        }
+
+        // Least recently used values of the classes are the first ones in their keys
+        if (slab < 0) {
+            Entry oldest = null;
+            for (SlabClass otherClass : _slabClasses) {
+                if (otherClass == slabClass || otherClass._keys.isEmpty())
+                    continue;
+                Entry entry = _cache.get(otherClass._keys.iterator().next());
+                if (oldest == null || entry._accessTime < oldest._accessTime)
+                    oldest = entry;
+            }
+            if (oldest == null)
+                return false;
+            slab = (int) (oldest._chunk >>> 32);
+        }
+
+        evictSlab(slab);
+        assignSlab(slab, slabClass);
+        return true;
+    }
+
+    /**
+     * Evicts all values stored in a slab and takes its chunks from the owning size class.
+     */
+    private void evictSlab(int slab) {
+        for (String key : new ArrayList<>(_slabKeys.get(slab)))
+            removeEntry(key);
+        _slabOwners.get(slab).releaseSlab(slab);
+        _slabOwners.set(slab, null);
+    }
+
+    /**
+     * Evicts values of a slab and frees its memory. Only the last slab shall be released,
+     * since chunks refer to slabs by their positions.
+     */
+    private void releaseSlab(int slab) {
+        evictSlab(slab);
+        _slabs.remove(slab);
+        _slabOwners.remove(slab);
+        _slabKeys.remove(slab);
+    }
+
+    private void removeEntry(String key) {
+        Entry entry = _cache.remove(key);
+        if (entry != null) {
+            entry._slabClass._keys.remove(key);
+            entry._slabClass.release(entry._chunk);
+            _slabKeys.get((int) (entry._chunk >>> 32)).remove(key);
+        }
+    }
+
+    private static byte[] toBytes(Object value) {
+        if (value instanceof byte[])
+            return (byte[]) value;
+
+        if (value instanceof ByteBuffer) {
+            ByteBuffer buffer = ((ByteBuffer) value).duplicate();
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            return bytes;
+        }
+
+        throw new IllegalArgumentException("Off-heap cache supports only byte[] and ByteBuffer values");
+    }
+
+    /**
+     * Retrieves cached value from the cache using its key. If value is missing in
+     * the cache or expired it returns null.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     * @return a copy of the cached value as byte[] or null if value wasn't found or timeout expired.
+     */
+    public Object retrieve(String correlationId, String key) {
+        synchronized (_lock) {
+            if (key == null)
+                throw new NullPointerException("Key cannot be null");
+
+            // Get entry from the cache
+            Entry entry = _cache.get(key);
+
+            // Cache has nothing
+            if (entry == null)
+                return null;
+
+            // Remove entry if expiration set and entry is expired
+            if (entry._expiration < Clock.currentTimeMillis()) {
+                removeEntry(key);
+                return null;
+            }
+
+            // Mark the entry as recently used
+            entry._slabClass._keys.remove(key);
+            entry._slabClass._keys.add(key);
+            entry._accessTime = ++_accessCounter;
+
+            byte[] value = new byte[entry._length];
+            _slabs.get((int) (entry._chunk >>> 32)).get((int) entry._chunk, value);
+            return value;
+        }
+    }
+
+    /**
+     * Stores value in the cache with expiration time.
+     * When the value is larger than the slab size or memory cannot be allocated for it,
+     * the value is rejected: the previous value
+     * is removed, the rejection is counted and null is returned.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     * @param value         a byte[] or ByteBuffer value to store.
+     * @param timeout       expiration timeout in milliseconds.
+     * @return a cached value stored in the cache or null if the value was rejected.
+     */
+    public Object store(String correlationId, String key, Object value, long timeout) {
+        if (key == null)
+            throw new NullPointerException("Key cannot be null");
+
+        // Convert the value before taking the lock
+        byte[] bytes = value != null ? toBytes(value) : null;
+
+        synchronized (_lock) {
+            timeout = timeout > 0 ? timeout : _timeout;
+            Entry entry = _cache.get(key);
+            SlabClass slabClass = bytes != null ? findSlabClass(bytes.length) : null;
+
+            // Reuse the chunk when the value stays in the same size class
+            if (entry == null || entry._slabClass != slabClass) {
+                removeEntry(key);
+                entry = null;
+
+                // Shortcut to remove entry from the cache
+                if (bytes == null)
+                    return null;
+
+                // Values larger than a slab are rejected
+                if (slabClass == null) {
+                    _rejectedCount++;
+                    return null;
+                }
+
+                // Make room for the new entry
+                while (_maxSize > 0 && _cache.size() >= _maxSize)
+                    removeEntry(_cache.keySet().iterator().next());
+
+                long chunk = allocate(slabClass);
+                if (chunk < 0) {
+                    _rejectedCount++;
+                    return null;
+                }
+
+                entry = new Entry(key, slabClass, chunk);
+                _cache.put(key, entry);
+                _slabKeys.get((int) (chunk >>> 32)).add(key);
+            }
+
+            slabClass._keys.remove(key);
+            slabClass._keys.add(key);
+            entry._accessTime = ++_accessCounter;
+
+            entry._length = bytes.length;
+            entry._expiration = Clock.currentTimeMillis() + timeout;
+            _slabs.get((int) (entry._chunk >>> 32)).put((int) entry._chunk, bytes);
+
+            return value;
+        }
+    }
+
+    /**
+     * Removes a value from the cache by its key.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     */
+    public void remove(String correlationId, String key) {
+        synchronized (_lock) {
+            if (key == null)
+                throw new NullPointerException("Key cannot be null");
+
+            removeEntry(key);
+        }
+    }
+}
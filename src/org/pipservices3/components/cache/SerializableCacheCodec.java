@@ -0,0 +1,56 @@
+package org.pipservices3.components.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+/**
+ * Codec that converts cached values using standard Java serialization.
+ * <p>
+ * It preserves types of the values, but requires them to implement {@link java.io.Serializable}.
+ * Use it only for data produced by the same application, since Java deserialization
+ * of untrusted data is unsafe.
+ *
+ * @see ICacheCodec
+ */
+public class SerializableCacheCodec implements ICacheCodec {
+    /**
+     * Creates a new instance of the codec.
+     */
+    public SerializableCacheCodec() {
+    }
+
+    /**
+     * Converts a value into binary form.
+     *
+     * @param value a value to encode.
+     * @return the encoded value.
+     * @throws IOException when the value is not serializable.
+     */
+    @Override
+    public byte[] encode(Object value) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(buffer)) {
+            output.writeObject(value);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Restores a value from binary form.
+     *
+     * @param data an encoded value.
+     * @return the decoded value.
+     * @throws IOException when the data cannot be decoded.
+     */
+    @Override
+    public Object decode(byte[] data) throws IOException {
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(data))) {
+            return input.readObject();
+        } catch (ClassNotFoundException ex) {
+            throw new IOException("Cannot decode cached value", ex);
+        }
+    }
+}
@@ -0,0 +1,444 @@
+package org.pipservices3.components.cache;
+
+import org.pipservices3.commons.config.ConfigParams;
+import org.pipservices3.commons.config.IReconfigurable;
+import org.pipservices3.commons.errors.ApplicationException;
+import org.pipservices3.commons.errors.ConfigException;
+import org.pipservices3.commons.refer.DependencyResolver;
+import org.pipservices3.commons.refer.IReferenceable;
+import org.pipservices3.commons.refer.IReferences;
+import org.pipservices3.commons.refer.ReferenceException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Cache that partitions keys across multiple caches using consistent hashing.
+ * <p>
+ * Each shard is placed on a hash ring at many virtual nodes, and a key belongs to the shard
+ * of the first virtual node that follows the key hash. When a shard is added or removed,
+ * only keys on the affected ring segments (about 1/N of all keys) move to other shards.
+ * <p>
+ * Shards are resolved through the shards dependency, which shall be configured explicitly,
+ * since a broad locator could match caches that wrap this component. Shards are replaced on every
+ * call of setReferences. Positions of shards on the ring are derived from their locators,
+ * so the same shards get the same keys after restarts. It allows to split a hot cache across independent
+ * {@link MemoryCache} instances in-process, or across remote cache nodes.
+ * <p>
+ * When there are no shards, values are not cached.
+ * <p>
+ * ### Configuration parameters ###
+ * <ul>
+ * <li>options:
+ *   <ul>
+ *   <li>virtual_nodes:         number of virtual nodes of each shard on the hash ring (default: 100)
+ *   </ul>
+ * <li>dependencies:
+ *   <ul>
+ *   <li>shards:                locator of caches to be used as shards.
+ *                              All matching caches except this component are used
+ *   </ul>
+ * </ul>
+ * <p>
+ * ### References ###
+ * <ul>
+ * <li>*:cache:*:*:1.0          {@link ICache} components referenced by the shards dependency
+ * </ul>
+ * <p>
+ * ### Example ###
+ * <pre>
+ * {@code
+ * ShardedCache cache = new ShardedCache();
+ * cache.configure(ConfigParams.fromTuples(
+ *     "dependencies.shards", "pip-services:cache:memory:*:1.0"
+ * ));
+ * cache.setReferences(References.fromTuples(
+ *     new Descriptor("pip-services", "cache", "memory", "shard1", "1.0"), new MemoryCache(),
+ *     new Descriptor("pip-services", "cache", "memory", "shard2", "1.0"), new MemoryCache()
+ * ));
+ *
+ * cache.store("123", "key1", "ABC", 0);
+ * }
+ * </pre>
+ *
+ * @see ICache
+ */
+public class ShardedCache implements ICache, IReconfigurable, IReferenceable {
+    private final static int _defaultVirtualNodes = 100;
+
+    private final Object _lock = new Object();
+    private final Map<String, ICache> _shards = new LinkedHashMap<>();
+    private int _virtualNodes = _defaultVirtualNodes;
+    private volatile Ring _ring = new Ring(new long[0], new ICache[0]);
+    private final DependencyResolver _dependencyResolver = new DependencyResolver();
+    private String _shardsLocator;
+
+    /**
+     * Immutable hash ring with sorted positions of virtual nodes and shards they belong to.
+     * It is replaced on every change, so lookups don't need synchronization.
+     */
+    private static class Ring {
+        final long[] positions;
+        final ICache[] nodes;
+
+        Ring(long[] positions, ICache[] nodes) {
+            this.positions = positions;
+            this.nodes = nodes;
+        }
+    }
+
+    /**
+     * Creates instance of sharded cache component
+     */
+    public ShardedCache() {
+    }
+
+    /**
+     * Creates instance of sharded cache component.
+     *
+     * @param config     configuration parameters with the shards dependency.
+     * @param references references to locate the shards.
+     * @throws ConfigException    when the shards dependency is not configured.
+     * @throws ReferenceException when no references found.
+     */
+    public ShardedCache(ConfigParams config, IReferences references) throws ConfigException, ReferenceException {
+        this();
+        if (config != null)
+            configure(config);
+        if (references != null)
+            setReferences(references);
+    }
+
+    /**
+     * Configures component by passing configuration parameters.
+     *
+     * @param config configuration parameters to be set.
+     * @throws ConfigException when component is in illegal state or configuration
+     *                         validation fails, or the shards dependency is not set.
+     */
+    @Override
+    public void configure(ConfigParams config) throws ConfigException {
+        int virtualNodes = config.getAsIntegerWithDefault("options.virtual_nodes", _virtualNodes);
+        if (virtualNodes <= 0)
+            throw new ConfigException(null, "BAD_VIRTUAL_NODES", "Number of virtual nodes " + virtualNodes + " must be positive");
+
+        synchronized (_lock) {
+            String shardsLocator = config.getAsStringWithDefault("dependencies.shards", _shardsLocator);
+            if (shardsLocator == null)
+                throw new ConfigException(null, "NO_SHARDS", "Dependency shards is not set");
+
+            _dependencyResolver.configure(config);
+            _shardsLocator = shardsLocator;
+            _virtualNodes = virtualNodes;
+            rebuildRing();
+        }
+    }
+
+    /**
+     * Sets references to dependent components.
+     *
+     * @param references references to locate the component dependencies.
+     * @throws ReferenceException when the shards dependency is not configured
+     *                            or a shard cannot be named by its locator.
+     */
+    @Override
+    public void setReferences(IReferences references) throws ReferenceException {
+        // Shards are named by their locators to keep their positions on the ring
+        Map<Object, String> names = new IdentityHashMap<>();
+        for (Object locator : references.getAllLocators()) {
+            Object component = references.getOneOptional(locator);
+            if (component != null)
+                names.putIfAbsent(component, locator.toString());
+        }
+
+        synchronized (_lock) {
+            if (_shardsLocator == null)
+                throw new ReferenceException(null, "shards");
+
+            _dependencyResolver.setReferences(references);
+
+            Map<String, ICache> shards = new LinkedHashMap<>();
+            for (Object cache : _dependencyResolver.getOptional("shards")) {
+                if (!(cache instanceof ICache) || cache == this)
+                    continue;
+
+                String name = names.get(cache);
+                if (name == null)
+                    throw new ReferenceException(null, _shardsLocator);
+                shards.put(name, (ICache) cache);
+            }
+
+            _shards.clear();
+            _shards.putAll(shards);
+            rebuildRing();
+        }
+    }
+
+    /**
+     * Adds a shard or replaces a shard with the same name.
+     *
+     * @param name  a unique shard name that defines its positions on the hash ring.
+     * @param cache a cache used as the shard.
+     */
+    public void addShard(String name, ICache cache) {
+        if (name == null)
+            throw new NullPointerException("Name cannot be null");
+        if (cache == null)
+            throw new NullPointerException("Cache cannot be null");
+
+        synchronized (_lock) {
+            _shards.put(name, cache);
+            rebuildRing();
+        }
+    }
+
+    /**
+     * Removes a shard. Its keys are moved to the remaining shards.
+     *
+     * @param name a unique shard name.
+     */
+    public void removeShard(String name) {
+        synchronized (_lock) {
+            if (_shards.remove(name) != null)
+                rebuildRing();
+        }
+    }
+
+    /**
+     * Gets the number of shards.
+     *
+     * @return the number of shards.
+     */
+    public int getShardCount() {
+        synchronized (_lock) {
+            return _shards.size();
+        }
+    }
+
+    /**
+     * Places virtual nodes of all shards on the hash ring.
+     * It shall be called under the cache synchronization.
+     */
+    private void rebuildRing() {
+        int count = _shards.size() * _virtualNodes;
+        long[] positions = new long[count];
+        ICache[] nodes = new ICache[count];
+
+        // Sort virtual nodes by their positions
+        int index = 0;
+        long[][] ring = new long[count][];
+        List<ICache> shards = new ArrayList<>(_shards.values());
+        int shardIndex = 0;
+        for (String name : _shards.keySet()) {
+            for (int node = 0; node < _virtualNodes; node++)
+                ring[index++] = new long[]{hash(name + "#" + node), shardIndex};
+            shardIndex++;
+        }
+        Arrays.sort(ring, (a, b) -> Long.compare(a[0], b[0]));
+
+        for (index = 0; index < count; index++) {
+            positions[index] = ring[index][0];
+            nodes[index] = shards.get((int) ring[index][1]);
+        }
+
+        _ring = new Ring(positions, nodes);
+    }
+
+    /**
+     * Calculates a 64-bit hash with good distribution of similar strings.
+     */
+    private static long hash(String value) {
+        // FNV-1a over UTF-8 bytes
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+
+        // Final avalanche mixing
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * Gets the shard that holds a key.
+     *
+     * @param key a unique value key.
+     * @return the shard or null if there are no shards.
+     */
+    public ICache getShard(String key) {
+        if (key == null)
+            throw new NullPointerException("Key cannot be null");
+
+        Ring ring = _ring;
+        if (ring.nodes.length == 0)
+            return null;
+
+        int index = Arrays.binarySearch(ring.positions, hash(key));
+        if (index < 0)
+            index = -index - 1;
+        return ring.nodes[index < ring.nodes.length ? index : 0];
+    }
+
+    /**
+     * Splits keys into groups held by the same shards.
+     */
+    private Map<ICache, List<String>> groupKeys(Collection<String> keys) {
+        Map<ICache, List<String>> groups = new IdentityHashMap<>();
+        for (String key : keys) {
+            ICache shard = getShard(key);
+            if (shard != null)
+                groups.computeIfAbsent(shard, k -> new ArrayList<>()).add(key);
+        }
+        return groups;
+    }
+
+    /**
+     * Retrieves cached value from the cache using its key. If value is missing in
+     * the cache or expired it returns null.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     * @return a cached value or null if value wasn't found or timeout expired.
+     */
+    @Override
+    public Object retrieve(String correlationId, String key) {
+        ICache shard = getShard(key);
+        return shard != null ? shard.retrieve(correlationId, key) : null;
+    }
+
+    /**
+     * Retrieves multiple cached values from the cache using their keys.
+     * Keys are retrieved with one call per shard.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param keys          unique value keys.
+     * @return a map with found values. Missing and expired keys are not included.
+     */
+    @Override
+    public Map<String, Object> retrieveMany(String correlationId, Collection<String> keys) {
+        Map<String, Object> result = new HashMap<>();
+        for (Map.Entry<ICache, List<String>> group : groupKeys(keys).entrySet())
+            result.putAll(group.getKey().retrieveMany(correlationId, group.getValue()));
+        return result;
+    }
+
+    /**
+     * Stores value in the cache with expiration time.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     * @param value         a value to store.
+     * @param timeout       expiration timeout in milliseconds.
+     * @return a cached value stored in the cache.
+     */
+    @Override
+    public Object store(String correlationId, String key, Object value, long timeout) {
+        ICache shard = getShard(key);
+        return shard != null ? shard.store(correlationId, key, value, timeout) : value;
+    }
+
+    /**
+     * Stores multiple values in the cache with the same expiration time.
+     * Values are stored with one call per shard.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param values        a map of unique value keys and values to store.
+     * @param timeout       expiration timeout in milliseconds.
+     */
+    @Override
+    public void storeMany(String correlationId, Map<String, Object> values, long timeout) {
+        for (Map.Entry<ICache, List<String>> group : groupKeys(values.keySet()).entrySet()) {
+            Map<String, Object> shardValues = new HashMap<>();
+            for (String key : group.getValue())
+                shardValues.put(key, values.get(key));
+            group.getKey().storeMany(correlationId, shardValues, timeout);
+        }
+    }
+
+    /**
+     * Retrieves cached value from the shard or loads it when the value is missing or expired.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     * @param loader        a loader to compute the missing value.
+     * @param timeout       expiration timeout in milliseconds for the loaded value.
+     * @return a cached or loaded value or null if the loader returned null.
+     * @throws InterruptedException when the calling thread was interrupted while waiting for the value.
+     * @throws ApplicationException when the loader failed.
+     */
+    @Override
+    public Object retrieveOrLoad(String correlationId, String key, ICacheLoader loader, long timeout)
+            throws InterruptedException, ApplicationException {
+        ICache shard = getShard(key);
+        return shard != null
+                ? shard.retrieveOrLoad(correlationId, key, loader, timeout)
+                : loader.load(correlationId, key);
+    }
+
+    /**
+     * Computes a new value from the current cached value in the shard that holds the key.
+     * It is atomic when the shard supports atomic updates.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     * @param function      a function that receives the key and the current value
+     *                      (null when it is missing or expired) and returns the new value.
+     * @param timeout       expiration timeout in milliseconds for the new value.
+     * @return the new value or null if the value was removed.
+     */
+    @Override
+    public Object compute(String correlationId, String key, BiFunction<String, Object, Object> function,
+                          long timeout) {
+        ICache shard = getShard(key);
+        return shard != null
+                ? shard.compute(correlationId, key, function, timeout)
+                : function.apply(key, null);
+    }
+
+    /**
+     * Removes a value from the cache by its key.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     */
+    @Override
+    public void remove(String correlationId, String key) {
+        ICache shard = getShard(key);
+        if (shard != null)
+            shard.remove(correlationId, key);
+    }
+
+    /**
+     * Removes multiple values from the cache by their keys.
+     * Keys are removed with one call per shard.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param keys          unique value keys.
+     */
+    @Override
+    public void removeMany(String correlationId, Collection<String> keys) {
+        for (Map.Entry<ICache, List<String>> group : groupKeys(keys).entrySet())
+            group.getKey().removeMany(correlationId, group.getValue());
+    }
+}
@@ -0,0 +1,331 @@
+package org.pipservices3.components.cache;
+
+import org.pipservices3.commons.config.ConfigParams;
+import org.pipservices3.commons.config.IReconfigurable;
+import org.pipservices3.commons.errors.ConfigException;
+import org.pipservices3.commons.refer.DependencyResolver;
+import org.pipservices3.commons.refer.IReferenceable;
+import org.pipservices3.commons.refer.IReferences;
+import org.pipservices3.commons.refer.ReferenceException;
+import org.pipservices3.commons.run.IOpenable;
+import org.pipservices3.components.clock.Clock;
+import org.pipservices3.components.log.CompositeLogger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Two-level cache that combines a small on-heap cache with a large second level cache.
+ * <p>
+ * The first level (L1) is a {@link MemoryCache} that holds hot values as objects.
+ * Values evicted from L1 are encoded and demoted to the second level (L2),
+ * which is an {@link OffHeapCache} by default or any other referenced cache.
+ * When a value is found in L2 it is promoted back to L1. A value is kept only in one level at a time.
+ * <p>
+ * Values found in L1 are returned without the tier lock. Changes of L2 are serialized, and evicted values
+ * are encoded outside of the lock. Every store and removal bumps the version of its key,
+ * and demotions and promotions started before the change are dropped, so they never bring back
+ * values that were already replaced or removed.
+ * <p>
+ * Remember: This implementation is not suitable for synchronization of distributed processes.
+ * <p>
+ * ### Configuration parameters ###
+ * <ul>
+ * <li>l1:                      configuration of the first level {@link MemoryCache}
+ * <li>l2:                      configuration of the default second level {@link OffHeapCache}
+ * <li>dependencies:
+ *   <ul>
+ *   <li>l2:                    (optional) locator of a cache to be used as the second level
+ *   </ul>
+ * </ul>
+ * <p>
+ * ### References ###
+ * <ul>
+ * <li>*:cache:*:*:1.0          (optional) {@link ICache} referenced by the l2 dependency
+ * <li>*:logger:*:*:1.0         (optional) ILogger components to log values that cannot be demoted
+ * </ul>
+ * <p>
+ * ### Example ###
+ * <pre>
+ * {@code
+ * TieredCache cache = new TieredCache();
+ * cache.configure(ConfigParams.fromTuples(
+ *     "l1.options.max_size", 1000,
+ *     "l2.options.max_memory", 1024 * 1024 * 1024
+ * ));
+ *
+ * cache.open("123");
+ *
+ * cache.store("123", "key1", "ABC", 0);
+ * }
+ * </pre>
+ *
+ * @see ICache
+ * @see MemoryCache
+ * @see OffHeapCache
+ */
+public class TieredCache implements ICache, IReconfigurable, IReferenceable, IOpenable {
+    private final static int _headerSize = 8;
+    // Number of key version stripes, it shall be a power of two
+    private final static int _versionStripes = 1024;
+
+    private final MemoryCache _l1 = new MemoryCache();
+    private final OffHeapCache _defaultL2 = new OffHeapCache();
+    private volatile ICache _l2 = _defaultL2;
+    private volatile ICacheCodec _codec = new SerializableCacheCodec();
+    private final DependencyResolver _dependencyResolver = new DependencyResolver();
+    private final CompositeLogger _logger = new CompositeLogger();
+    private final Object _lock = new Object();
+    private final AtomicLongArray _versions = new AtomicLongArray(_versionStripes);
+    // Values evicted from L1 that wait to be encoded and stored into L2
+    private final Queue<Demotion> _demotions = new ConcurrentLinkedQueue<>();
+
+    private static class Demotion {
+        private final CacheEntry _entry;
+        private final long _version;
+
+        private Demotion(CacheEntry entry, long version) {
+            _entry = entry;
+            _version = version;
+        }
+    }
+
+    /**
+     * Creates instance of two-level cache component
+     */
+    public TieredCache() {
+        // Evictions happen inside L1 calls, so they are only queued there and demoted after the calls
+        _l1.setEvictionListener(entry ->
+                _demotions.add(new Demotion(entry, _versions.get(getVersionStripe(entry.getKey())))));
+    }
+
+    /**
+     * Configures component by passing configuration parameters.
+     *
+     * @param config configuration parameters to be set.
+     * @throws ConfigException when component is in illegal state or configuration
+     *                         validation fails.
+     */
+    public void configure(ConfigParams config) throws ConfigException {
+        synchronized (_lock) {
+            _l1.configure(config.getSection("l1"));
+            _defaultL2.configure(config.getSection("l2"));
+            _dependencyResolver.configure(config);
+        }
+        demoteEvicted();
+    }
+
+    /**
+     * Sets references to dependent components.
+     *
+     * @param references references to locate the component dependencies.
+     * @throws ReferenceException when no references found.
+     */
+    public void setReferences(IReferences references) throws ReferenceException {
+        synchronized (_lock) {
+            _l1.setReferences(references);
+            _logger.setReferences(references);
+            _dependencyResolver.setReferences(references);
+
+            Object l2 = _dependencyResolver.getOneOptional("l2");
+            if (l2 instanceof ICache && l2 != this)
+                _l2 = (ICache) l2;
+        }
+    }
+
+    /**
+     * Gets the codec used to convert values demoted to the second level.
+     *
+     * @return the cache codec.
+     */
+    public ICacheCodec getCodec() {
+        return _codec;
+    }
+
+    /**
+     * Sets the codec used to convert values demoted to the second level.
+     *
+     * @param codec the cache codec.
+     */
+    public void setCodec(ICacheCodec codec) {
+        if (codec == null)
+            throw new NullPointerException("Codec cannot be null");
+        _codec = codec;
+    }
+
+    /**
+     * Checks if the component is opened.
+     *
+     * @return true if the component has been opened and false otherwise.
+     */
+    @Override
+    public boolean isOpen() {
+        return _l1.isOpen();
+    }
+
+    /**
+     * Opens the component and the first level cache.
+     *
+     * @param correlationId (optional) transaction id to trace execution through call chain.
+     */
+    @Override
+    public void open(String correlationId) {
+        _l1.open(correlationId);
+    }
+
+    /**
+     * Closes the component and the first level cache.
+     *
+     * @param correlationId (optional) transaction id to trace execution through call chain.
+     */
+    @Override
+    public void close(String correlationId) {
+        _l1.close(correlationId);
+        demoteEvicted();
+    }
+
+    private int getVersionStripe(String key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (_versionStripes - 1);
+    }
+
+    /**
+     * Bumps the version of a key, so demotions and promotions of its older values are dropped.
+     * It shall be called under the cache lock.
+     *
+     * @param key a unique value key.
+     */
+    private void changeVersion(String key) {
+        _versions.incrementAndGet(getVersionStripe(key));
+    }
+
+    /**
+     * Moves values evicted from the first level into the second level.
+     * The expiration time is written in front of the encoded value.
+     * Values are encoded outside of the cache lock and dropped when their keys were changed after eviction.
+     */
+    private void demoteEvicted() {
+        Demotion demotion;
+        while ((demotion = _demotions.poll()) != null) {
+            CacheEntry entry = demotion._entry;
+            if (entry.getExpiration() <= Clock.currentTimeMillis())
+                continue;
+
+            byte[] data;
+            try {
+                byte[] value = _codec.encode(entry.getValue());
+                ByteBuffer buffer = ByteBuffer.allocate(_headerSize + value.length);
+                buffer.putLong(entry.getExpiration());
+                buffer.put(value);
+                data = buffer.array();
+            } catch (IOException ex) {
+                // Values that cannot be encoded are dropped
+                _logger.error(null, ex, "Failed to demote cache value %s", entry.getKey());
+                continue;
+            }
+
+            synchronized (_lock) {
+                long timeout = entry.getExpiration() - Clock.currentTimeMillis();
+                if (timeout > 0 && _versions.get(getVersionStripe(entry.getKey())) == demotion._version)
+                    _l2.store(null, entry.getKey(), data, timeout);
+            }
+        }
+    }
+
+    /**
+     * Retrieves cached value from the cache using its key. If value is missing in
+     * the cache or expired it returns null.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     * @return a cached value or null if value wasn't found or timeout expired.
+     */
+    public Object retrieve(String correlationId, String key) {
+        Object value = _l1.retrieve(correlationId, key);
+        if (value != null)
+            return value;
+
+        Object data;
+        long version;
+        synchronized (_lock) {
+            // The value could be promoted by another thread
+            value = _l1.retrieve(correlationId, key);
+            if (value != null)
+                return value;
+
+            data = _l2.retrieve(correlationId, key);
+            if (!(data instanceof byte[]))
+                return null;
+            _l2.remove(correlationId, key);
+            version = _versions.get(getVersionStripe(key));
+        }
+
+        // Decode the value outside of the lock
+        ByteBuffer buffer = ByteBuffer.wrap((byte[]) data);
+        long expiration = buffer.getLong();
+        if (expiration <= Clock.currentTimeMillis())
+            return null;
+
+        try {
+            byte[] encoded = new byte[buffer.remaining()];
+            buffer.get(encoded);
+            value = _codec.decode(encoded);
+        } catch (IOException ex) {
+            return null;
+        }
+
+        // Promote the value into the first level, unless the key was changed meanwhile
+        synchronized (_lock) {
+            long timeout = expiration - Clock.currentTimeMillis();
+            if (timeout > 0 && _versions.get(getVersionStripe(key)) == version)
+                _l1.store(correlationId, key, value, timeout);
+        }
+        demoteEvicted();
+        return value;
+    }
+
+    /**
+     * Stores value in the cache with expiration time.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     * @param value         a value to store.
+     * @param timeout       expiration timeout in milliseconds.
+     * @return a cached value stored in the cache.
+     */
+    public Object store(String correlationId, String key, Object value, long timeout) {
+        if (key == null)
+            throw new NullPointerException("Key cannot be null");
+
+        synchronized (_lock) {
+            changeVersion(key);
+            _l2.remove(correlationId, key);
+            value = _l1.store(correlationId, key, value, timeout);
+        }
+        demoteEvicted();
+        return value;
+    }
+
+    /**
+     * Removes a value from the cache by its key.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     */
+    public void remove(String correlationId, String key) {
+        if (key == null)
+            throw new NullPointerException("Key cannot be null");
+
+        synchronized (_lock) {
+            changeVersion(key);
+            _l1.remove(correlationId, key);
+            _l2.remove(correlationId, key);
+        }
+    }
+}
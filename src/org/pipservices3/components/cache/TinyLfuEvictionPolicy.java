@@ -0,0 +1,157 @@
+package org.pipservices3.components.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+
+/**
+ * Eviction policy that implements Window TinyLFU algorithm.
+ * <p>
+ * New entries are placed into a small LRU window (1% of capacity). The main space is split
+ * into probation and protected LRU segments. When the cache overflows, the oldest window entry
+ * competes with the oldest probation entry: it is admitted into the main space only if a frequency
+ * sketch estimates it is used more often than the entry it would replace, otherwise it is evicted. This keeps popular entries in the cache
+ * even under scans of one-time keys.
+ *
+ * @see IEvictionPolicy
+ */
+public class TinyLfuEvictionPolicy implements IEvictionPolicy {
+    private final FrequencySketch _sketch;
+    private final LinkedHashSet<String> _window = new LinkedHashSet<>();
+    private final LinkedHashSet<String> _probation = new LinkedHashSet<>();
+    private final LinkedHashSet<String> _protected = new LinkedHashSet<>();
+    private final long _maxWindow;
+    private final long _maxProtected;
+
+    /**
+     * Creates a new instance of the policy.
+     *
+     * @param capacity the maximum number of entries in the cache.
+     */
+    public TinyLfuEvictionPolicy(long capacity) {
+        _maxWindow = Math.max(1, capacity / 100);
+        _maxProtected = Math.max(0, capacity - _maxWindow) * 80 / 100;
+        _sketch = new FrequencySketch(capacity);
+    }
+
+    private static String pollFirst(LinkedHashSet<String> keys) {
+        Iterator<String> iterator = keys.iterator();
+        if (!iterator.hasNext())
+            return null;
+
+        String key = iterator.next();
+        iterator.remove();
+        return key;
+    }
+
+    private static String peekFirst(LinkedHashSet<String> keys) {
+        Iterator<String> iterator = keys.iterator();
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+
+    /**
+     * Records that a new entry was added to the cache.
+     *
+     * @param key a key of the added entry.
+     */
+    @Override
+    public void onInsert(String key) {
+        _sketch.increment(key);
+        _window.add(key);
+
+        // While the cache has free space the oldest window entry moves to the main space without competition
+        if (_window.size() > _maxWindow)
+            _probation.add(pollFirst(_window));
+    }
+
+    /**
+     * Records that an existing entry was overwritten with a new value.
+     *
+     * @param key a key of the updated entry.
+     */
+    @Override
+    public void onUpdate(String key) {
+        onAccess(key);
+    }
+
+    /**
+     * Records that an existing entry was read from the cache.
+     *
+     * @param key a key of the accessed entry.
+     */
+    @Override
+    public void onAccess(String key) {
+        _sketch.increment(key);
+
+        if (_window.remove(key)) {
+            _window.add(key);
+        } else if (_probation.remove(key)) {
+            // Promote the entry into the protected segment
+            _protected.add(key);
+            if (_protected.size() > _maxProtected)
+                _probation.add(pollFirst(_protected));
+        } else if (_protected.remove(key)) {
+            _protected.add(key);
+        }
+    }
+
+    /**
+     * Records that a requested key was not found in the cache.
+     *
+     * @param key a key that was missing.
+     */
+    @Override
+    public void onMiss(String key) {
+        _sketch.increment(key);
+    }
+
+    /**
+     * Records that an entry was removed from the cache by other reason than eviction.
+     *
+     * @param key a key of the removed entry.
+     */
+    @Override
+    public void onRemove(String key) {
+        if (!_window.remove(key) && !_probation.remove(key))
+            _protected.remove(key);
+    }
+
+    /**
+     * Selects an entry to evict and stops tracking it.
+     *
+     * @return a key of the entry that shall be removed from the cache or null if the policy is empty.
+     */
+    @Override
+    public String evict() {
+        String victim = peekFirst(_probation);
+        if (victim == null)
+            victim = peekFirst(_protected);
+        if (victim == null)
+            return pollFirst(_window);
+
+        // The entry leaving the full window competes with the main space victim
+        String candidate = _window.size() >= _maxWindow ? peekFirst(_window) : null;
+        if (candidate == null) {
+            onRemove(victim);
+            return victim;
+        }
+
+        _window.remove(candidate);
+        if (_sketch.frequency(candidate) <= _sketch.frequency(victim))
+            return candidate;
+
+        // The candidate is more popular, so it is admitted and the victim is evicted
+        onRemove(victim);
+        _probation.add(candidate);
+        return victim;
+    }
+
+    /**
+     * Removes all tracked keys.
+     */
+    @Override
+    public void clear() {
+        _window.clear();
+        _probation.clear();
+        _protected.clear();
+    }
+}
@@ -0,0 +1,383 @@
+package org.pipservices3.components.cache;
+
+import org.pipservices3.commons.config.ConfigParams;
+import org.pipservices3.commons.config.IReconfigurable;
+import org.pipservices3.commons.errors.ApplicationException;
+import org.pipservices3.commons.errors.ConfigException;
+import org.pipservices3.commons.errors.FileException;
+import org.pipservices3.commons.refer.DependencyResolver;
+import org.pipservices3.commons.refer.IReferenceable;
+import org.pipservices3.commons.refer.IReferences;
+import org.pipservices3.commons.refer.ReferenceException;
+import org.pipservices3.commons.run.IOpenable;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Cache that records the stream of accessed keys into a trace file
+ * and passes all calls to another cache.
+ * <p>
+ * Recorded traces are replayed by {@link CacheSimulator} to choose cache size
+ * and eviction policy for real workloads. Keys are recorded as 64-bit hashes,
+ * so traces are compact and don't disclose the key values.
+ * <p>
+ * The values are kept in a {@link MemoryCache} by default or in any other referenced cache.
+ * Calls are recorded only while the component is opened.
+ * <p>
+ * Records are put into a shared ring in the order of their sequence numbers without locking,
+ * and are written into the file in that order in batches. So the trace keeps the real
+ * interleaving of calls made by different threads, which recency-based policies depend on.
+ * <p>
+ * ### Configuration parameters ###
+ * <ul>
+ * <li>options:
+ *   <ul>
+ *   <li>path:                  path to the trace file. Existing file is overwritten
+ *   <li>...                    other options of the default {@link MemoryCache}
+ *   </ul>
+ * <li>dependencies:
+ *   <ul>
+ *   <li>cache:                 (optional) locator of a cache to pass the calls to
+ *   </ul>
+ * </ul>
+ * <p>
+ * ### References ###
+ * <ul>
+ * <li>*:cache:*:*:1.0          (optional) {@link ICache} referenced by the cache dependency
+ * </ul>
+ * <p>
+ * ### Example ###
+ * <pre>
+ * {@code
+ * TraceRecordingCache cache = new TraceRecordingCache();
+ * cache.configure(ConfigParams.fromTuples(
+ *     "options.path", "./data/cache.trace"
+ * ));
+ * cache.open("123");
+ *
+ * cache.store("123", "key1", "ABC", 0);
+ * cache.retrieve("123", "key1");
+ *
+ * cache.close("123");
+ * }
+ * </pre>
+ *
+ * @see ICache
+ * @see CacheSimulator
+ */
+public class TraceRecordingCache implements ICache, IReconfigurable, IReferenceable, IOpenable {
+    /**
+     * Trace operation code for reads.
+     */
+    public final static byte Retrieve = 'R';
+    /**
+     * Trace operation code for writes.
+     */
+    public final static byte Store = 'W';
+    /**
+     * Trace operation code for removals.
+     */
+    public final static byte Remove = 'D';
+
+    // Size of the record ring, it shall be a power of two
+    private final static int _capacity = 8192;
+    private final static int _batchSize = _capacity / 2;
+
+    private final Object _lock = new Object();
+    private final MemoryCache _defaultCache = new MemoryCache();
+    private ICache _cache = _defaultCache;
+    private final DependencyResolver _dependencyResolver = new DependencyResolver();
+    // Ring slots hold records until they are written. A slot is ready when it is published with its sequence
+    private final AtomicLong _sequence = new AtomicLong();
+    private final AtomicLongArray _published = new AtomicLongArray(_capacity);
+    private final byte[] _operations = new byte[_capacity];
+    private final long[] _hashes = new long[_capacity];
+    private volatile long _readSequence = 0;
+    private volatile boolean _recording = false;
+    private String _path;
+    private DataOutputStream _output;
+
+    /**
+     * Creates instance of trace recording cache component
+     */
+    public TraceRecordingCache() {
+        for (int slot = 0; slot < _capacity; slot++)
+            _published.set(slot, -1);
+    }
+
+    /**
+     * Configures component by passing configuration parameters.
+     *
+     * @param config configuration parameters to be set.
+     * @throws ConfigException when component is in illegal state or configuration
+     *                         validation fails.
+     */
+    @Override
+    public void configure(ConfigParams config) throws ConfigException {
+        _path = config.getAsStringWithDefault("options.path", _path);
+        _defaultCache.configure(config);
+        _dependencyResolver.configure(config);
+    }
+
+    /**
+     * Sets references to dependent components.
+     *
+     * @param references references to locate the component dependencies.
+     * @throws ReferenceException when no references found.
+     */
+    @Override
+    public void setReferences(IReferences references) throws ReferenceException {
+        _dependencyResolver.setReferences(references);
+
+        Object cache = _dependencyResolver.getOneOptional("cache");
+        if (cache instanceof ICache && cache != this)
+            _cache = (ICache) cache;
+    }
+
+    /**
+     * Checks if the component is opened.
+     *
+     * @return true if the component has been opened and false otherwise.
+     */
+    @Override
+    public boolean isOpen() {
+        synchronized (_lock) {
+            return _output != null;
+        }
+    }
+
+    /**
+     * Opens the component and creates the trace file.
+     *
+     * @param correlationId (optional) transaction id to trace execution through call chain.
+     * @throws ApplicationException when the file cannot be created.
+     */
+    @Override
+    public void open(String correlationId) throws ApplicationException {
+        synchronized (_lock) {
+            if (_output != null)
+                return;
+
+            if (_path == null)
+                throw new ConfigException(correlationId, "NO_PATH", "Trace file path is not set");
+
+            // Drop records left from the previous recording
+            drain();
+
+            try {
+                Path path = Paths.get(_path);
+                if (path.toAbsolutePath().getParent() != null)
+                    Files.createDirectories(path.toAbsolutePath().getParent());
+                _output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)));
+                _recording = true;
+            } catch (IOException ex) {
+                throw new FileException(correlationId, "OPEN_FAILED", "Failed to open trace file " + _path + ": " + ex)
+                        .withDetails("path", _path).withCause(ex);
+            }
+        }
+    }
+
+    /**
+     * Closes the component and flushes the trace file to disk.
+     *
+     * @param correlationId (optional) transaction id to trace execution through call chain.
+     * @throws ApplicationException when the file cannot be written.
+     */
+    @Override
+    public void close(String correlationId) throws ApplicationException {
+        // Stop recording and write records taken by all threads
+        _recording = false;
+        long sequence = _sequence.get();
+        while (_readSequence < sequence) {
+            drain();
+            if (_readSequence < sequence)
+                Thread.yield();
+        }
+
+        synchronized (_lock) {
+            if (_output == null)
+                return;
+
+            try {
+                _output.close();
+            } catch (IOException ex) {
+                throw new FileException(correlationId, "WRITE_FAILED", "Failed to write trace file " + _path + ": " + ex)
+                        .withDetails("path", _path).withCause(ex);
+            } finally {
+                _output = null;
+            }
+        }
+    }
+
+    /**
+     * Calculates a 64-bit FNV-1a hash of a key. It is used to identify keys in traces.
+     *
+     * @param key a unique value key.
+     * @return the key hash.
+     */
+    public static long hashKey(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int index = 0; index < key.length(); index++) {
+            hash ^= key.charAt(index);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private void record(byte operation, String key) {
+        if (key == null)
+            throw new NullPointerException("Key cannot be null");
+        if (!_recording)
+            return;
+
+        long hash = hashKey(key);
+        long sequence = _sequence.getAndIncrement();
+
+        // Wait until the ring has room for the record
+        while (sequence - _readSequence >= _capacity) {
+            drain();
+            Thread.yield();
+        }
+
+        int slot = (int) (sequence & (_capacity - 1));
+        _operations[slot] = operation;
+        _hashes[slot] = hash;
+        _published.set(slot, sequence);
+
+        // The thread that fills a batch writes the ready records
+        if ((sequence & (_batchSize - 1)) == _batchSize - 1)
+            drain();
+    }
+
+    /**
+     * Writes published records into the trace file in the order of their sequence numbers.
+     * It stops at the first record that is not published yet.
+     * When the file is closed, the records are dropped.
+     */
+    private void drain() {
+        synchronized (_lock) {
+            long sequence = _readSequence;
+            try {
+                while (true) {
+                    int slot = (int) (sequence & (_capacity - 1));
+                    if (_published.get(slot) != sequence)
+                        break;
+
+                    if (_output != null) {
+                        _output.writeByte(_operations[slot]);
+                        _output.writeLong(_hashes[slot]);
+                    }
+                    sequence++;
+                }
+            } catch (IOException ex) {
+                // Recording stops, but the cache keeps working
+                _recording = false;
+                try {
+                    _output.close();
+                } catch (IOException ex2) {
+                    // Ignore the error
+                }
+                _output = null;
+            } finally {
+                _readSequence = sequence;
+            }
+        }
+    }
+
+    /**
+     * Retrieves cached value from the cache using its key. If value is missing in
+     * the cache or expired it returns null.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     * @return a cached value or null if value wasn't found or timeout expired.
+     */
+    @Override
+    public Object retrieve(String correlationId, String key) {
+        record(Retrieve, key);
+        return _cache.retrieve(correlationId, key);
+    }
+
+    /**
+     * Retrieves multiple cached values from the cache using their keys.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param keys          unique value keys.
+     * @return a map with found values. Missing and expired keys are not included.
+     */
+    @Override
+    public Map<String, Object> retrieveMany(String correlationId, Collection<String> keys) {
+        for (String key : keys)
+            record(Retrieve, key);
+        return _cache.retrieveMany(correlationId, keys);
+    }
+
+    /**
+     * Stores value in the cache with expiration time.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     * @param value         a value to store.
+     * @param timeout       expiration timeout in milliseconds.
+     * @return a cached value stored in the cache.
+     */
+    @Override
+    public Object store(String correlationId, String key, Object value, long timeout) {
+        record(value != null ? Store : Remove, key);
+        return _cache.store(correlationId, key, value, timeout);
+    }
+
+    /**
+     * Stores multiple values in the cache with the same expiration time.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param values        a map of unique value keys and values to store.
+     * @param timeout       expiration timeout in milliseconds.
+     */
+    @Override
+    public void storeMany(String correlationId, Map<String, Object> values, long timeout) {
+        for (Map.Entry<String, Object> value : values.entrySet())
+            record(value.getValue() != null ? Store : Remove, value.getKey());
+        _cache.storeMany(correlationId, values, timeout);
+    }
+
+    /**
+     * Removes a value from the cache by its key.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param key           a unique value key.
+     */
+    @Override
+    public void remove(String correlationId, String key) {
+        record(Remove, key);
+        _cache.remove(correlationId, key);
+    }
+
+    /**
+     * Removes multiple values from the cache by their keys.
+     *
+     * @param correlationId (optional) transaction id to trace execution through
+     *                      call chain.
+     * @param keys          unique value keys.
+     */
+    @Override
+    public void removeMany(String correlationId, Collection<String> keys) {
+        for (String key : keys)
+            record(Remove, key);
+        _cache.removeMany(correlationId, keys);
+    }
+}
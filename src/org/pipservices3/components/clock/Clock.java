@@ -0,0 +1,66 @@
+package org.pipservices3.components.clock;
+
+/**
+ * Holder of the clock shared by components that read the current time on hot paths.
+ * <p>
+ * By default it uses {@link SystemClock}. Applications can replace it with
+ * a {@link CoarseClock} to make time reads cheaper, and tests with
+ * a {@link ManualClock} to control time. Clock components created through references
+ * install themselves when they are opened and restore the system clock when they are closed.
+ * <p>
+ * ### Example ###
+ * <pre>
+ * {@code
+ * if (Clock.currentTimeMillis() > expiration) {
+ *     ...
+ * }
+ * }
+ * </pre>
+ *
+ * @see IClock
+ */
+public class Clock {
+    private final static IClock _systemClock = new SystemClock();
+    private static volatile IClock _default = _systemClock;
+
+    private Clock() {
+    }
+
+    /**
+     * Gets the shared clock.
+     *
+     * @return the shared clock.
+     */
+    public static IClock getDefault() {
+        return _default;
+    }
+
+    /**
+     * Sets the shared clock.
+     *
+     * @param clock a clock to be shared or null to restore the system clock.
+     */
+    public static synchronized void setDefault(IClock clock) {
+        _default = clock != null ? clock : _systemClock;
+    }
+
+    /**
+     * Restores the system clock if the given clock is currently shared.
+     * Other shared clocks are kept.
+     *
+     * @param clock a clock to be removed.
+     */
+    public static synchronized void removeDefault(IClock clock) {
+        if (_default == clock)
+            _default = _systemClock;
+    }
+
+    /**
+     * Gets the current time from the shared clock.
+     *
+     * @return the current time in milliseconds since the Unix epoch.
+     */
+    public static long currentTimeMillis() {
+        return _default.currentTimeMillis();
+    }
+}
@@ -0,0 +1,148 @@
+package org.pipservices3.components.clock;
+
+import org.pipservices3.commons.config.ConfigParams;
+import org.pipservices3.commons.config.IReconfigurable;
+import org.pipservices3.commons.run.IOpenable;
+
+import java.util.Timer;
+import java.util.TimerTask;
+
+/**
+ * Clock that caches the system time and updates it by a background thread.
+ * <p>
+ * Reading the time takes only a read of a volatile field, so it is cheaper than
+ * {@link System#currentTimeMillis()} on hot paths that check expiration on every call.
+ * The returned time lags the system time up to the configured resolution.
+ * Until the clock is opened it returns the system time.
+ * When opened it becomes the shared {@link Clock} and it is removed from there on close.
+ * <p>
+ * ### Configuration parameters ###
+ * <ul>
+ * <li>options:
+ *   <ul>
+ *   <li>resolution:            interval in milliseconds to update the time (default: 10)
+ *   </ul>
+ * </ul>
+ * <p>
+ * ### Example ###
+ * <pre>
+ * {@code
+ * CoarseClock clock = new CoarseClock();
+ * clock.open("123");
+ * long now = Clock.currentTimeMillis();
+ * }
+ * </pre>
+ *
+ * @see IClock
+ * @see Clock
+ */
+public class CoarseClock implements IClock, IReconfigurable, IOpenable {
+    private final static long _defaultResolution = 10;
+    private static Timer _timer;
+
+    private final Object _lock = new Object();
+    private volatile long _time;
+    private volatile boolean _opened = false;
+    private long _resolution = _defaultResolution;
+    private TimerTask _task;
+
+    /**
+     * Creates a new instance of the clock.
+     */
+    public CoarseClock() {
+    }
+
+    /**
+     * Configures component by passing configuration parameters.
+     *
+     * @param config configuration parameters to be set.
+     */
+    @Override
+    public void configure(ConfigParams config) {
+        synchronized (_lock) {
+            long resolution = Math.max(1, config.getAsLongWithDefault("options.resolution", _resolution));
+            if (resolution != _resolution) {
+                _resolution = resolution;
+                if (_opened) {
+                    stopTicking();
+                    startTicking();
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the current time.
+     *
+     * @return the current time in milliseconds since the Unix epoch.
+     */
+    @Override
+    public long currentTimeMillis() {
+        return _opened ? _time : System.currentTimeMillis();
+    }
+
+    /**
+     * Checks if the component is opened.
+     *
+     * @return true if the component has been opened and false otherwise.
+     */
+    @Override
+    public boolean isOpen() {
+        return _opened;
+    }
+
+    /**
+     * Opens the component and starts updating the time.
+     *
+     * @param correlationId (optional) transaction id to trace execution through call chain.
+     */
+    @Override
+    public void open(String correlationId) {
+        synchronized (_lock) {
+            if (_opened)
+                return;
+
+            _time = System.currentTimeMillis();
+            startTicking();
+            _opened = true;
+        }
+        Clock.setDefault(this);
+    }
+
+    /**
+     * Closes the component and stops updating the time.
+     *
+     * @param correlationId (optional) transaction id to trace execution through call chain.
+     */
+    @Override
+    public void close(String correlationId) {
+        synchronized (_lock) {
+            stopTicking();
+            _opened = false;
+        }
+        Clock.removeDefault(this);
+    }
+
+    private static synchronized Timer getTimer() {
+        if (_timer == null)
+            _timer = new Timer("coarse-clock", true);
+        return _timer;
+    }
+
+    private void startTicking() {
+        _task = new TimerTask() {
+            @Override
+            public void run() {
+                _time = System.currentTimeMillis();
+            }
+        };
+        getTimer().scheduleAtFixedRate(_task, _resolution, _resolution);
+    }
+
+    private void stopTicking() {
+        if (_task != null) {
+            _task.cancel();
+            _task = null;
+        }
+    }
+}
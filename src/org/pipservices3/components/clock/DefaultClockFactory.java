@@ -0,0 +1,31 @@
+package org.pipservices3.components.clock;
+
+import org.pipservices3.commons.refer.Descriptor;
+import org.pipservices3.components.build.Factory;
+
+/**
+ * Creates {@link IClock} components by their descriptors.
+ *
+ * @see Factory
+ * @see SystemClock
+ * @see CoarseClock
+ * @see ManualClock
+ */
+public class DefaultClockFactory extends Factory {
+    public final static Descriptor Descriptor = new Descriptor("pip-services", "factory", "clock", "*", "1.0");
+    public final static Descriptor SystemClockDescriptor = new Descriptor("pip-services", "clock", "system", "*",
+            "1.0");
+    public final static Descriptor CoarseClockDescriptor = new Descriptor("pip-services", "clock", "coarse", "*",
+            "1.0");
+    public final static Descriptor ManualClockDescriptor = new Descriptor("pip-services", "clock", "manual", "*",
+            "1.0");
+
+    /**
+     * Create a new instance of the factory.
+     */
+    public DefaultClockFactory() {
+        registerAsType(SystemClockDescriptor, SystemClock.class);
+        registerAsType(CoarseClockDescriptor, CoarseClock.class);
+        registerAsType(ManualClockDescriptor, ManualClock.class);
+    }
+}
@@ -0,0 +1,22 @@
+package org.pipservices3.components.clock;
+
+/**
+ * Interface for clocks that provide the current time to components.
+ * <p>
+ * Components read time through a clock instead of calling {@link System#currentTimeMillis()}
+ * directly, so the time source can be replaced with a cheaper coarse clock in production
+ * or with a manually controlled clock in tests.
+ *
+ * @see Clock
+ * @see SystemClock
+ * @see CoarseClock
+ * @see ManualClock
+ */
+public interface IClock {
+    /**
+     * Gets the current time.
+     *
+     * @return the current time in milliseconds since the Unix epoch.
+     */
+    long currentTimeMillis();
+}
@@ -0,0 +1,108 @@
+package org.pipservices3.components.clock;
+
+import org.pipservices3.commons.run.IOpenable;
+
+/**
+ * Clock which time is set and advanced manually.
+ * <p>
+ * It is used in tests to control expiration and timeouts deterministically.
+ * When opened it becomes the shared {@link Clock} and it is removed from there on close.
+ * <p>
+ * ### Example ###
+ * <pre>
+ * {@code
+ * ManualClock clock = new ManualClock();
+ * Clock.setDefault(clock);
+ * try {
+ *     cache.store("123", "key1", "ABC", 1000);
+ *     clock.advance(2000);
+ *     cache.retrieve("123", "key1"); // Result: null
+ * } finally {
+ *     Clock.setDefault(null);
+ * }
+ * }
+ * </pre>
+ *
+ * @see IClock
+ * @see Clock
+ */
+public class ManualClock implements IClock, IOpenable {
+    private volatile long _time;
+    private volatile boolean _opened = false;
+
+    /**
+     * Creates a new instance of the clock set to the current system time.
+     */
+    public ManualClock() {
+        this(System.currentTimeMillis());
+    }
+
+    /**
+     * Creates a new instance of the clock set to the given time.
+     *
+     * @param time the initial time in milliseconds since the Unix epoch.
+     */
+    public ManualClock(long time) {
+        _time = time;
+    }
+
+    /**
+     * Gets the current time.
+     *
+     * @return the current time in milliseconds since the Unix epoch.
+     */
+    @Override
+    public long currentTimeMillis() {
+        return _time;
+    }
+
+    /**
+     * Checks if the component is opened.
+     *
+     * @return true if the component has been opened and false otherwise.
+     */
+    @Override
+    public boolean isOpen() {
+        return _opened;
+    }
+
+    /**
+     * Opens the component and makes it the shared clock.
+     *
+     * @param correlationId (optional) transaction id to trace execution through call chain.
+     */
+    @Override
+    public void open(String correlationId) {
+        _opened = true;
+        Clock.setDefault(this);
+    }
+
+    /**
+     * Closes the component and restores the system clock if this clock is shared.
+     *
+     * @param correlationId (optional) transaction id to trace execution through call chain.
+     */
+    @Override
+    public void close(String correlationId) {
+        _opened = false;
+        Clock.removeDefault(this);
+    }
+
+    /**
+     * Sets the current time.
+     *
+     * @param time the time in milliseconds since the Unix epoch.
+     */
+    public void setTime(long time) {
+        _time = time;
+    }
+
+    /**
+     * Moves the current time forward.
+     *
+     * @param interval the time interval in milliseconds.
+     */
+    public synchronized void advance(long interval) {
+        _time += interval;
+    }
+}
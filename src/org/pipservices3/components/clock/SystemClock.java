@@ -0,0 +1,24 @@
+package org.pipservices3.components.clock;
+
+/**
+ * Clock that reads the system time on every call.
+ *
+ * @see IClock
+ */
+public class SystemClock implements IClock {
+    /**
+     * Creates a new instance of the clock.
+     */
+    public SystemClock() {
+    }
+
+    /**
+     * Gets the current time.
+     *
+     * @return the current time in milliseconds since the Unix epoch.
+     */
+    @Override
+    public long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+}
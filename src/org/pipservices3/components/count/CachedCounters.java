@@ -3,6 +3,7 @@ package org.pipservices3.components.count;
 import org.pipservices3.commons.config.ConfigParams;
 import org.pipservices3.commons.config.IReconfigurable;
 import org.pipservices3.commons.errors.InvocationException;
+import org.pipservices3.components.clock.Clock;
 
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
@@ -27,8 +28,8 @@ import java.util.Map;
 public abstract class CachedCounters implements ICounters, IReconfigurable, ICounterTimingCallback {
     private final Map<String, Counter> _cache = new HashMap<>();
     private boolean _updated = false;
-    private long _lastDumpTime = System.currentTimeMillis();
-    protected long _lastResetTime = System.currentTimeMillis();
+    private long _lastDumpTime = Clock.currentTimeMillis();
+    protected long _lastResetTime = Clock.currentTimeMillis();
     private long _interval = 300000;
     private final Object _lock = new Object();
     protected long _resetTimeout = 0;
@@ -109,7 +110,7 @@ public abstract class CachedCounters implements ICounters, IReconfigurable, ICou
 
             synchronized (_lock) {
                 _updated = false;
-                _lastDumpTime = System.currentTimeMillis();
+                _lastDumpTime = Clock.currentTimeMillis();
             }
         }
     }
@@ -121,7 +122,7 @@ public abstract class CachedCounters implements ICounters, IReconfigurable, ICou
      */
     protected void update() {
         _updated = true;
-        if (System.currentTimeMillis() > _lastDumpTime + _interval) {
+        if (Clock.currentTimeMillis() > _lastDumpTime + _interval) {
             try {
                 dump();
             } catch (InvocationException ex) {
@@ -134,10 +135,10 @@ public abstract class CachedCounters implements ICounters, IReconfigurable, ICou
         if (_resetTimeout == 0)
             return;
 
-        if (System.currentTimeMillis() - _lastResetTime > _resetTimeout) {
+        if (Clock.currentTimeMillis() - _lastResetTime > _resetTimeout) {
             _cache.clear();
             _updated = false;
-            _lastResetTime = System.currentTimeMillis();
+            _lastResetTime = Clock.currentTimeMillis();
         }
     }
 
@@ -1,5 +1,7 @@
 package org.pipservices3.components.lock;
 
+import org.pipservices3.components.clock.Clock;
+
 import java.util.HashMap;
 
 /**
@@ -45,7 +47,7 @@ public class MemoryLock extends Lock {
      */
     @Override
     public boolean tryAcquireLock(String correlationId, String key, int ttl) {
-        long now = System.currentTimeMillis();
+        long now = Clock.currentTimeMillis();
 
         synchronized (_locks) {
             Long expireTime = this._locks.getOrDefault(key, null);
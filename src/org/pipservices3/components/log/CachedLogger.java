@@ -5,6 +5,7 @@ import org.pipservices3.commons.config.IReconfigurable;
 import org.pipservices3.commons.errors.ErrorDescription;
 import org.pipservices3.commons.errors.ErrorDescriptionFactory;
 import org.pipservices3.commons.errors.InvocationException;
+import org.pipservices3.components.clock.Clock;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -38,7 +39,7 @@ public abstract class CachedLogger extends Logger implements IReconfigurable {
 
     protected List<LogMessage> _cache = new ArrayList<>();
     protected boolean _updated = false;
-    protected long _lastDumpTime = System.currentTimeMillis();
+    protected long _lastDumpTime = Clock.currentTimeMillis();
     protected long _interval = 10000;
     protected int _maxCacheSize = 100;
     protected final Object _lock = new Object();
@@ -130,7 +131,7 @@ public abstract class CachedLogger extends Logger implements IReconfigurable {
                 }
 
                 _updated = false;
-                _lastDumpTime = System.currentTimeMillis();
+                _lastDumpTime = Clock.currentTimeMillis();
             }
         }
     }
@@ -142,7 +143,7 @@ public abstract class CachedLogger extends Logger implements IReconfigurable {
      */
     protected void update() {
         _updated = true;
-        if (System.currentTimeMillis() > _lastDumpTime + _interval)
+        if (Clock.currentTimeMillis() > _lastDumpTime + _interval)
             dump();
     }
 }
@@ -3,10 +3,14 @@ package org.pipservices3.components.state;
 import org.pipservices3.commons.config.ConfigParams;
 import org.pipservices3.commons.config.IReconfigurable;
 import org.pipservices3.commons.errors.ConfigException;
+import org.pipservices3.commons.run.IOpenable;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Timer;
+import java.util.TimerTask;
 
 /**
  * State store that keeps states in the process memory.
@@ -17,6 +21,8 @@ import java.util.List;
  * <ul>
  * - options:
  * <li> - timeout:               default caching timeout in milliseconds (default: disabled)
+ * <li> - sweep_interval:        interval in milliseconds to remove expired states in background
+ *                               after the store is opened. 0 disables the sweeping (default: 0)
  * </ul>
  * @see org.pipservices3.components.cache.ICache
  *
@@ -31,9 +37,17 @@ import java.util.List;
  *  }
  *
  */
-public class MemoryStateStore implements IStateStore, IReconfigurable {
-    private final HashMap<String, StateEntry> _states = new HashMap<>();
+public class MemoryStateStore implements IStateStore, IReconfigurable, IOpenable {
+    private final static int _sweepBatchSize = 1000;
+    private static Timer _sweepTimer;
+
+    private final Object _lock = new Object();
+    // States are kept in the order of their last update, so the oldest state is always the first
+    private final LinkedHashMap<String, StateEntry> _states = new LinkedHashMap<>();
     private long _timeout = 0;
+    private long _sweepInterval = 0;
+    private TimerTask _sweepTask;
+    private boolean _opened = false;
 
     /**
      * Configures component by passing configuration parameters.
@@ -43,23 +57,117 @@ public class MemoryStateStore implements IStateStore, IReconfigurable {
     @Override
     public void configure(ConfigParams configParams) throws ConfigException {
         this._timeout = configParams.getAsLongWithDefault("options.timeout", this._timeout);
+        this._sweepInterval = configParams.getAsLongWithDefault("options.sweep_interval", this._sweepInterval);
+
+        synchronized (_lock) {
+            if (_opened) {
+                stopSweeping();
+                startSweeping();
+            }
+        }
+    }
+
+    /**
+     * Checks if the component is opened.
+     *
+     * @return true if the component has been opened and false otherwise.
+     */
+    @Override
+    public boolean isOpen() {
+        return _opened;
+    }
+
+    /**
+     * Opens the component and starts background sweeping of expired states when it is configured.
+     *
+     * @param correlationId (optional) transaction id to trace execution through call chain.
+     */
+    @Override
+    public void open(String correlationId) {
+        synchronized (_lock) {
+            if (_opened)
+                return;
+
+            startSweeping();
+            _opened = true;
+        }
+    }
+
+    /**
+     * Closes the component and stops background sweeping.
+     *
+     * @param correlationId (optional) transaction id to trace execution through call chain.
+     */
+    @Override
+    public void close(String correlationId) {
+        synchronized (_lock) {
+            stopSweeping();
+            _opened = false;
+        }
+    }
+
+    private static synchronized Timer getSweepTimer() {
+        if (_sweepTimer == null)
+            _sweepTimer = new Timer("memory-state-store-sweeper", true);
+        return _sweepTimer;
+    }
+
+    private void startSweeping() {
+        if (_sweepInterval <= 0 || _timeout <= 0)
+            return;
+
+        _sweepTask = new TimerTask() {
+            @Override
+            public void run() {
+                // Remove expired states in small batches, so other threads are not blocked for long
+                boolean done = false;
+                while (!done) {
+                    synchronized (_lock) {
+                        done = cleanup(_sweepBatchSize);
+                    }
+                }
+            }
+        };
+        getSweepTimer().schedule(_sweepTask, _sweepInterval, _sweepInterval);
+    }
+
+    private void stopSweeping() {
+        if (_sweepTask != null) {
+            _sweepTask.cancel();
+            _sweepTask = null;
+        }
     }
 
     /**
      * Clears component state.
      */
     private void cleanup() {
-        if (this._timeout == 0) return;
+        cleanup(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Removes expired states starting from the oldest one.
+     *
+     * @param limit maximum number of states to remove.
+     * @return true if all expired states were removed and false otherwise.
+     */
+    private boolean cleanup(int limit) {
+        if (this._timeout == 0) return true;
         long cutOffTime = System.currentTimeMillis() - this._timeout;
 
         // Cleanup obsolete entries
-        for (var key : this._states.keySet()) {
-            StateEntry entry = this._states.get(key);
-            // Remove obsolete entry
-            if (entry.getLastUpdateTime() < cutOffTime) {
-                this._states.remove(key);
-            }
+        Iterator<StateEntry> entries = this._states.values().iterator();
+        while (entries.hasNext()) {
+            // Stop at the first entry that is still valid
+            if (entries.next().getLastUpdateTime() >= cutOffTime)
+                return true;
+
+            if (limit-- <= 0)
+                return false;
+            entries.remove();
         }
+
+        return true;
     }
 
     /**
@@ -76,19 +184,19 @@ public class MemoryStateStore implements IStateStore, IReconfigurable {
         if (key == null)
             throw new NullPointerException("Key cannot be null");
 
+        synchronized (_lock) {
+            // Cleanup the stored states
+            this.cleanup();
 
-        // Cleanup the stored states
-        this.cleanup();
-
-        // Get entry from the store
-        StateEntry entry = this._states.getOrDefault(key, null);
-
-        // Store has nothing
-        if (entry == null)
-            return null;
+            // Get entry from the store
+            StateEntry entry = this._states.getOrDefault(key, null);
 
+            // Store has nothing
+            if (entry == null)
+                return null;
 
-        return (T) entry.getValue(); // TODO: maybe need make StateEntry as generic?
+            return (T) entry.getValue(); // TODO: maybe need make StateEntry as generic?
+        }
     }
 
     /**
@@ -101,17 +209,19 @@ public class MemoryStateStore implements IStateStore, IReconfigurable {
      */
     @Override
     public <T> List<StateValue<T>> loadBulk(String correlationId, List<String> keys) {
-        // Cleanup the stored states
-        this.cleanup();
+        synchronized (_lock) {
+            // Cleanup the stored states
+            this.cleanup();
 
-        List<StateValue<T>> result = new ArrayList<>();
+            List<StateValue<T>> result = new ArrayList<>();
 
-        for (var key : keys) {
-            T value = this.load(correlationId, key);
-            result.add(new StateValue<T>(key, value));
-        }
+            for (var key : keys) {
+                T value = this.load(correlationId, key);
+                result.add(new StateValue<T>(key, value));
+            }
 
-        return result;
+            return result;
+        }
     }
 
     /**
@@ -128,30 +238,29 @@ public class MemoryStateStore implements IStateStore, IReconfigurable {
         if (key == null)
             throw new NullPointerException("Key cannot be null");
 
+        synchronized (_lock) {
+            // Cleanup the stored states
+            this.cleanup();
 
-        // Cleanup the stored states
-        this.cleanup();
-
-        // Get the entry
-        StateEntry entry = this._states.getOrDefault(key, null);
+            // Remove the entry, so the updated entry is moved to the end of the update order
+            StateEntry entry = this._states.remove(key);
 
-        // Shortcut to remove entry from the cache
-        if (value == null) {
-            this._states.remove(key);
-            return null;
-        }
+            // Shortcut to remove entry from the cache
+            if (value == null)
+                return null;
 
-        // Update the entry
-        if (entry != null) {
-            entry.setValue(value);
-        }
-        // Or create a new entry
-        else {
-            entry = new StateEntry(key, value);
+            // Update the entry
+            if (entry != null) {
+                entry.setValue(value);
+            }
+            // Or create a new entry
+            else {
+                entry = new StateEntry(key, value);
+            }
             this._states.put(key, entry);
-        }
 
-        return value;
+            return value;
+        }
     }
 
     /**
@@ -167,19 +276,17 @@ public class MemoryStateStore implements IStateStore, IReconfigurable {
         if (key == null)
             throw new NullPointerException("Key cannot be null");
 
-        // Cleanup the stored states
-        this.cleanup();
+        synchronized (_lock) {
+            // Cleanup the stored states
+            this.cleanup();
 
-        // Get the entry
-        StateEntry entry = this._states.getOrDefault(key, null);
+            // Remove entry from the cache
+            StateEntry entry = this._states.remove(key);
+            if (entry != null)
+                return (T) entry.getValue();
 
-        // Remove entry from the cache
-        if (entry != null) {
-            this._states.remove(key);
-            return (T) entry.getValue();
+            return null;
         }
-
-        return null;
     }
 
 
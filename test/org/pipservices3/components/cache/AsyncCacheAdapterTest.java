@@ -0,0 +1,89 @@
+package org.pipservices3.components.cache;
+
+import org.junit.Test;
+import org.pipservices3.commons.errors.ApplicationException;
+import org.pipservices3.commons.errors.BadRequestException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+public class AsyncCacheAdapterTest {
+    private void testOperations(IAsyncCache cache) throws Exception {
+        assertEquals("value1", cache.store(null, "key1", "value1", 0).get());
+        assertEquals("value1", cache.retrieve(null, "key1").get());
+
+        cache.storeMany(null, Map.of("key2", "value2", "key3", "value3"), 0).get();
+        Map<String, Object> values = cache.retrieveMany(null, List.of("key1", "key2", "key3")).get();
+        assertEquals(3, values.size());
+
+        cache.remove(null, "key1").get();
+        assertNull(cache.retrieve(null, "key1").get());
+
+        cache.removeMany(null, List.of("key2", "key3")).get();
+        assertTrue(cache.retrieveMany(null, List.of("key2", "key3")).get().isEmpty());
+
+        assertEquals("value4", cache.retrieveOrLoad(null, "key4", (correlationId, key) -> "value4", 0).get());
+        assertEquals("value4", cache.retrieveOrLoad(null, "key4", (correlationId, key) -> "other", 0).get());
+
+        assertEquals(1, cache.compute(null, "key5", (key, value) -> value == null ? 1 : (int) value + 1, 0).get());
+        assertEquals(2, cache.compute(null, "key5", (key, value) -> value == null ? 1 : (int) value + 1, 0).get());
+        assertNull(cache.compute(null, "key5", (key, value) -> null, 0).get());
+        assertNull(cache.retrieve(null, "key5").get());
+    }
+
+    @Test
+    public void testDirectOperations() throws Exception {
+        testOperations(new AsyncCacheAdapter(new MemoryCache()));
+    }
+
+    @Test
+    public void testExecutorOperations() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            testOperations(new AsyncCacheAdapter(new MemoryCache(), executor));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testNullCache() throws Exception {
+        IAsyncCache cache = new AsyncCacheAdapter(new NullCache());
+
+        assertEquals("value1", cache.store(null, "key1", "value1", 0).get());
+        assertNull(cache.retrieve(null, "key1").get());
+    }
+
+    @Test
+    public void testFailedOperation() throws Exception {
+        IAsyncCache cache = new AsyncCacheAdapter(new MemoryCache());
+
+        try {
+            cache.retrieve(null, null).get();
+            fail("Expected exception on null key");
+        } catch (ExecutionException ex) {
+            // Expected exception...
+            assertTrue(ex.getCause() instanceof NullPointerException);
+        }
+    }
+
+    @Test
+    public void testFailedLoad() throws Exception {
+        IAsyncCache cache = new AsyncCacheAdapter(new MemoryCache());
+
+        try {
+            cache.retrieveOrLoad(null, "key1", (correlationId, key) -> {
+                throw new BadRequestException(correlationId, "LOAD_FAILED", "Load failed");
+            }, 0).get();
+            fail("Expected exception on failed load");
+        } catch (ExecutionException ex) {
+            // Expected exception...
+            assertTrue(ex.getCause() instanceof ApplicationException);
+        }
+    }
+}
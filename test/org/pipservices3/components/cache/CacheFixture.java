@@ -1,5 +1,8 @@
 package org.pipservices3.components.cache;
 
+import java.util.List;
+import java.util.Map;
+
 import static org.junit.Assert.*;
 
 public class CacheFixture {
@@ -97,5 +100,37 @@ public class CacheFixture {
 		Object val = this._cache.retrieve(null, KEY1);
 		assertNull(val);
 	}
-    
-}
\ No newline at end of file
+
+	public void testBulkOperations() {
+		this._cache.storeMany(null, Map.of(KEY1, VALUE1, KEY2, VALUE2), 1000);
+
+		Map<String, Object> values = this._cache.retrieveMany(null, List.of(KEY1, KEY2, "key3"));
+		assertEquals(2, values.size());
+		assertEquals(VALUE1, values.get(KEY1));
+		assertEquals(VALUE2, values.get(KEY2));
+
+		this._cache.removeMany(null, List.of(KEY1, KEY2));
+
+		values = this._cache.retrieveMany(null, List.of(KEY1, KEY2));
+		assertTrue(values.isEmpty());
+	}
+
+	public void testAtomicOperations() {
+		assertNull(this._cache.putIfAbsent(null, KEY1, VALUE1, 1000));
+		assertEquals(VALUE1, this._cache.putIfAbsent(null, KEY1, VALUE2, 1000));
+		assertEquals(VALUE1, this._cache.retrieve(null, KEY1));
+
+		assertFalse(this._cache.compareAndSet(null, KEY1, VALUE2, "value3", 1000));
+		assertTrue(this._cache.compareAndSet(null, KEY1, VALUE1, "value3", 1000));
+		assertEquals("value3", this._cache.retrieve(null, KEY1));
+		assertTrue(this._cache.compareAndSet(null, KEY2, null, VALUE2, 1000));
+		assertEquals(VALUE2, this._cache.retrieve(null, KEY2));
+
+		assertEquals(1L, this._cache.compute(null, "counter", (key, value) -> value == null ? 1L : (Long) value + 1, 1000));
+		assertEquals(2L, this._cache.compute(null, "counter", (key, value) -> value == null ? 1L : (Long) value + 1, 1000));
+		assertEquals(2L, this._cache.retrieve(null, "counter"));
+
+		assertNull(this._cache.compute(null, "counter", (key, value) -> null, 1000));
+		assertNull(this._cache.retrieve(null, "counter"));
+	}
+}
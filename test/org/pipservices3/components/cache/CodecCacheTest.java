@@ -0,0 +1,121 @@
+package org.pipservices3.components.cache;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.pipservices3.commons.config.ConfigParams;
+import org.pipservices3.commons.errors.ConfigException;
+import org.pipservices3.commons.refer.Descriptor;
+import org.pipservices3.commons.refer.References;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class CodecCacheTest {
+    private CodecCache cache;
+    private CacheFixture fixture;
+
+    @Before
+    public void setUp() {
+        cache = new CodecCache();
+        fixture = new CacheFixture(cache);
+    }
+
+    @Test
+    public void testBasicOperations() {
+        fixture.testBasicOperations();
+    }
+
+    @Test
+    public void testReadAfterTimeout() {
+        fixture.testReadAfterTimeout();
+    }
+
+    @Test
+    public void testStoreAndRetrieve() throws InterruptedException {
+        fixture.testStoreAndRetrieve();
+    }
+
+    @Test
+    public void testRetrieveExpired() throws InterruptedException {
+        fixture.testRetrieveExpired();
+    }
+
+    @Test
+    public void testRemove() {
+        fixture.testRemove();
+    }
+
+    @Test
+    public void testBulkOperations() {
+        fixture.testBulkOperations();
+    }
+
+    @Test
+    public void testCompression() throws Exception {
+        MemoryCache storage = new MemoryCache();
+        cache.configure(ConfigParams.fromTuples(
+                "options.codec", "json",
+                "options.compression_threshold", 100,
+                "dependencies.cache", "pip-services:cache:memory:storage:1.0"
+        ));
+        cache.setReferences(References.fromTuples(
+                new Descriptor("pip-services", "cache", "memory", "storage", "1.0"), storage
+        ));
+
+        String text = "ABCDEFGHIJ".repeat(1000);
+        cache.store(null, "key1", Map.of("text", text, "items", List.of(1, 2, 3)), 0);
+        cache.store(null, "key2", "short", 0);
+
+        // Large values are compressed
+        byte[] data = (byte[]) storage.retrieve(null, "key1");
+        assertTrue(data.length < text.length() / 10);
+
+        Map<?, ?> value = (Map<?, ?>) cache.retrieve(null, "key1");
+        assertEquals(text, value.get("text"));
+        assertEquals(List.of(1, 2, 3), value.get("items"));
+        assertEquals("short", cache.retrieve(null, "key2"));
+    }
+
+    @Test
+    public void testCompressedCodec() throws Exception {
+        ICacheCodec codec = new CompressedCacheCodec(new SerializableCacheCodec(), 10);
+
+        String value = "ABCDEFGHIJ".repeat(100);
+        assertEquals(value, codec.decode(codec.encode(value)));
+        assertEquals(5, codec.decode(codec.encode(5)));
+    }
+
+    @Test
+    public void testUnknownCodec() {
+        try {
+            cache.configure(ConfigParams.fromTuples("options.codec", "xml"));
+            fail("Expected exception on unsupported codec");
+        } catch (ConfigException ex) {
+            // Expected exception...
+        }
+    }
+
+    @Test
+    public void testReconfigure() throws Exception {
+        cache.configure(ConfigParams.fromTuples(
+                "options.codec", "json",
+                "options.compression_threshold", 0
+        ));
+        assertTrue(cache.getCodec() instanceof JacksonCacheCodec);
+
+        // Missing parameters keep the current settings
+        cache.configure(ConfigParams.fromTuples("options.timeout", 1000));
+        assertTrue(cache.getCodec() instanceof JacksonCacheCodec);
+
+        // Codec set in code is kept when the codec settings don't change
+        ICacheCodec codec = new SmileCacheCodec();
+        cache.setCodec(codec);
+        cache.configure(ConfigParams.fromTuples("options.codec", "json"));
+        assertSame(codec, cache.getCodec());
+
+        cache.configure(ConfigParams.fromTuples("options.compression_threshold", 100));
+        assertTrue(cache.getCodec() instanceof CompressedCacheCodec);
+    }
+}
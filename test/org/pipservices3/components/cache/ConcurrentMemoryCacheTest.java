@@ -0,0 +1,147 @@
+package org.pipservices3.components.cache;
+
+import org.junit.*;
+import org.pipservices3.commons.config.ConfigParams;
+import org.pipservices3.commons.errors.ConfigException;
+import org.pipservices3.components.clock.ManualClock;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentMemoryCacheTest {
+    private ConcurrentMemoryCache cache;
+    private CacheFixture fixture;
+
+    @Before
+    public void setUp() throws Exception {
+        cache = new ConcurrentMemoryCache();
+        fixture = new CacheFixture(cache);
+    }
+
+    @Test
+    public void testBasicOperations() {
+        fixture.testBasicOperations();
+    }
+
+    @Test
+    public void testReadAfterTimeout() {
+        fixture.testReadAfterTimeout();
+    }
+
+    @Test
+    public void testStoreAndRetrieve() throws InterruptedException {
+        fixture.testStoreAndRetrieve();
+    }
+
+    @Test
+    public void testRetrieveExpired() throws InterruptedException {
+        fixture.testRetrieveExpired();
+    }
+
+    @Test
+    public void testRemove() {
+        fixture.testRemove();
+    }
+
+    @Test
+    public void testBulkOperations() {
+        fixture.testBulkOperations();
+    }
+
+    @Test
+    public void testAtomicOperations() {
+        fixture.testAtomicOperations();
+    }
+
+    @Test
+    public void testMaxSize() throws ConfigException {
+        cache.configure(ConfigParams.fromTuples("options.max_size", 2));
+
+        cache.store(null, "key1", "value1", 0);
+        cache.store(null, "key2", "value2", 0);
+        cache.store(null, "key3", "value3", 0);
+
+        // The oldest value is evicted
+        assertNull(cache.retrieve(null, "key1"));
+        assertEquals("value2", cache.retrieve(null, "key2"));
+        assertEquals("value3", cache.retrieve(null, "key3"));
+    }
+
+    @Test
+    public void testEvictExpiredFirst() throws ConfigException {
+        ManualClock clock = new ManualClock();
+        clock.open(null);
+        try {
+            cache.configure(ConfigParams.fromTuples("options.max_size", 3));
+
+            cache.store(null, "key1", "value1", 10000);
+            cache.store(null, "key2", "value2", 1000);
+            // Replaced values leave stale order records in front of live ones
+            for (int i = 0; i < 100; i++)
+                cache.store(null, "key3", "value" + i, 10000);
+
+            // An expired value is evicted before older live values
+            clock.advance(2000);
+            cache.store(null, "key4", "value4", 10000);
+            assertEquals("value1", cache.retrieve(null, "key1"));
+            assertEquals("value99", cache.retrieve(null, "key3"));
+            assertEquals("value4", cache.retrieve(null, "key4"));
+
+            // Then the oldest value is evicted
+            cache.store(null, "key5", "value5", 10000);
+            assertNull(cache.retrieve(null, "key1"));
+            assertEquals("value99", cache.retrieve(null, "key3"));
+            assertEquals("value5", cache.retrieve(null, "key5"));
+        } finally {
+            clock.close(null);
+        }
+    }
+
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        cache.configure(ConfigParams.fromTuples("options.max_size", 100));
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            final int offset = t;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    String key = "key" + ((i + offset) % 200);
+                    cache.store(null, key, i, 0);
+                    cache.retrieve(null, key);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+
+        int count = 0;
+        for (int i = 0; i < 200; i++) {
+            if (cache.retrieve(null, "key" + i) != null)
+                count++;
+        }
+        assertTrue(count <= 100);
+    }
+
+    @Test
+    public void testConcurrentCompute() throws Exception {
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 1000; i++)
+                    cache.compute(null, "counter", (key, value) -> value == null ? 1L : (Long) value + 1, 0);
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+
+        // No increments are lost
+        assertEquals(8000L, cache.retrieve(null, "counter"));
+    }
+}
@@ -0,0 +1,101 @@
+package org.pipservices3.components.cache;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.pipservices3.commons.config.ConfigParams;
+import org.pipservices3.commons.errors.ConfigException;
+import org.pipservices3.components.clock.Clock;
+import org.pipservices3.components.clock.ManualClock;
+
+import static org.junit.Assert.*;
+
+public class LongKeyMemoryCacheTest {
+    private LongKeyMemoryCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new LongKeyMemoryCache();
+    }
+
+    @Test
+    public void testBasicOperations() {
+        Object value = cache.store(null, 1, "value1", 0);
+        assertEquals("value1", value);
+        assertEquals("value1", cache.retrieve(null, 1));
+
+        // Update the value
+        cache.store(null, 1, "value2", 0);
+        assertEquals("value2", cache.retrieve(null, 1));
+        assertEquals(1, cache.getSize());
+
+        // Set null value
+        cache.store(null, 1, null, 0);
+        assertNull(cache.retrieve(null, 1));
+
+        cache.store(null, -5, "value3", 0);
+        cache.remove(null, -5);
+        assertNull(cache.retrieve(null, -5));
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void testRetrieveExpired() {
+        ManualClock clock = new ManualClock(1000000);
+        Clock.setDefault(clock);
+        try {
+            cache.store(null, 1, "value1", 100);
+
+            clock.advance(100);
+            assertEquals("value1", cache.retrieve(null, 1));
+
+            clock.advance(1);
+            assertNull(cache.retrieve(null, 1));
+            assertEquals(0, cache.getSize());
+        } finally {
+            Clock.setDefault(null);
+        }
+    }
+
+    @Test
+    public void testGrowth() throws ConfigException {
+        cache.configure(ConfigParams.fromTuples("options.max_size", 0));
+
+        for (long key = 0; key < 10000; key++)
+            cache.store(null, key * 31, key, 0);
+        for (long key = 0; key < 10000; key += 2)
+            cache.remove(null, key * 31);
+
+        assertEquals(5000, cache.getSize());
+        for (long key = 0; key < 10000; key++) {
+            if (key % 2 == 0)
+                assertNull(cache.retrieve(null, key * 31));
+            else
+                assertEquals(key, cache.retrieve(null, key * 31));
+        }
+    }
+
+    @Test
+    public void testClockEviction() throws ConfigException {
+        cache.configure(ConfigParams.fromTuples("options.max_size", 3));
+
+        cache.store(null, 1, "value1", 0);
+        cache.store(null, 2, "value2", 0);
+        cache.store(null, 3, "value3", 0);
+
+        // The first pass of the clock hand clears all references and evicts one value
+        cache.store(null, 4, "value4", 0);
+        assertEquals(3, cache.getSize());
+
+        // Values that weren't accessed since then are evicted before the recent ones
+        cache.retrieve(null, 4);
+        cache.store(null, 5, "value5", 0);
+        cache.store(null, 6, "value6", 0);
+
+        assertNull(cache.retrieve(null, 1));
+        assertNull(cache.retrieve(null, 2));
+        assertNull(cache.retrieve(null, 3));
+        assertEquals("value4", cache.retrieve(null, 4));
+        assertEquals("value5", cache.retrieve(null, 5));
+        assertEquals("value6", cache.retrieve(null, 6));
+    }
+}
@@ -0,0 +1,146 @@
+package org.pipservices3.components.cache;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.pipservices3.commons.config.ConfigParams;
+import org.pipservices3.commons.errors.ConfigException;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.*;
+
+public class MappedFileCacheTest {
+    private File file;
+    private MappedFileCache cache;
+    private CacheFixture fixture;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("cache", ".dat");
+        file.delete();
+
+        cache = createCache(4096);
+        fixture = new CacheFixture(cache);
+    }
+
+    @After
+    public void tearDown() {
+        cache.close(null);
+        file.delete();
+    }
+
+    private MappedFileCache createCache(int fileSize) throws Exception {
+        MappedFileCache cache = new MappedFileCache();
+        cache.configure(ConfigParams.fromTuples(
+                "options.path", file.getAbsolutePath(),
+                "options.file_size", fileSize
+        ));
+        cache.open(null);
+        return cache;
+    }
+
+    @Test
+    public void testBasicOperations() {
+        fixture.testBasicOperations();
+    }
+
+    @Test
+    public void testReadAfterTimeout() {
+        fixture.testReadAfterTimeout();
+    }
+
+    @Test
+    public void testStoreAndRetrieve() throws InterruptedException {
+        fixture.testStoreAndRetrieve();
+    }
+
+    @Test
+    public void testRetrieveExpired() throws InterruptedException {
+        fixture.testRetrieveExpired();
+    }
+
+    @Test
+    public void testRemove() {
+        fixture.testRemove();
+    }
+
+    @Test
+    public void testRestoreAfterReopen() throws Exception {
+        cache.store(null, "key1", "value1", 0);
+        cache.store(null, "key2", "value2", 0);
+        cache.store(null, "key1", "value3", 0);
+        cache.remove(null, "key2");
+        cache.close(null);
+
+        assertNull(cache.retrieve(null, "key1"));
+
+        cache = createCache(4096);
+        assertEquals("value3", cache.retrieve(null, "key1"));
+        assertNull(cache.retrieve(null, "key2"));
+    }
+
+    @Test
+    public void testCompaction() {
+        // Each record takes over 500 bytes, so the file fits only a few of them
+        for (int i = 0; i < 20; i++)
+            cache.store(null, "key" + i, new byte[500], 0);
+
+        assertNull(cache.retrieve(null, "key0"));
+        assertArrayEquals(new byte[500], (byte[]) cache.retrieve(null, "key19"));
+
+        // Values larger than the file are not cached
+        cache.store(null, "key20", new byte[5000], 0);
+        assertNull(cache.retrieve(null, "key20"));
+        assertNotNull(cache.retrieve(null, "key19"));
+    }
+
+    @Test
+    public void testCompactionReplacesFile() throws Exception {
+        for (int i = 0; i < 20; i++)
+            cache.store(null, "key" + i, new byte[500], 0);
+        cache.close(null);
+
+        // Compacted records are restored from the new file and no temporary file is left
+        assertFalse(new File(file.getAbsolutePath() + ".tmp").exists());
+        cache = createCache(4096);
+        assertNull(cache.retrieve(null, "key0"));
+        assertArrayEquals(new byte[500], (byte[]) cache.retrieve(null, "key18"));
+        assertArrayEquals(new byte[500], (byte[]) cache.retrieve(null, "key19"));
+    }
+
+    @Test
+    public void testCorruptedFile() throws Exception {
+        cache.store(null, "key1", "value1", 0);
+        cache.store(null, "key2", "value2", 0);
+        cache.close(null);
+
+        // Key length of the first record points beyond the end of the file
+        try (RandomAccessFile data = new RandomAccessFile(file, "rw")) {
+            data.seek(16 + 13);
+            data.writeShort(0xFFFF);
+        }
+
+        // The corrupted file is reset instead of failing to open
+        cache = createCache(4096);
+        assertNull(cache.retrieve(null, "key1"));
+        assertNull(cache.retrieve(null, "key2"));
+
+        cache.store(null, "key3", "value3", 0);
+        assertEquals("value3", cache.retrieve(null, "key3"));
+    }
+
+    @Test
+    public void testMissingPath() {
+        MappedFileCache cache = new MappedFileCache();
+        try {
+            cache.open(null);
+            fail("Expected ConfigException");
+        } catch (ConfigException ex) {
+            // Expected exception...
+        } catch (Exception ex) {
+            fail("Unexpected exception " + ex);
+        }
+    }
+}
@@ -1,6 +1,34 @@
 package org.pipservices3.components.cache;
 
 import org.junit.*;
+import org.pipservices3.commons.config.ConfigParams;
+import org.pipservices3.commons.errors.ApplicationException;
+import org.pipservices3.commons.errors.BadRequestException;
+import org.pipservices3.commons.errors.ConfigException;
+import org.pipservices3.commons.errors.FileException;
+import org.pipservices3.commons.refer.Descriptor;
+import org.pipservices3.commons.refer.References;
+import org.pipservices3.components.clock.Clock;
+import org.pipservices3.components.clock.ManualClock;
+import org.pipservices3.components.count.CachedCounters;
+import org.pipservices3.components.count.Counter;
+import org.pipservices3.components.count.CounterType;
+import org.pipservices3.components.log.LogLevel;
+import org.pipservices3.components.log.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
 
 public class MemoryCacheTest {
     private ICache cache;
@@ -36,4 +64,895 @@ public class MemoryCacheTest {
     public void testRemove() {
         fixture.testRemove();
     }
+
+    @Test
+    public void testBulkOperations() {
+        fixture.testBulkOperations();
+    }
+
+    @Test
+    public void testAtomicOperations() {
+        fixture.testAtomicOperations();
+    }
+
+    @Test
+    public void testMaxSize() throws ConfigException {
+        MemoryCache cache = new MemoryCache();
+        cache.configure(ConfigParams.fromTuples("options.max_size", 2));
+
+        cache.store(null, "key1", "value1", 0);
+        cache.store(null, "key2", "value2", 0);
+
+        // Updated entry becomes the newest one
+        cache.store(null, "key1", "value11", 0);
+        cache.store(null, "key3", "value3", 0);
+
+        assertEquals("value11", cache.retrieve(null, "key1"));
+        assertNull(cache.retrieve(null, "key2"));
+        assertEquals("value3", cache.retrieve(null, "key3"));
+    }
+
+    @Test
+    public void testLruEviction() throws ConfigException {
+        MemoryCache cache = new MemoryCache();
+        cache.configure(ConfigParams.fromTuples(
+                "options.max_size", 2,
+                "options.eviction_policy", "lru"
+        ));
+
+        cache.store(null, "key1", "value1", 0);
+        cache.store(null, "key2", "value2", 0);
+
+        // Reading makes the entry recently used
+        cache.retrieve(null, "key1");
+        cache.store(null, "key3", "value3", 0);
+
+        assertEquals("value1", cache.retrieve(null, "key1"));
+        assertNull(cache.retrieve(null, "key2"));
+        assertEquals("value3", cache.retrieve(null, "key3"));
+    }
+
+    @Test
+    public void testLfuEviction() throws ConfigException {
+        MemoryCache cache = new MemoryCache();
+        cache.configure(ConfigParams.fromTuples(
+                "options.max_size", 2,
+                "options.eviction_policy", "lfu"
+        ));
+
+        cache.store(null, "key1", "value1", 0);
+        cache.store(null, "key2", "value2", 0);
+
+        cache.retrieve(null, "key2");
+        cache.retrieve(null, "key2");
+        cache.retrieve(null, "key1");
+        cache.store(null, "key3", "value3", 0);
+
+        assertNull(cache.retrieve(null, "key1"));
+        assertEquals("value2", cache.retrieve(null, "key2"));
+        assertEquals("value3", cache.retrieve(null, "key3"));
+    }
+
+    @Test
+    public void testTinyLfuEviction() throws ConfigException {
+        MemoryCache cache = new MemoryCache();
+        cache.configure(ConfigParams.fromTuples(
+                "options.max_size", 100,
+                "options.eviction_policy", "tinylfu"
+        ));
+
+        // Make a set of popular keys
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                if (cache.retrieve(null, "hot" + i) == null)
+                    cache.store(null, "hot" + i, i, 0);
+            }
+        }
+
+        // Scan through many keys that are used only once
+        for (int i = 0; i < 1000; i++)
+            cache.store(null, "cold" + i, i, 0);
+
+        // Popular keys survive the scan
+        int hits = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.retrieve(null, "hot" + i) != null)
+                hits++;
+        }
+        assertTrue(hits >= 45);
+    }
+
+    @Test
+    public void testTinyLfuAdmission() {
+        TinyLfuEvictionPolicy policy = new TinyLfuEvictionPolicy(100);
+
+        // Fill the cache: the window holds one entry, the rest moves to probation
+        for (int i = 0; i < 100; i++)
+            policy.onInsert("key" + i);
+
+        // The key just leaving the window is popular, so the oldest probation key is evicted
+        for (int i = 0; i < 5; i++)
+            policy.onAccess("key99");
+        assertEquals("key0", policy.evict());
+        policy.onInsert("key100");
+
+        // The next window entry is used once, so it is rejected instead of the probation key
+        assertEquals("key100", policy.evict());
+    }
+
+    @Test
+    public void testReconfigureKeepsPolicyState() throws ConfigException {
+        MemoryCache cache = new MemoryCache();
+        cache.configure(ConfigParams.fromTuples(
+                "options.max_size", 2,
+                "options.eviction_policy", "lru"
+        ));
+
+        cache.store(null, "key1", "value1", 0);
+        cache.store(null, "key2", "value2", 0);
+        cache.retrieve(null, "key1");
+
+        // Unrelated settings don't reset the recency order
+        cache.configure(ConfigParams.fromTuples("options.timeout", 5000));
+        cache.store(null, "key3", "value3", 0);
+
+        assertEquals("value1", cache.retrieve(null, "key1"));
+        assertNull(cache.retrieve(null, "key2"));
+    }
+
+    @Test
+    public void testUnknownEvictionPolicy() {
+        MemoryCache cache = new MemoryCache();
+        try {
+            cache.configure(ConfigParams.fromTuples("options.eviction_policy", "random"));
+            fail("Expected exception on unsupported eviction policy");
+        } catch (ConfigException ex) {
+            // Expected exception...
+        }
+    }
+
+    @Test
+    public void testSweepExpired() throws ConfigException, InterruptedException {
+        MemoryCache cache = new MemoryCache();
+        cache.configure(ConfigParams.fromTuples(
+                "options.max_size", 3,
+                "options.eviction_policy", "lru",
+                "options.sweep_interval", 50
+        ));
+        cache.open(null);
+
+        try {
+            cache.store(null, "key1", "value1", 100);
+            cache.store(null, "key2", "value2", 0);
+            cache.store(null, "key3", "value3", 0);
+            cache.retrieve(null, "key1");
+
+            // Let the sweeper remove the expired value
+            Thread.sleep(500);
+
+            // No eviction is required since the expired value is already gone
+            cache.store(null, "key4", "value4", 0);
+            assertEquals("value2", cache.retrieve(null, "key2"));
+            assertEquals("value3", cache.retrieve(null, "key3"));
+            assertEquals("value4", cache.retrieve(null, "key4"));
+        } finally {
+            cache.close(null);
+        }
+    }
+
+    @Test
+    public void testExpirationBehindCursor() {
+        Map<String, Long> expirations = new HashMap<>();
+        ExpirationWheel.IExpirationHandler handler = new ExpirationWheel.IExpirationHandler() {
+            @Override
+            public long getExpiration(String key) {
+                return expirations.getOrDefault(key, -1L);
+            }
+
+            @Override
+            public void expire(String key) {
+                expirations.remove(key);
+            }
+        };
+
+        ExpirationWheel wheel = new ExpirationWheel(10, 0);
+        assertTrue(wheel.sweep(1000, 1000, handler));
+
+        // The deadline falls into a bucket the sweeper has already passed
+        expirations.put("key1", 505L);
+        wheel.schedule("key1", 505);
+        assertTrue(wheel.sweep(1010, 1000, handler));
+        assertFalse(expirations.containsKey("key1"));
+    }
+
+    @Test
+    public void testMaxWeight() throws ConfigException {
+        MemoryCache cache = new MemoryCache();
+        cache.setWeigher((key, value) -> ((byte[]) value).length);
+        cache.configure(ConfigParams.fromTuples(
+                "options.max_size", 0,
+                "options.max_weight", 100
+        ));
+
+        cache.store(null, "key1", new byte[40], 0);
+        cache.store(null, "key2", new byte[40], 0);
+        cache.store(null, "key3", new byte[40], 0);
+
+        // The oldest value is evicted to fit the weight limit
+        assertNull(cache.retrieve(null, "key1"));
+        assertNotNull(cache.retrieve(null, "key2"));
+        assertNotNull(cache.retrieve(null, "key3"));
+
+        // Values heavier than the limit are not cached
+        cache.store(null, "key4", new byte[200], 0);
+        assertNull(cache.retrieve(null, "key4"));
+        assertNotNull(cache.retrieve(null, "key3"));
+
+        // Stored values are weighed again only when weighing changes
+        AtomicInteger weighs = new AtomicInteger();
+        cache.setWeigher((key, value) -> {
+            weighs.incrementAndGet();
+            return ((byte[]) value).length;
+        });
+        assertEquals(2, weighs.get());
+        cache.configure(ConfigParams.fromTuples("options.max_weight", 100));
+        cache.configure(ConfigParams.fromTuples("options.max_weight", 70));
+        assertEquals(2, weighs.get());
+        assertNull(cache.retrieve(null, "key2"));
+        assertNotNull(cache.retrieve(null, "key3"));
+    }
+
+    @Test
+    public void testDefaultWeigher() {
+        ICacheWeigher weigher = new DefaultCacheWeigher();
+
+        assertTrue(weigher.weigh("key", new byte[1000]) > weigher.weigh("key", new byte[10]));
+        assertTrue(weigher.weigh("key", "ABCDEFGHIJ".repeat(100)) > weigher.weigh("key", "ABC"));
+        assertTrue(weigher.weigh("key", List.of("ABC", "DEF")) > weigher.weigh("key", List.of("ABC")));
+        assertTrue(weigher.weigh("key", Map.of("A", new byte[100])) > weigher.weigh("key", Map.of("A", 1)));
+
+        // Sizes of large collections are extrapolated from a limited number of elements
+        List<String> small = new ArrayList<>();
+        List<String> large = new ArrayList<>();
+        for (int i = 0; i < 1000; i++)
+            small.add("ABCDEFGHIJ");
+        for (int i = 0; i < 100000; i++)
+            large.add("ABCDEFGHIJ");
+        long smallWeight = weigher.weigh("key", small);
+        long largeWeight = weigher.weigh("key", large);
+        assertTrue(largeWeight > smallWeight * 90 && largeWeight < smallWeight * 110);
+    }
+
+    @Test
+    public void testRetrieveOrLoad() throws Exception {
+        MemoryCache cache = new MemoryCache();
+        AtomicInteger loads = new AtomicInteger();
+        ICacheLoader loader = (correlationId, key) -> {
+            loads.incrementAndGet();
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return "value";
+        };
+
+        // Concurrent callers share a single load
+        List<Thread> threads = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    Object value = cache.retrieveOrLoad(null, "key1", loader, 0);
+                    synchronized (values) {
+                        values.add(value);
+                    }
+                } catch (Exception ex) {
+                    // Missing value fails the test below
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+
+        assertEquals(1, loads.get());
+        assertEquals(10, values.size());
+        for (Object value : values)
+            assertEquals("value", value);
+
+        // The loaded value is cached
+        assertEquals("value", cache.retrieveOrLoad(null, "key1", loader, 0));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testRetrieveOrLoadFailure() throws Exception {
+        MemoryCache cache = new MemoryCache();
+        try {
+            cache.retrieveOrLoad(null, "key1", (correlationId, key) -> {
+                throw new BadRequestException(correlationId, "TEST", "Test error");
+            }, 0);
+            fail("Expected loader exception");
+        } catch (ApplicationException ex) {
+            // Expected exception...
+        }
+
+        // Failed loads are not cached
+        assertEquals("value", cache.retrieveOrLoad(null, "key1", (correlationId, key) -> "value", 0));
+    }
+
+    @Test
+    public void testRefreshAhead() throws Exception {
+        ManualClock clock = new ManualClock(1000000);
+        Clock.setDefault(clock);
+        try {
+            MemoryCache cache = new MemoryCache();
+            cache.configure(ConfigParams.fromTuples("options.refresh_ahead", 0.5));
+            AtomicInteger loads = new AtomicInteger();
+            CountDownLatch reloaded = new CountDownLatch(1);
+            ICacheLoader loader = (correlationId, key) -> {
+                int load = loads.incrementAndGet();
+                if (load > 1)
+                    reloaded.countDown();
+                return "value" + load;
+            };
+
+            assertEquals("value1", cache.retrieveOrLoad(null, "key1", loader, 400));
+
+            // Value close to its expiration is returned and reloaded in background
+            clock.advance(250);
+            assertEquals("value1", cache.retrieveOrLoad(null, "key1", loader, 400));
+            assertTrue(reloaded.await(5, TimeUnit.SECONDS));
+
+            // After the old value expires callers get the reloaded value or wait for it
+            clock.advance(160);
+            assertEquals("value2", cache.retrieveOrLoad(null, "key1", loader, 400));
+            assertEquals(2, loads.get());
+            assertEquals("value2", cache.retrieve(null, "key1"));
+        } finally {
+            Clock.setDefault(null);
+        }
+    }
+
+    @Test
+    public void testStaleWhileRevalidate() throws Exception {
+        ManualClock clock = new ManualClock(1000000);
+        Clock.setDefault(clock);
+        try {
+            MemoryCache cache = new MemoryCache();
+            cache.configure(ConfigParams.fromTuples("options.stale_while_revalidate", 1000));
+            AtomicInteger loads = new AtomicInteger();
+            CountDownLatch reloaded = new CountDownLatch(1);
+            ICacheLoader loader = (correlationId, key) -> {
+                int load = loads.incrementAndGet();
+                if (load > 1)
+                    reloaded.countDown();
+                return "value" + load;
+            };
+
+            assertEquals("value1", cache.retrieveOrLoad(null, "key1", loader, 100));
+
+            // Expired value is not returned by retrieve
+            clock.advance(200);
+            assertNull(cache.retrieve(null, "key1"));
+
+            // But it is served by retrieveOrLoad while the value is reloaded
+            assertEquals("value1", cache.retrieveOrLoad(null, "key1", loader, 5000));
+            assertTrue(reloaded.await(5, TimeUnit.SECONDS));
+
+            // After the stale period callers get the reloaded value or wait for it
+            clock.advance(1000);
+            assertEquals("value2", cache.retrieveOrLoad(null, "key1", loader, 5000));
+            assertEquals(2, loads.get());
+            assertEquals("value2", cache.retrieve(null, "key1"));
+        } finally {
+            Clock.setDefault(null);
+        }
+    }
+
+    @Test
+    public void testRefreshFailure() throws Exception {
+        ManualClock clock = new ManualClock(1000000);
+        Clock.setDefault(clock);
+        try {
+            MemoryCache cache = new MemoryCache();
+            cache.configure(ConfigParams.fromTuples("options.refresh_ahead", 0.5));
+            CountDownLatch logged = new CountDownLatch(1);
+            cache.setReferences(References.fromTuples(
+                    new Descriptor("pip-services", "logger", "test", "default", "1.0"), new Logger() {
+                        @Override
+                        protected void write(LogLevel level, String correlationId, Exception error, String message) {
+                            if (level == LogLevel.Error && error != null)
+                                logged.countDown();
+                        }
+                    }
+            ));
+
+            assertEquals("value1", cache.retrieveOrLoad(null, "key1", (correlationId, key) -> "value1", 400));
+
+            // Failed reload is recorded and logged, while the current value is still served
+            clock.advance(250);
+            assertEquals("value1", cache.retrieveOrLoad(null, "key1", (correlationId, key) -> {
+                throw new RuntimeException("Load failed");
+            }, 400));
+            assertTrue(logged.await(5, TimeUnit.SECONDS));
+            assertEquals(1, cache.getStats().getLoadFailureCount());
+            assertEquals("value1", cache.retrieve(null, "key1"));
+        } finally {
+            Clock.setDefault(null);
+        }
+    }
+
+    @Test
+    public void testStats() throws Exception {
+        MemoryCache cache = new MemoryCache();
+        cache.configure(ConfigParams.fromTuples(
+                "options.max_size", 2,
+                "options.stats_name", "test.cache"
+        ));
+
+        CachedCounters counters = new CachedCounters() {
+            @Override
+            protected void save(List<Counter> counters) {
+            }
+        };
+        cache.setReferences(References.fromTuples(
+                new Descriptor("pip-services", "counters", "test", "default", "1.0"), counters
+        ));
+
+        cache.store(null, "key1", "value1", 0);
+        cache.retrieve(null, "key1");
+        cache.retrieve(null, "key2");
+        cache.retrieveOrLoad(null, "key3", (correlationId, key) -> "value3", 0);
+        cache.store(null, "key4", "value4", 0);
+
+        CacheStats stats = cache.getStats();
+        assertEquals(1, stats.getHitCount());
+        assertEquals(2, stats.getMissCount());
+        assertEquals(1, stats.getLoadCount());
+        assertEquals(1, stats.getEvictionCount());
+        assertEquals(2, cache.getSize());
+
+        // Statistics are published when the cache is closed
+        cache.configure(ConfigParams.fromTuples("options.stats_interval", 60000));
+        cache.open(null);
+        cache.close(null);
+
+        assertEquals(1, (int) counters.get("test.cache.hits", CounterType.Increment).getCount());
+        assertEquals(2, (int) counters.get("test.cache.misses", CounterType.Increment).getCount());
+        assertEquals(1, (int) counters.get("test.cache.evictions", CounterType.Increment).getCount());
+        assertEquals(2, counters.get("test.cache.size", CounterType.LastValue).getLast(), 0);
+    }
+
+    @Test
+    public void testFailedStatsPublishing() throws Exception {
+        MemoryCache cache = new MemoryCache();
+        cache.configure(ConfigParams.fromTuples(
+                "options.stats_interval", 60000
+        ));
+
+        CachedCounters counters = new CachedCounters() {
+            @Override
+            public void increment(String name, int value) {
+                throw new IllegalStateException("Counters are not available");
+            }
+
+            @Override
+            protected void save(List<Counter> counters) {
+            }
+        };
+        AtomicInteger errors = new AtomicInteger();
+        cache.setReferences(References.fromTuples(
+                new Descriptor("pip-services", "counters", "test", "default", "1.0"), counters,
+                new Descriptor("pip-services", "logger", "test", "default", "1.0"), new Logger() {
+                    @Override
+                    protected void write(LogLevel level, String correlationId, Exception error, String message) {
+                        if (level == LogLevel.Error && error != null)
+                            errors.incrementAndGet();
+                    }
+                }
+        ));
+
+        cache.open(null);
+        cache.store(null, "key1", "value1", 0);
+        cache.retrieve(null, "key1");
+
+        // Failed counters are logged and don't break closing or reconfiguration
+        cache.configure(ConfigParams.fromTuples("options.stats_interval", 30000));
+        cache.close(null);
+        assertEquals(2, errors.get());
+        assertFalse(cache.isOpen());
+
+        cache.open(null);
+        assertEquals("value1", cache.retrieve(null, "key1"));
+        cache.close(null);
+    }
+
+    @Test
+    public void testCompute() throws Exception {
+        MemoryCache cache = new MemoryCache();
+        cache.configure(ConfigParams.fromTuples("options.negative_max_size", 10));
+
+        // Values changed while the function runs are computed again
+        AtomicInteger calls = new AtomicInteger();
+        cache.store(null, "key1", "value", 0);
+        Object result = cache.compute(null, "key1", (key, value) -> {
+            if (calls.incrementAndGet() == 1)
+                cache.store(null, "key1", "changed", 0);
+            return value + "1";
+        }, 0);
+        assertEquals("changed1", result);
+        assertEquals(2, calls.get());
+        assertEquals("changed1", cache.retrieve(null, "key1"));
+        // Reads of computations are recorded in statistics
+        assertEquals(3, cache.getStats().getHitCount());
+
+        // Computations of other keys are not blocked by a running function
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread thread = new Thread(() -> cache.compute(null, "key2", (key, value) -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return "value2";
+        }, 0));
+        thread.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        Thread other = new Thread(() -> {
+            cache.store(null, "key3", "value3", 0);
+            cache.compute(null, "key4", (key, value) -> "value4", 0);
+        });
+        other.start();
+        other.join(5000);
+        assertFalse(other.isAlive());
+        release.countDown();
+        thread.join();
+        assertEquals("value2", cache.retrieve(null, "key2"));
+        assertEquals("value4", cache.retrieve(null, "key4"));
+
+        // Removal by compute clears the missing mark
+        cache.storeNegative(null, "key5", 0);
+        assertTrue(cache.isNegative(null, "key5"));
+        assertNull(cache.compute(null, "key5", (key, value) -> null, 0));
+        assertFalse(cache.isNegative(null, "key5"));
+    }
+
+    @Test
+    public void testTimeoutJitter() throws ConfigException {
+        ManualClock clock = new ManualClock();
+        Clock.setDefault(clock);
+        try {
+            MemoryCache cache = new MemoryCache();
+            cache.configure(ConfigParams.fromTuples(
+                    "options.max_size", 0,
+                    "options.timeout_jitter", 0.5
+            ));
+
+            for (int i = 0; i < 100; i++)
+                cache.store(null, "key" + i, i, 1000);
+
+            // Values stored together expire at different times, but never later than the timeout
+            clock.advance(750);
+            int count = 0;
+            for (int i = 0; i < 100; i++) {
+                if (cache.retrieve(null, "key" + i) != null)
+                    count++;
+            }
+            assertTrue(count > 0 && count < 100);
+
+            clock.advance(251);
+            for (int i = 0; i < 100; i++)
+                assertNull(cache.retrieve(null, "key" + i));
+        } finally {
+            Clock.setDefault(null);
+        }
+    }
+
+    @Test
+    public void testSlidingExpiration() throws ConfigException {
+        ManualClock clock = new ManualClock();
+        Clock.setDefault(clock);
+        try {
+            MemoryCache cache = new MemoryCache();
+            cache.configure(ConfigParams.fromTuples("options.sliding_expiration", true));
+
+            cache.store(null, "key1", "value1", 1000);
+            cache.store(null, "key2", "value2", 1000);
+
+            // Every access extends expiration of the value
+            clock.advance(800);
+            assertEquals("value1", cache.retrieve(null, "key1"));
+            clock.advance(800);
+            assertEquals("value1", cache.retrieve(null, "key1"));
+            assertNull(cache.retrieve(null, "key2"));
+
+            clock.advance(1100);
+            assertNull(cache.retrieve(null, "key1"));
+        } finally {
+            Clock.setDefault(null);
+        }
+    }
+
+    @Test
+    public void testNegativeCaching() throws Exception {
+        ManualClock clock = new ManualClock();
+        Clock.setDefault(clock);
+        try {
+            // Negative caching is disabled by default
+            MemoryCache cache = new MemoryCache();
+            cache.storeNegative(null, "key1", 0);
+            assertFalse(cache.isNegative(null, "key1"));
+
+            cache.configure(ConfigParams.fromTuples(
+                    "options.negative_timeout", 1000,
+                    "options.negative_max_size", 2
+            ));
+
+            cache.storeNegative(null, "key1", 0);
+            assertTrue(cache.isNegative(null, "key1"));
+            assertNull(cache.retrieve(null, "key1"));
+
+            // Storing a value clears the mark
+            cache.store(null, "key1", "value1", 0);
+            assertFalse(cache.isNegative(null, "key1"));
+            assertEquals("value1", cache.retrieve(null, "key1"));
+
+            // Negative entries have their own size limit
+            cache.storeNegative(null, "key2", 0);
+            cache.storeNegative(null, "key3", 0);
+            cache.storeNegative(null, "key4", 0);
+            assertFalse(cache.isNegative(null, "key2"));
+            assertTrue(cache.isNegative(null, "key3"));
+            assertTrue(cache.isNegative(null, "key4"));
+            assertEquals("value1", cache.retrieve(null, "key1"));
+
+            // And their own timeout
+            clock.advance(1500);
+            assertFalse(cache.isNegative(null, "key3"));
+            assertEquals("value1", cache.retrieve(null, "key1"));
+
+            // Missing values returned by the loader are cached
+            AtomicInteger loads = new AtomicInteger();
+            ICacheLoader loader = (correlationId, key) -> {
+                loads.incrementAndGet();
+                return null;
+            };
+            assertNull(cache.retrieveOrLoad(null, "key5", loader, 0));
+            assertNull(cache.retrieveOrLoad(null, "key5", loader, 0));
+            assertEquals(1, loads.get());
+            assertTrue(cache.isNegative(null, "key5"));
+        } finally {
+            Clock.setDefault(null);
+        }
+    }
+
+    @Test
+    public void testRemoveByTag() throws ConfigException {
+        MemoryCache cache = new MemoryCache();
+        cache.configure(ConfigParams.fromTuples("options.max_size", 3));
+
+        cache.store(null, "key1", "value1", 0, "tenant1", "pages");
+        cache.store(null, "key2", "value2", 0, "tenant2", "pages");
+        cache.store(null, "key3", "value3", 0, "tenant1");
+
+        assertEquals(2, cache.removeByTag(null, "tenant1"));
+        assertNull(cache.retrieve(null, "key1"));
+        assertEquals("value2", cache.retrieve(null, "key2"));
+        assertNull(cache.retrieve(null, "key3"));
+        assertEquals(0, cache.removeByTag(null, "tenant1"));
+
+        // Updates without tags keep the tags, updates with tags replace them
+        cache.store(null, "key2", "value22", 0);
+        cache.store(null, "key4", "value4", 0, "tenant2");
+        cache.store(null, "key4", "value44", 0, "tenant1");
+        assertEquals(1, cache.removeByTag(null, "tenant2"));
+        assertEquals("value44", cache.retrieve(null, "key4"));
+
+        // Evicted values are removed from the tag index
+        cache.store(null, "key5", "value5", 0, "tenant1");
+        cache.store(null, "key6", "value6", 0);
+        cache.store(null, "key7", "value7", 0);
+        assertNull(cache.retrieve(null, "key4"));
+        assertEquals(1, cache.removeByTag(null, "tenant1"));
+        assertNull(cache.retrieve(null, "key5"));
+    }
+
+    @Test
+    public void testRemoveByPrefix() throws ConfigException {
+        for (boolean prefixIndex : new boolean[]{false, true}) {
+            MemoryCache cache = new MemoryCache();
+            cache.configure(ConfigParams.fromTuples(
+                    "options.prefix_index", prefixIndex,
+                    "options.negative_max_size", 10
+            ));
+
+            cache.store(null, "tenant1:page1", "value1", 0);
+            cache.store(null, "tenant1:page2", "value2", 0);
+            cache.store(null, "tenant10:page1", "value3", 0);
+            cache.store(null, "tenant2:page1", "value4", 0);
+            cache.storeNegative(null, "tenant1:page3", 0);
+
+            assertEquals(2, cache.removeByPrefix(null, "tenant1:"));
+            assertNull(cache.retrieve(null, "tenant1:page1"));
+            assertNull(cache.retrieve(null, "tenant1:page2"));
+            assertFalse(cache.isNegative(null, "tenant1:page3"));
+            assertEquals("value3", cache.retrieve(null, "tenant10:page1"));
+            assertEquals("value4", cache.retrieve(null, "tenant2:page1"));
+
+            cache.remove(null, "tenant2:page1");
+            assertEquals(1, cache.removeByPrefix(null, "tenant"));
+            assertEquals(0, cache.getSize());
+        }
+    }
+
+    @Test
+    public void testSnapshot() throws Exception {
+        File file = File.createTempFile("cache", ".snapshot");
+        file.delete();
+
+        ManualClock clock = new ManualClock(1000000);
+        Clock.setDefault(clock);
+        try {
+            ConfigParams config = ConfigParams.fromTuples("options.snapshot_path", file.getAbsolutePath());
+
+            MemoryCache cache = new MemoryCache();
+            cache.configure(config);
+            cache.open(null);
+            cache.store(null, "key1", "value1", 1000);
+            cache.store(null, "key2", "value2", 5000, "tag1");
+            cache.store(null, "key3", new Object(), 5000);
+            clock.advance(500);
+            cache.close(null);
+            assertTrue(file.exists());
+
+            // Values are restored with their remaining timeouts and tags
+            clock.advance(300);
+            cache = new MemoryCache();
+            cache.configure(config);
+            cache.open(null);
+            assertEquals("value1", cache.retrieve(null, "key1"));
+            assertEquals("value2", cache.retrieve(null, "key2"));
+            // Not serializable values are skipped
+            assertNull(cache.retrieve(null, "key3"));
+
+            clock.advance(300);
+            assertNull(cache.retrieve(null, "key1"));
+            assertEquals(1, cache.removeByTag(null, "tag1"));
+            cache.close(null);
+
+            // Broken snapshots are ignored on open
+            Files.write(file.toPath(), new byte[]{1, 2, 3});
+            cache = new MemoryCache();
+            cache.configure(config);
+            cache.open(null);
+            assertEquals(0, cache.getSize());
+
+            try {
+                cache.loadSnapshot(null, file.getAbsolutePath());
+                fail("Expected FileException");
+            } catch (FileException ex) {
+                // Expected exception...
+            }
+        } finally {
+            Clock.setDefault(null);
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testSnapshotKeepsNewerValues() throws Exception {
+        File file = File.createTempFile("cache", ".snapshot");
+        file.delete();
+
+        ManualClock clock = new ManualClock(1000000);
+        Clock.setDefault(clock);
+        try {
+            MemoryCache cache = new MemoryCache();
+            cache.store(null, "key1", "value1", 1000);
+            cache.store(null, "key2", "value2", 1000);
+            cache.store(null, "key3", "value3", 100);
+            cache.saveSnapshot(null, file.getAbsolutePath());
+
+            // Values stored before the snapshot is loaded are newer
+            clock.advance(200);
+            cache = new MemoryCache();
+            cache.store(null, "key1", "newValue1", 1000);
+            assertEquals(1, cache.loadSnapshot(null, file.getAbsolutePath()));
+            assertEquals("newValue1", cache.retrieve(null, "key1"));
+            assertEquals("value2", cache.retrieve(null, "key2"));
+            assertNull(cache.retrieve(null, "key3"));
+        } finally {
+            Clock.setDefault(null);
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testSnapshotWithJitter() throws Exception {
+        File file = File.createTempFile("cache", ".snapshot");
+        file.delete();
+
+        ManualClock clock = new ManualClock(1000000);
+        Clock.setDefault(clock);
+        try {
+            MemoryCache cache = new MemoryCache();
+            cache.store(null, "key1", "value1", 1000);
+            cache.saveSnapshot(null, file.getAbsolutePath());
+
+            // Restored values keep their stored expiration
+            cache = new MemoryCache();
+            cache.configure(ConfigParams.fromTuples("options.timeout_jitter", 0.9));
+            assertEquals(1, cache.loadSnapshot(null, file.getAbsolutePath()));
+            clock.advance(999);
+            assertEquals("value1", cache.retrieve(null, "key1"));
+            clock.advance(2);
+            assertNull(cache.retrieve(null, "key1"));
+        } finally {
+            Clock.setDefault(null);
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testCorruptedSnapshot() throws Exception {
+        File file = File.createTempFile("cache", ".snapshot");
+        try {
+            MemoryCache cache = new MemoryCache();
+
+            // Record count larger than the file
+            Files.write(file.toPath(), snapshot(1000000, "key1", -1, new byte[0]));
+            try {
+                cache.loadSnapshot(null, file.getAbsolutePath());
+                fail("Expected FileException");
+            } catch (FileException ex) {
+                // Expected exception...
+            }
+
+            // Negative value length
+            Files.write(file.toPath(), snapshot(1, "key1", -1, new byte[0]));
+            try {
+                cache.loadSnapshot(null, file.getAbsolutePath());
+                fail("Expected FileException");
+            } catch (FileException ex) {
+                // Expected exception...
+            }
+
+            // Value length larger than the file
+            Files.write(file.toPath(), snapshot(1, "key1", Integer.MAX_VALUE, new byte[0]));
+            try {
+                cache.loadSnapshot(null, file.getAbsolutePath());
+                fail("Expected FileException");
+            } catch (FileException ex) {
+                // Expected exception...
+            }
+
+            // Undecodable values are skipped
+            Files.write(file.toPath(), snapshot(1, "key1", 3, new byte[]{1, 2, 3}));
+            assertEquals(0, cache.loadSnapshot(null, file.getAbsolutePath()));
+            assertEquals(0, cache.getSize());
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static byte[] snapshot(int count, String key, int length, byte[] value) throws Exception {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(buffer);
+        output.writeInt(0x50435331);
+        output.writeInt(1);
+        output.writeInt(count);
+        output.writeUTF(key);
+        output.writeLong(Long.MAX_VALUE);
+        output.writeShort(0);
+        output.writeInt(length);
+        output.write(value);
+        output.flush();
+        return buffer.toByteArray();
+    }
 }
@@ -0,0 +1,149 @@
+package org.pipservices3.components.cache;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.pipservices3.commons.config.ConfigParams;
+import org.pipservices3.commons.refer.Descriptor;
+import org.pipservices3.commons.refer.References;
+
+import static org.junit.Assert.*;
+
+public class NearCacheTest {
+    private MemoryCache remote;
+    private References references;
+    private NearCache cache1;
+    private NearCache cache2;
+    private CacheFixture fixture;
+
+    @Before
+    public void setUp() throws Exception {
+        remote = new MemoryCache();
+        references = References.fromTuples(
+                new Descriptor("pip-services", "cache-invalidation-bus", "loopback", "default", "1.0"), new LoopbackInvalidationBus(),
+                new Descriptor("pip-services", "cache", "memory", "remote", "1.0"), remote
+        );
+
+        cache1 = createCache(references);
+        cache2 = createCache(references);
+        fixture = new CacheFixture(cache1);
+    }
+
+    private NearCache createCache(References references) throws Exception {
+        NearCache cache = new NearCache();
+        cache.configure(ConfigParams.fromTuples(
+                "options.channel", "test",
+                "dependencies.cache", "pip-services:cache:memory:remote:1.0"
+        ));
+        cache.setReferences(references);
+        cache.open(null);
+        return cache;
+    }
+
+    @After
+    public void tearDown() {
+        cache1.close(null);
+        cache2.close(null);
+    }
+
+    @Test
+    public void testBasicOperations() {
+        fixture.testBasicOperations();
+    }
+
+    @Test
+    public void testReadAfterTimeout() {
+        fixture.testReadAfterTimeout();
+    }
+
+    @Test
+    public void testStoreAndRetrieve() throws InterruptedException {
+        fixture.testStoreAndRetrieve();
+    }
+
+    @Test
+    public void testRetrieveExpired() throws InterruptedException {
+        fixture.testRetrieveExpired();
+    }
+
+    @Test
+    public void testRemove() {
+        fixture.testRemove();
+    }
+
+    @Test
+    public void testInvalidation() {
+        cache1.store(null, "key1", "value1", 0);
+
+        // The second instance reads the value from the shared cache and keeps a local copy
+        assertEquals("value1", cache2.retrieve(null, "key1"));
+
+        // Update in the first instance removes the stale copy in the second one
+        cache1.store(null, "key1", "value2", 0);
+        assertEquals("value2", cache2.retrieve(null, "key1"));
+
+        // Removal is propagated as well
+        cache1.remove(null, "key1");
+        assertNull(cache2.retrieve(null, "key1"));
+    }
+
+    @Test
+    public void testLocalCopies() {
+        cache1.store(null, "key1", "value1", 0);
+        assertEquals("value1", cache2.retrieve(null, "key1"));
+
+        // Changes made directly in the shared cache are not seen until local copies expire
+        remote.store(null, "key1", "value2", 0);
+        assertEquals("value1", cache2.retrieve(null, "key1"));
+        assertEquals("value1", cache1.retrieve(null, "key1"));
+    }
+
+    @Test
+    public void testInvalidationDuringRead() throws Exception {
+        // The value is changed by another instance while it is read from the shared cache
+        MemoryCache remote = new MemoryCache() {
+            private boolean _changed = false;
+
+            @Override
+            public Object retrieve(String correlationId, String key) {
+                Object value = super.retrieve(correlationId, key);
+                if (!_changed) {
+                    _changed = true;
+                    cache1.store(correlationId, key, "value2", 0);
+                }
+                return value;
+            }
+        };
+        References references = References.fromTuples(
+                new Descriptor("pip-services", "cache-invalidation-bus", "loopback", "default", "1.0"), new LoopbackInvalidationBus(),
+                new Descriptor("pip-services", "cache", "memory", "remote", "1.0"), remote
+        );
+        cache1.close(null);
+        cache2.close(null);
+        cache1 = createCache(references);
+        cache2 = createCache(references);
+
+        remote.store(null, "key1", "value1", 0);
+
+        // The read value is returned, but its local copy is not kept
+        assertEquals("value1", cache2.retrieve(null, "key1"));
+        assertEquals("value2", cache2.retrieve(null, "key1"));
+    }
+
+    @Test
+    public void testInvalidationBeforeOpen() throws Exception {
+        NearCache cache3 = new NearCache();
+        cache3.configure(ConfigParams.fromTuples(
+                "options.channel", "test",
+                "dependencies.cache", "pip-services:cache:memory:remote:1.0"
+        ));
+        cache3.setReferences(references);
+
+        cache1.store(null, "key1", "value1", 0);
+        assertEquals("value1", cache2.retrieve(null, "key1"));
+
+        // Changes made through a cache that is not opened yet are published too
+        cache3.store(null, "key1", "value2", 0);
+        assertEquals("value2", cache2.retrieve(null, "key1"));
+    }
+}
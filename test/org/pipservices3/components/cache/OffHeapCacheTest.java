@@ -0,0 +1,146 @@
+package org.pipservices3.components.cache;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.pipservices3.commons.config.ConfigParams;
+import org.pipservices3.commons.errors.ConfigException;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class OffHeapCacheTest {
+    private OffHeapCache cache;
+
+    @Before
+    public void setUp() throws Exception {
+        cache = new OffHeapCache();
+        cache.configure(ConfigParams.fromTuples(
+                "options.max_memory", 4096,
+                "options.slab_size", 1024,
+                "options.min_chunk_size", 64
+        ));
+    }
+
+    @Test
+    public void testBasicOperations() {
+        byte[] value1 = "value1".getBytes();
+        cache.store(null, "key1", value1, 0);
+        assertArrayEquals(value1, (byte[]) cache.retrieve(null, "key1"));
+
+        // Update the value with a larger one
+        byte[] value2 = new byte[500];
+        value2[499] = 7;
+        cache.store(null, "key1", ByteBuffer.wrap(value2), 0);
+        assertArrayEquals(value2, (byte[]) cache.retrieve(null, "key1"));
+
+        // Set null value
+        cache.store(null, "key1", null, 0);
+        assertNull(cache.retrieve(null, "key1"));
+
+        cache.store(null, "key2", value1, 0);
+        cache.remove(null, "key2");
+        assertNull(cache.retrieve(null, "key2"));
+    }
+
+    @Test
+    public void testRetrieveExpired() throws InterruptedException {
+        cache.store(null, "key1", "value1".getBytes(), 100);
+
+        Thread.sleep(300);
+
+        assertNull(cache.retrieve(null, "key1"));
+    }
+
+    @Test
+    public void testMemoryLimit() {
+        // 4 slabs of 1024 bytes fit 4 values of 1000 bytes
+        for (int i = 0; i < 4; i++)
+            cache.store(null, "key" + i, new byte[1000], 0);
+        cache.retrieve(null, "key0");
+
+        // The least recently used value is evicted
+        cache.store(null, "key4", new byte[1000], 0);
+        assertNotNull(cache.retrieve(null, "key0"));
+        assertNull(cache.retrieve(null, "key1"));
+        assertNotNull(cache.retrieve(null, "key4"));
+
+        // Values larger than a slab are rejected
+        assertNull(cache.store(null, "key5", new byte[2000], 0));
+        assertNull(cache.retrieve(null, "key5"));
+        assertEquals(1, cache.getRejectedCount());
+    }
+
+    @Test
+    public void testRebalance() throws Exception {
+        // All slabs are taken by large values
+        for (int i = 0; i < 4; i++)
+            cache.store(null, "key" + i, new byte[1000], 0);
+        cache.retrieve(null, "key0");
+
+        // Slab of the least recently used value moves to the small size class
+        byte[] value = "value".getBytes();
+        for (int i = 0; i < 10; i++)
+            assertArrayEquals(value, (byte[]) cache.store(null, "small" + i, value, 0));
+        assertNull(cache.retrieve(null, "key1"));
+        assertNotNull(cache.retrieve(null, "key0"));
+
+        // A key moved into another size class keeps its new value
+        assertArrayEquals(value, (byte[]) cache.store(null, "key2", value, 0));
+        assertArrayEquals(value, (byte[]) cache.retrieve(null, "key2"));
+        assertEquals(0, cache.getRejectedCount());
+
+        // Empty slabs of other classes are moved before values are evicted
+        cache.remove(null, "key3");
+        byte[] medium = new byte[200];
+        assertArrayEquals(medium, (byte[]) cache.store(null, "medium", medium, 0));
+        assertNotNull(cache.retrieve(null, "key0"));
+        assertArrayEquals(value, (byte[]) cache.retrieve(null, "small0"));
+    }
+
+    @Test
+    public void testShrinkMemory() throws Exception {
+        for (int i = 0; i < 4; i++)
+            cache.store(null, "key" + i, new byte[1000], 0);
+
+        // Slabs above the reduced limit are released together with their values
+        cache.configure(ConfigParams.fromTuples("options.max_memory", 2048));
+        assertNotNull(cache.retrieve(null, "key0"));
+        assertNotNull(cache.retrieve(null, "key1"));
+        assertNull(cache.retrieve(null, "key2"));
+        assertNull(cache.retrieve(null, "key3"));
+
+        // New values fit into the remaining slabs
+        cache.store(null, "key4", new byte[1000], 0);
+        assertNull(cache.retrieve(null, "key0"));
+        assertNotNull(cache.retrieve(null, "key4"));
+        assertEquals(0, cache.getRejectedCount());
+    }
+
+    @Test
+    public void testUnsupportedValue() {
+        try {
+            cache.store(null, "key1", "value1", 0);
+            fail("Expected exception on non-binary value");
+        } catch (IllegalArgumentException ex) {
+            // Expected exception...
+        }
+    }
+
+    @Test
+    public void testBadConfiguration() {
+        try {
+            cache.configure(ConfigParams.fromTuples("options.slab_size", 32));
+            fail("Expected exception on slab size smaller than chunk size");
+        } catch (ConfigException ex) {
+            // Expected exception...
+        }
+
+        try {
+            cache.configure(ConfigParams.fromTuples("options.max_memory", 512));
+            fail("Expected exception on max memory smaller than slab size");
+        } catch (ConfigException ex) {
+            // Expected exception...
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package org.pipservices3.components.cache;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.pipservices3.commons.config.ConfigParams;
+import org.pipservices3.commons.errors.ConfigException;
+import org.pipservices3.commons.refer.Descriptor;
+import org.pipservices3.commons.refer.ReferenceException;
+import org.pipservices3.commons.refer.References;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ShardedCacheTest {
+    private MemoryCache shard1;
+    private MemoryCache shard2;
+    private MemoryCache shard3;
+    private ShardedCache cache;
+    private CacheFixture fixture;
+
+    @Before
+    public void setUp() throws Exception {
+        shard1 = new MemoryCache();
+        shard2 = new MemoryCache();
+        shard3 = new MemoryCache();
+
+        cache = new ShardedCache();
+        cache.configure(ConfigParams.fromTuples("dependencies.shards", "pip-services:cache:*:*:1.0"));
+        cache.setReferences(References.fromTuples(
+                new Descriptor("pip-services", "cache", "memory", "shard1", "1.0"), shard1,
+                new Descriptor("pip-services", "cache", "memory", "shard2", "1.0"), shard2,
+                new Descriptor("pip-services", "cache", "memory", "shard3", "1.0"), shard3,
+                new Descriptor("pip-services", "cache", "sharded", "default", "1.0"), cache
+        ));
+        fixture = new CacheFixture(cache);
+    }
+
+    @Test
+    public void testBasicOperations() {
+        fixture.testBasicOperations();
+    }
+
+    @Test
+    public void testReadAfterTimeout() {
+        fixture.testReadAfterTimeout();
+    }
+
+    @Test
+    public void testRemove() {
+        fixture.testRemove();
+    }
+
+    @Test
+    public void testBulkOperations() {
+        fixture.testBulkOperations();
+    }
+
+    @Test
+    public void testAtomicOperations() {
+        fixture.testAtomicOperations();
+    }
+
+    @Test
+    public void testDistribution() throws ConfigException {
+        assertEquals(3, cache.getShardCount());
+
+        ConfigParams config = ConfigParams.fromTuples("options.max_size", 10000);
+        shard1.configure(config);
+        shard2.configure(config);
+        shard3.configure(config);
+
+        for (int i = 0; i < 3000; i++)
+            cache.store(null, "key" + i, i, 0);
+
+        // Keys are spread evenly enough across the shards
+        assertEquals(3000, shard1.getSize() + shard2.getSize() + shard3.getSize());
+        assertTrue(shard1.getSize() > 600);
+        assertTrue(shard2.getSize() > 600);
+        assertTrue(shard3.getSize() > 600);
+    }
+
+    @Test
+    public void testResolveShards() throws Exception {
+        NearCache near = new NearCache();
+        near.setReferences(References.fromTuples(
+                new Descriptor("pip-services", "cache", "sharded", "default", "1.0"), cache
+        ));
+
+        // The dependency selects shards and they are replaced on every call
+        cache.configure(ConfigParams.fromTuples("dependencies.shards", "pip-services:cache:memory:*:1.0"));
+        cache.setReferences(References.fromTuples(
+                new Descriptor("pip-services", "cache", "memory", "shard1", "1.0"), shard1,
+                new Descriptor("pip-services", "cache", "other", "shard2", "1.0"), shard2,
+                new Descriptor("pip-services", "cache", "memory", "shard3", "1.0"), shard3,
+                new Descriptor("pip-services", "cache", "near", "default", "1.0"), near
+        ));
+        assertEquals(2, cache.getShardCount());
+        cache.store(null, "key1", "value1", 0);
+        assertNull(shard2.retrieve(null, "key1"));
+        assertEquals("value1", cache.retrieve(null, "key1"));
+    }
+
+    @Test
+    public void testBoundedRemapping() {
+        Map<String, ICache> before = new HashMap<>();
+        for (int i = 0; i < 3000; i++)
+            before.put("key" + i, cache.getShard("key" + i));
+
+        // Only keys of the removed shard move
+        cache.removeShard("pip-services:cache:memory:shard3:1.0");
+        assertEquals(2, cache.getShardCount());
+        for (Map.Entry<String, ICache> entry : before.entrySet()) {
+            if (entry.getValue() != shard3)
+                assertSame(entry.getValue(), cache.getShard(entry.getKey()));
+            else
+                assertTrue(cache.getShard(entry.getKey()) != shard3);
+        }
+
+        // And the added shard takes keys only from other shards
+        cache.addShard("pip-services:cache:memory:shard3:1.0", shard3);
+        for (Map.Entry<String, ICache> entry : before.entrySet())
+            assertSame(entry.getValue(), cache.getShard(entry.getKey()));
+    }
+
+    @Test
+    public void testNoShards() {
+        ShardedCache cache = new ShardedCache();
+        assertEquals("value1", cache.store(null, "key1", "value1", 0));
+        assertNull(cache.retrieve(null, "key1"));
+    }
+
+    @Test
+    public void testMissingShardsDependency() {
+        ShardedCache cache = new ShardedCache();
+        try {
+            cache.configure(ConfigParams.fromTuples("options.virtual_nodes", 10));
+            fail("Expected ConfigException");
+        } catch (ConfigException ex) {
+            // Expected exception...
+        }
+
+        try {
+            cache.setReferences(References.fromTuples(
+                    new Descriptor("pip-services", "cache", "memory", "shard1", "1.0"), shard1
+            ));
+            fail("Expected ReferenceException");
+        } catch (ReferenceException ex) {
+            // Expected exception...
+        }
+    }
+
+    @Test
+    public void testBadVirtualNodes() {
+        try {
+            cache.configure(ConfigParams.fromTuples("options.virtual_nodes", 0));
+            fail("Expected ConfigException");
+        } catch (ConfigException ex) {
+            // Expected exception...
+        }
+    }
+}
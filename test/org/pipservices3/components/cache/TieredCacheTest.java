@@ -0,0 +1,161 @@
+package org.pipservices3.components.cache;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.pipservices3.commons.config.ConfigParams;
+import org.pipservices3.commons.refer.Descriptor;
+import org.pipservices3.commons.refer.References;
+import org.pipservices3.components.clock.ManualClock;
+import org.pipservices3.components.log.LogLevel;
+import org.pipservices3.components.log.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class TieredCacheTest {
+    private TieredCache cache;
+    private CacheFixture fixture;
+
+    @Before
+    public void setUp() throws Exception {
+        cache = new TieredCache();
+        cache.configure(ConfigParams.fromTuples(
+                "l1.options.max_size", 2,
+                "l2.options.max_memory", 1024 * 1024
+        ));
+        fixture = new CacheFixture(cache);
+    }
+
+    @Test
+    public void testBasicOperations() {
+        fixture.testBasicOperations();
+    }
+
+    @Test
+    public void testReadAfterTimeout() {
+        fixture.testReadAfterTimeout();
+    }
+
+    @Test
+    public void testStoreAndRetrieve() throws InterruptedException {
+        fixture.testStoreAndRetrieve();
+    }
+
+    @Test
+    public void testRetrieveExpired() throws InterruptedException {
+        fixture.testRetrieveExpired();
+    }
+
+    @Test
+    public void testRemove() {
+        fixture.testRemove();
+    }
+
+    @Test
+    public void testDemoteAndPromote() {
+        // Values evicted from the first level are kept in the second one
+        for (int i = 0; i < 10; i++)
+            cache.store(null, "key" + i, "value" + i, 0);
+
+        for (int i = 0; i < 10; i++)
+            assertEquals("value" + i, cache.retrieve(null, "key" + i));
+
+        // Removed values disappear from both levels
+        cache.remove(null, "key0");
+        assertNull(cache.retrieve(null, "key0"));
+    }
+
+    @Test
+    public void testFailedDemotion() throws Exception {
+        AtomicInteger errors = new AtomicInteger();
+        cache.setReferences(References.fromTuples(
+                new Descriptor("pip-services", "logger", "test", "default", "1.0"), new Logger() {
+                    @Override
+                    protected void write(LogLevel level, String correlationId, Exception error, String message) {
+                        if (level == LogLevel.Error && error != null)
+                            errors.incrementAndGet();
+                    }
+                }
+        ));
+        cache.open(null);
+        assertTrue(cache.isOpen());
+
+        // Values that cannot be encoded are dropped on demotion and the failure is logged
+        Object value = new Object();
+        cache.store(null, "key1", value, 0);
+        assertSame(value, cache.retrieve(null, "key1"));
+        cache.store(null, "key2", "value2", 0);
+        cache.store(null, "key3", "value3", 0);
+        assertNull(cache.retrieve(null, "key1"));
+        assertEquals(1, errors.get());
+
+        cache.close(null);
+        assertFalse(cache.isOpen());
+    }
+
+    @Test
+    public void testRemoveAfterEviction() throws Exception {
+        List<Thread> threads = new ArrayList<>();
+        List<String> errors = Collections.synchronizedList(new ArrayList<>());
+        for (int t = 0; t < 4; t++) {
+            final int thread = t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    String key = "key" + thread + "." + i;
+                    cache.store(null, key, "value", 0);
+                    // Other threads evict the value while it is removed
+                    cache.store(null, "filler" + thread, "value", 0);
+                    cache.remove(null, key);
+                    if (cache.retrieve(null, key) != null)
+                        errors.add(key);
+                }
+            }));
+        }
+        for (Thread thread : threads)
+            thread.start();
+        for (Thread thread : threads)
+            thread.join();
+
+        // Removed values are never promoted back
+        assertTrue(errors.isEmpty());
+
+        // Evict, remove and retrieve in one thread
+        cache.store(null, "key1", "value1", 0);
+        cache.store(null, "key2", "value2", 0);
+        cache.store(null, "key3", "value3", 0);
+        cache.remove(null, "key1");
+        assertNull(cache.retrieve(null, "key1"));
+    }
+
+    @Test
+    public void testExpirationWithManualClock() {
+        ManualClock clock = new ManualClock(1000000);
+        clock.open(null);
+        try {
+            cache.store(null, "key1", "value1", 1000);
+            // Demote key1 into the second level
+            cache.store(null, "key2", "value2", 0);
+            cache.store(null, "key3", "value3", 0);
+
+            // Promotion keeps the remaining timeout
+            clock.advance(600);
+            assertEquals("value1", cache.retrieve(null, "key1"));
+
+            clock.advance(500);
+            assertNull(cache.retrieve(null, "key1"));
+
+            // Demoted values expire in the second level
+            cache.store(null, "key4", "value4", 1000);
+            cache.store(null, "key5", "value5", 0);
+            cache.store(null, "key6", "value6", 0);
+            clock.advance(1100);
+            assertNull(cache.retrieve(null, "key4"));
+        } finally {
+            clock.close(null);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package org.pipservices3.components.cache;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.pipservices3.commons.config.ConfigParams;
+import org.pipservices3.commons.errors.ConfigException;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+import static org.junit.Assert.*;
+
+public class TraceRecordingCacheTest {
+    private File file;
+    private TraceRecordingCache cache;
+    private CacheFixture fixture;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("cache", ".trace");
+
+        cache = new TraceRecordingCache();
+        cache.configure(ConfigParams.fromTuples("options.path", file.getAbsolutePath()));
+        cache.open(null);
+        fixture = new CacheFixture(cache);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        cache.close(null);
+        file.delete();
+    }
+
+    @Test
+    public void testBasicOperations() {
+        fixture.testBasicOperations();
+    }
+
+    @Test
+    public void testReadAfterTimeout() {
+        fixture.testReadAfterTimeout();
+    }
+
+    @Test
+    public void testRemove() {
+        fixture.testRemove();
+    }
+
+    @Test
+    public void testBulkOperations() {
+        fixture.testBulkOperations();
+    }
+
+    @Test
+    public void testRecordAndSimulate() throws Exception {
+        cache.store(null, "key1", "value1", 0);
+        cache.retrieve(null, "key1");
+        cache.retrieve(null, "key2");
+        cache.retrieve(null, "key2");
+        cache.remove(null, "key1");
+        cache.retrieve(null, "key1");
+        cache.close(null);
+
+        // Calls after close are not recorded
+        cache.retrieve(null, "key3");
+
+        CacheSimulator simulator = new CacheSimulator();
+        simulator.readTrace(null, file.getAbsolutePath());
+        assertEquals(6, simulator.getLength());
+
+        CacheSimulationResult result = simulator.simulate("lru", 10);
+        assertEquals(2, result.getHits());
+        assertEquals(2, result.getMisses());
+        assertEquals(0.5, result.getHitRatio(), 0.001);
+        assertEquals(6, result.getOperations());
+    }
+
+    @Test
+    public void testSimulateCapacities() throws Exception {
+        // A loop over 100 keys misses in smaller caches and hits in larger ones
+        CacheSimulator simulator = new CacheSimulator();
+        for (int round = 0; round < 10; round++) {
+            for (int key = 0; key < 100; key++)
+                simulator.addOperation(TraceRecordingCache.Retrieve, "key" + key);
+        }
+
+        List<CacheSimulationResult> results = simulator.simulate(Arrays.asList("fifo", "lru"), new long[]{50, 100});
+        assertEquals(4, results.size());
+        assertEquals("fifo", results.get(0).getEvictionPolicy());
+        assertEquals(0, results.get(0).getHitRatio(), 0.001);
+        assertEquals(0.9, results.get(1).getHitRatio(), 0.001);
+        assertEquals(100, results.get(3).getMaxSize());
+        assertTrue(results.get(3).getThroughput() > 0);
+    }
+
+    @Test
+    public void testSimulateCacheAside() throws Exception {
+        // Misses followed by stores in the trace are not loaded twice
+        CacheSimulator simulator = new CacheSimulator();
+        simulator.addOperation(TraceRecordingCache.Retrieve, "key2");
+        simulator.addOperation(TraceRecordingCache.Retrieve, "key1");
+        simulator.addOperation(TraceRecordingCache.Retrieve, "key3");
+        simulator.addOperation(TraceRecordingCache.Retrieve, "key2");
+        simulator.addOperation(TraceRecordingCache.Store, "key1");
+
+        // key1 is not stored before its recorded store, so it doesn't evict key2
+        CacheSimulationResult result = simulator.simulate("fifo", 2);
+        assertEquals(1, result.getHits());
+        assertEquals(3, result.getMisses());
+    }
+
+    @Test
+    public void testConcurrentRecording() throws Exception {
+        Thread[] threads = new Thread[4];
+        for (int index = 0; index < threads.length; index++) {
+            threads[index] = new Thread(() -> {
+                for (int key = 0; key < 5000; key++)
+                    cache.retrieve(null, "key" + key);
+            });
+            threads[index].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+        cache.close(null);
+
+        // Records buffered by all threads are written on close
+        CacheSimulator simulator = new CacheSimulator();
+        simulator.readTrace(null, file.getAbsolutePath());
+        assertEquals(20000, simulator.getLength());
+    }
+
+    @Test
+    public void testInterleavedRecording() throws Exception {
+        Semaphore turnA = new Semaphore(1);
+        Semaphore turnB = new Semaphore(0);
+
+        // Two threads take turns: write, read, remove, read
+        Thread threadA = new Thread(() -> {
+            turnA.acquireUninterruptibly();
+            cache.store(null, "key1", "value1", 0);
+            turnB.release();
+            turnA.acquireUninterruptibly();
+            cache.remove(null, "key1");
+            turnB.release();
+        });
+        Thread threadB = new Thread(() -> {
+            turnB.acquireUninterruptibly();
+            cache.retrieve(null, "key1");
+            turnA.release();
+            turnB.acquireUninterruptibly();
+            cache.retrieve(null, "key1");
+        });
+        threadA.start();
+        threadB.start();
+        threadA.join();
+        threadB.join();
+        cache.close(null);
+
+        // The trace keeps the order of calls across threads
+        CacheSimulator simulator = new CacheSimulator();
+        simulator.readTrace(null, file.getAbsolutePath());
+        CacheSimulationResult result = simulator.simulate("lru", 10);
+        assertEquals(1, result.getHits());
+        assertEquals(1, result.getMisses());
+    }
+
+    @Test
+    public void testMissingPath() {
+        TraceRecordingCache cache = new TraceRecordingCache();
+        try {
+            cache.open(null);
+            fail("Expected ConfigException");
+        } catch (ConfigException ex) {
+            // Expected exception...
+        } catch (Exception ex) {
+            fail("Unexpected exception " + ex);
+        }
+    }
+}
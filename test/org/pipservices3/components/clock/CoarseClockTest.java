@@ -0,0 +1,32 @@
+package org.pipservices3.components.clock;
+
+import org.junit.Test;
+import org.pipservices3.commons.config.ConfigParams;
+
+import static org.junit.Assert.*;
+
+public class CoarseClockTest {
+    @Test
+    public void testTicking() throws InterruptedException {
+        CoarseClock clock = new CoarseClock();
+        clock.configure(ConfigParams.fromTuples("options.resolution", 20));
+
+        // Closed clock returns the system time
+        long now = System.currentTimeMillis();
+        assertTrue(Math.abs(clock.currentTimeMillis() - now) < 20);
+
+        clock.open(null);
+        assertSame(clock, Clock.getDefault());
+        try {
+            long start = clock.currentTimeMillis();
+            Thread.sleep(200);
+
+            long time = clock.currentTimeMillis();
+            assertTrue(time > start);
+            assertTrue(Math.abs(System.currentTimeMillis() - time) < 100);
+        } finally {
+            clock.close(null);
+        }
+        assertTrue(Clock.getDefault() instanceof SystemClock);
+    }
+}
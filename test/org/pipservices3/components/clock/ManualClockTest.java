@@ -0,0 +1,83 @@
+package org.pipservices3.components.clock;
+
+import org.junit.After;
+import org.junit.Test;
+import org.pipservices3.components.cache.MemoryCache;
+import org.pipservices3.components.lock.MemoryLock;
+
+import static org.junit.Assert.*;
+
+public class ManualClockTest {
+    @After
+    public void tearDown() {
+        Clock.setDefault(null);
+    }
+
+    @Test
+    public void testSetAndAdvance() {
+        ManualClock clock = new ManualClock(1000);
+        assertEquals(1000, clock.currentTimeMillis());
+
+        clock.advance(500);
+        assertEquals(1500, clock.currentTimeMillis());
+
+        clock.setTime(100);
+        assertEquals(100, clock.currentTimeMillis());
+    }
+
+    @Test
+    public void testDefaultClock() {
+        assertTrue(Clock.getDefault() instanceof SystemClock);
+
+        ManualClock clock = new ManualClock();
+        Clock.setDefault(clock);
+        assertSame(clock, Clock.getDefault());
+
+        Clock.setDefault(null);
+        assertTrue(Clock.getDefault() instanceof SystemClock);
+    }
+
+    @Test
+    public void testOpenInstallsClock() {
+        ManualClock clock = new ManualClock(1000);
+        clock.open(null);
+        assertSame(clock, Clock.getDefault());
+        assertEquals(1000, Clock.currentTimeMillis());
+
+        // Closing a clock that is not shared keeps the shared one
+        ManualClock other = new ManualClock();
+        other.close(null);
+        assertSame(clock, Clock.getDefault());
+
+        clock.close(null);
+        assertTrue(Clock.getDefault() instanceof SystemClock);
+    }
+
+    @Test
+    public void testCacheExpiration() {
+        ManualClock clock = new ManualClock();
+        Clock.setDefault(clock);
+
+        MemoryCache cache = new MemoryCache();
+        cache.store(null, "key1", "value1", 1000);
+
+        clock.advance(500);
+        assertEquals("value1", cache.retrieve(null, "key1"));
+
+        clock.advance(1000);
+        assertNull(cache.retrieve(null, "key1"));
+    }
+
+    @Test
+    public void testLockExpiration() {
+        ManualClock clock = new ManualClock();
+        Clock.setDefault(clock);
+
+        MemoryLock lock = new MemoryLock();
+        assertTrue(lock.tryAcquireLock(null, "lock1", 1000));
+        assertFalse(lock.tryAcquireLock(null, "lock1", 1000));
+
+        clock.advance(2000);
+        assertTrue(lock.tryAcquireLock(null, "lock1", 1000));
+    }
+}